@@ -0,0 +1,66 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times stamping a frame on every access, the old way from the
+ * wall clock and the way Memory does it now from a logical counter. The stamps go into
+ * an array of frames' worth so neither can be optimized away. The whole access path with
+ * the counter is HitPathBenchmark.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AccessStampBenchmark {
+    
+    private final static int FRAME_MASK = 63;       // Frames stamped - 1.
+    
+    private final long[] timeStamps = new long[FRAME_MASK + 1];
+    private long accessClock;                       // The logical clock.
+    private int frame;                              // The next frame to stamp.
+    
+    
+    /**
+     * @return - The stamp, from System.currentTimeMillis as Frame.setTimeStamp used to.
+     */
+    @Benchmark
+    public long wallClock() {
+        
+        return timeStamps[frame++ & FRAME_MASK] = System.currentTimeMillis();
+        
+    } // end wallClock
+    
+    
+    /**
+     * @return - The stamp, from a counter bumped on every access as Memory does now.
+     */
+    @Benchmark
+    public long logicalClock() {
+        
+        return timeStamps[frame++ & FRAME_MASK] = ++accessClock;
+        
+    } // end logicalClock
+    
+} // end AccessStampBenchmark
\ No newline at end of file
@@ -0,0 +1,123 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class compares the backing stores, pages kept in arrays on the heap or
+ * in a memory mapped swap file. The uniform benchmark makes uniformly random accesses
+ * over 64 MB of pages, half of them writes, with 256 frames so nearly every access
+ * faults. The sparse benchmark only builds an MMU over the largest address space an int
+ * can address, which neither store should pay for up front, one run at a time.
+ * 
+ * Run them with -prof gc, the uniform benchmark's gc.time is what the heap store costs
+ * the collector and the sparse benchmark's gc.alloc.rate.norm is the heap an empty
+ * address space takes.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class BackingStoreBenchmark {
+    
+    private final static int NUM_FRAMES = 256;
+    private final static int PAGE_SIZE = 4096;
+    private final static int NUM_PAGES = (64 << 20) / 4 / PAGE_SIZE;
+    private final static int SPARSE_PAGE_SIZE = 1024;
+    
+    @Param({"HEAP", "MAPPED"})
+    public String store;
+    
+    
+    /**
+     * The MMU over 64 MB of pages, only built for the uniform benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Uniform {
+        
+        private Object mmu;
+        private Object workload;
+        
+        
+        /**
+         * This builds the MMU on the store and writes every page once, so both stores
+         * hold all of them before timing starts.
+         * 
+         * @param benchmark - The benchmark, for the store.
+         */
+        @Setup(Level.Trial)
+        public void setUp(BackingStoreBenchmark benchmark) {
+            
+            Object config = Simulator.newConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE,
+                    Simulator.CLOCK);
+            Simulator.setBackingStore(config, benchmark.store);
+            
+            mmu = Simulator.newMMU(config);
+            workload = Simulator.createWorkload("UNIFORM", config, 50, 1);
+            
+            for(int page = 0 ; page < NUM_PAGES ; page++) {
+                
+                Simulator.write(mmu, page * PAGE_SIZE, page);
+                
+            }
+            
+        } // end setUp
+        
+    } // end Uniform
+    
+    
+    /**
+     * @param uniform - The MMU and its workload.
+     * 
+     * @return - The accesses made.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public long uniform(Uniform uniform) {
+        
+        return Simulator.step(uniform.workload, uniform.mmu, 1);
+        
+    } // end uniform
+    
+    
+    /**
+     * @return - A new MMU over Integer.MAX_VALUE addresses, nothing touched.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public Object sparse() {
+        
+        Object config = Simulator.newConfig(Integer.MAX_VALUE / SPARSE_PAGE_SIZE, NUM_FRAMES,
+                SPARSE_PAGE_SIZE, Simulator.CLOCK);
+        Simulator.setBackingStore(config, store);
+        
+        return Simulator.newMMU(config);
+        
+    } // end sparse
+    
+} // end BackingStoreBenchmark
\ No newline at end of file
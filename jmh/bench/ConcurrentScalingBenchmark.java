@@ -0,0 +1,111 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times one ConcurrentMMU shared by every benchmark thread, each
+ * thread running its own Zipfian workload over the same pages with a quarter of them in
+ * memory. CLOCK's hits only set a reference bit and take no lock, LRU's move the frame
+ * to the front of a list under the policy's lock, so the two part ways as threads are
+ * added. The throughput reported is the accesses of all threads together, run it with
+ * -t 1, -t 2 and so on up to the cores there are to see it scale.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ConcurrentScalingBenchmark {
+    
+    private final static int NUM_PAGES = 1024;
+    private final static int NUM_FRAMES = 256;
+    private final static int PAGE_SIZE = 64;
+    
+    @Param({Simulator.CLOCK, Simulator.LRU})
+    public String policy;
+    
+    private Object mmu;                             // The ConcurrentMMU all threads share.
+    private AtomicInteger seeds;                    // Gives every thread its own seed.
+    
+    
+    /**
+     * This builds the MMU every thread shares, for as many threads as JMH runs by
+     * default.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        Object config = Simulator.newConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE, policy);
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        mmu = Simulator.newConcurrentMMU(config, cores);
+        seeds = new AtomicInteger();
+        
+    } // end setUp
+    
+    
+    /**
+     * One thread's workload.
+     */
+    @State(Scope.Thread)
+    public static class Accesses {
+        
+        private Object workload;
+        
+        
+        /**
+         * This gives the thread a Zipfian workload with 30% writes, seeded apart from
+         * every other thread's.
+         * 
+         * @param shared - The benchmark, for the next seed.
+         */
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentScalingBenchmark shared) {
+            
+            workload = Simulator.newZipf(NUM_PAGES * PAGE_SIZE, PAGE_SIZE, 1.0, 30,
+                    shared.seeds.getAndIncrement());
+                    
+        } // end setUp
+        
+    } // end Accesses
+    
+    
+    /**
+     * @param accesses - This thread's workload.
+     * 
+     * @return - The accesses made.
+     */
+    @Benchmark
+    public long access(Accesses accesses) {
+        
+        return Simulator.step(accesses.workload, mmu, 1);
+        
+    } // end access
+    
+} // end ConcurrentScalingBenchmark
\ No newline at end of file
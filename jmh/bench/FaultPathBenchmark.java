@@ -0,0 +1,104 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times page faults by page size. Accesses stride one page and
+ * one address at a time through 64 pages with only 8 frames, so under LRU, FIFO and
+ * CLOCK every access faults, and every other access is a write so half the victims
+ * have to be written back. The copies in and out of the file system dominate, and the
+ * throughput reported is faults per second.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FaultPathBenchmark {
+    
+    @Param({Simulator.LRU, Simulator.FIFO, Simulator.CLOCK, Simulator.CLOCK_PRO})
+    public String policy;
+    
+    @Param({"256", "1024", "4096", "16384", "65536"})
+    public int pageSize;
+    
+    @Param({"64"})
+    public int numPages;
+    
+    @Param({"8"})
+    public int numFrames;
+    
+    private Object mmu;
+    private int numAddresses;                       // numPages * pageSize.
+    private int address;                            // The next address to access.
+    private int count;                              // Accesses so far, odd ones write.
+    
+    
+    /**
+     * This builds the MMU and fills memory, so even the first timed access evicts.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        mmu = Simulator.newMMU(Simulator.newConfig(numPages, numFrames, pageSize, policy));
+        numAddresses = numPages * pageSize;
+        
+        for(int i = 0 ; i < numFrames ; i++) {
+            
+            access();
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * @return - The value read or whether the write succeeded, so neither is optimized
+     * away.
+     */
+    @Benchmark
+    public int access() {
+        
+        int current = address;
+        address += pageSize + 1;
+        
+        if(address >= numAddresses) {
+            
+            address -= numAddresses;
+            
+        }
+        
+        if((count++ & 1) != 0) {
+            
+            return Simulator.write(mmu, current, count) ? 1 : 0;
+            
+        }
+        
+        return Simulator.read(mmu, current);
+        
+    } // end access
+    
+} // end FaultPathBenchmark
\ No newline at end of file
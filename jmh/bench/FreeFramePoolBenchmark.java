@@ -0,0 +1,86 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class samples the time of every access of a Zipfian workload with
+ * 70% writes and a quarter of its pages in memory, with pages evicted by the fault that
+ * needs the frame or reclaimed in batches into a pool of free frames. A fault whose page
+ * is still on the free list is a minor fault and copies nothing. Most accesses hit, so
+ * the faults are the upper percentiles of the samples and that is where the pool should
+ * show.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreeFramePoolBenchmark {
+    
+    private final static int NUM_PAGES = 4096;
+    private final static int NUM_FRAMES = 1024;
+    private final static int PAGE_SIZE = 256;
+    
+    private final static int WRITE_PERCENT = 70;
+    
+    // Free frames below which a batch is reclaimed, up to twice as many, 0 for no pool.
+    @Param({"0", "16", "64", "256"})
+    public int lowWater;
+    
+    private Object mmu;
+    private Object workload;
+    
+    
+    /**
+     * This builds the MMU and fills memory so the first timed faults already evict.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        Object config = Simulator.newConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE,
+                Simulator.LRU);
+        Simulator.setFreeFrameWaterMarks(config, lowWater, 2 * lowWater);
+        
+        mmu = Simulator.newMMU(config);
+        workload = Simulator.newZipf(NUM_PAGES * PAGE_SIZE, PAGE_SIZE, 0.8, WRITE_PERCENT,
+                1);
+                
+        Simulator.step(workload, mmu, 4 * NUM_FRAMES);
+        
+    } // end setUp
+    
+    
+    /**
+     * @return - The accesses made.
+     */
+    @Benchmark
+    public long access() {
+        
+        return Simulator.step(workload, mmu, 1);
+        
+    } // end access
+    
+} // end FreeFramePoolBenchmark
\ No newline at end of file
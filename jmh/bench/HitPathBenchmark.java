@@ -0,0 +1,127 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times accesses that never fault, every page is resident before
+ * timing starts. What is left is the translation, the TLB if there is one, the policy's
+ * bookkeeping on every touch and the read or write itself.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HitPathBenchmark {
+    
+    private final static int ADDRESS_MASK = (1 << 16) - 1;  // Precomputed addresses - 1.
+    
+    @Param({Simulator.LRU, Simulator.FIFO, Simulator.CLOCK, Simulator.CLOCK_PRO})
+    public String policy;
+    
+    @Param({"0", "64"})
+    public int tlbSize;
+    
+    @Param({"64"})
+    public int numPages;
+    
+    @Param({"1024"})
+    public int pageSize;
+    
+    private Object mmu;                             // Every page already resident.
+    private int[] addresses;                        // Uniformly random, over every page.
+    private int next;                               // Index of the next address to use.
+    
+    
+    /**
+     * This builds an MMU with a frame for every page and touches every page once.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        Object config = Simulator.newConfig(numPages, numPages, pageSize, policy);
+        Simulator.setTLBSize(config, tlbSize);
+        mmu = Simulator.newMMU(config);
+        
+        for(int page = 0 ; page < numPages ; page++) {
+            
+            Simulator.read(mmu, page * pageSize);
+            
+        }
+        
+        Random random = new Random(1);
+        addresses = new int[ADDRESS_MASK + 1];
+        
+        for(int i = 0 ; i < addresses.length ; i++) {
+            
+            addresses[i] = random.nextInt(numPages * pageSize);
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * This makes sure nothing faulted after the set up, or the numbers mean nothing.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        
+        if(Simulator.getTotalPageFaults(mmu) != numPages) {
+            
+            throw new IllegalStateException("The hit path faulted");
+            
+        }
+        
+    } // end tearDown
+    
+    
+    /**
+     * @return - The value read, so the read can't be optimized away.
+     */
+    @Benchmark
+    public int read() {
+        
+        return Simulator.read(mmu, addresses[next++ & ADDRESS_MASK]);
+        
+    } // end read
+    
+    
+    /**
+     * @return - Whether the write succeeded, so it can't be optimized away.
+     */
+    @Benchmark
+    public boolean write() {
+        
+        int i = next++;
+        
+        return Simulator.write(mmu, addresses[i & ADDRESS_MASK], i);
+        
+    } // end write
+    
+} // end HitPathBenchmark
\ No newline at end of file
@@ -0,0 +1,101 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the baseline for LRU in VictimSelectionBenchmark. Before the
+ * recency list, every LRU fault picked its victim by walking every frame and comparing
+ * time stamps, as Memory.getLRUFrame did, which is rebuilt here over the same frame
+ * counts. Each operation is one such pick and the stamp of the frame it reuses, so its
+ * time is what each fault used to spend on top of the rest of the fault.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LRUScanBenchmark {
+    
+    @Param({"16", "256", "4096", "65536"})
+    public int numFrames;
+    
+    private StampedFrame[] frames;
+    private long accessClock;
+    
+    
+    /**
+     * A frame as the scan sees it, one object per frame like Frame.
+     */
+    private static class StampedFrame {
+        
+        private long timeStamp;
+        
+    } // end StampedFrame
+    
+    
+    /**
+     * This builds the frames, stamped in order as if just filled.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        frames = new StampedFrame[numFrames];
+        
+        for(int i = 0 ; i < numFrames ; i++) {
+            
+            frames[i] = new StampedFrame();
+            frames[i].timeStamp = ++accessClock;
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * @return - The frame picked, the oldest, which is then stamped as just used.
+     */
+    @Benchmark
+    public int linearScan() {
+        
+        int lruFrame = 0;
+        
+        for(int i = 1 ; i < frames.length ; i++) {
+            
+            if(frames[i].timeStamp < frames[lruFrame].timeStamp) {
+                
+                lruFrame = i;
+                
+            }
+            
+        }
+        
+        frames[lruFrame].timeStamp = ++accessClock;
+        
+        return lruFrame;
+        
+    } // end linearScan
+    
+} // end LRUScanBenchmark
\ No newline at end of file
@@ -0,0 +1,113 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times the hit path and the fault path with and without
+ * MMUMetrics attached, taking a snapshot every 10 ms while it runs. The MMU's counters
+ * are there either way, so this is what the latency histograms and the snapshot thread
+ * cost. The hit path is uniform accesses over pages that all fit, the fault path strides
+ * a page and one address at a time through 64 pages with 8 frames, so every access
+ * faults and half of them write.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    
+    private final static int NUM_PAGES = 64;
+    private final static int PAGE_SIZE = 1024;
+    private final static long SNAPSHOT_PERIOD = 10;
+    
+    // HIT uses a frame for every page, FAULT only 8.
+    @Param({"HIT", "FAULT"})
+    public String path;
+    
+    @Param({"false", "true"})
+    public boolean attached;
+    
+    private Object mmu;
+    private Object workload;
+    private Object metrics;                         // The MMUMetrics, null if not attached.
+    
+    
+    /**
+     * This builds the MMU and workload for the path, attaches the metrics if asked to
+     * and fills memory.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        boolean faults = path.equals("FAULT");
+        Object config = Simulator.newConfig(NUM_PAGES, faults ? 8 : NUM_PAGES, PAGE_SIZE,
+                Simulator.LRU);
+                
+        mmu = Simulator.newMMU(config);
+        workload = faults ? Simulator.createWorkload("STRIDED", config, 50, 1)
+                : Simulator.createWorkload("UNIFORM", config, 30, 1);
+                
+        if(attached) {
+            
+            metrics = Simulator.newMetrics(mmu);
+            Simulator.startSnapshots(metrics, SNAPSHOT_PERIOD, null);
+            
+        }
+        
+        Simulator.step(workload, mmu, NUM_PAGES * PAGE_SIZE);
+        
+    } // end setUp
+    
+    
+    /**
+     * This stops the snapshot thread, if there is one.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        
+        if(metrics != null) {
+            
+            Simulator.detach(metrics);
+            metrics = null;
+            
+        }
+        
+    } // end tearDown
+    
+    
+    /**
+     * @return - The accesses made.
+     */
+    @Benchmark
+    public long access() {
+        
+        return Simulator.step(workload, mmu, 1);
+        
+    } // end access
+    
+} // end MetricsBenchmark
\ No newline at end of file
@@ -0,0 +1,116 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times several processes sharing one memory, each running its own
+ * Zipfian workload over the whole of its address space, round robin a quantum at a time.
+ * Under global replacement a process's victims come from any frame, under local
+ * replacement only from its own even share, so the more processes the smaller that share
+ * and the more each one faults. The time reported is per access, the context switch
+ * spread over its quantum.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiProcessBenchmark {
+    
+    private final static int NUM_PAGES = 256;
+    private final static int NUM_FRAMES = 256;
+    private final static int PAGE_SIZE = 64;
+    private final static int QUANTUM = 10000;       // Driver's default.
+    
+    @Param({Simulator.LRU, Simulator.CLOCK})
+    public String policy;
+    
+    @Param({"false", "true"})
+    public boolean local;
+    
+    @Param({"1", "4", "16"})
+    public int processes;
+    
+    private Object mmu;
+    private Object[] workloads;                     // Workload i runs as ASID i.
+    private int next;                               // The process to run next.
+    
+    
+    /**
+     * This builds the MMU and a process for every workload, then runs each for a quantum
+     * so memory is already shared out when timing starts.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        Object config = Simulator.newConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE, policy);
+        Simulator.setLocalReplacement(config, local);
+        
+        mmu = Simulator.newMMU(config);
+        workloads = new Object[processes];
+        
+        for(int i = 0 ; i < processes ; i++) {
+            
+            // The MMU starts out with process 0.
+            if(i > 0 && Simulator.createProcess(mmu) != i) {
+                
+                throw new IllegalStateException("Couldn't create process " + i);
+                
+            }
+            
+            workloads[i] = Simulator.newZipf(NUM_PAGES * PAGE_SIZE, PAGE_SIZE, 1.0, 30, i);
+            
+        }
+        
+        for(int i = 0 ; i < processes ; i++) {
+            
+            quantum();
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * This switches to the next process and runs it for a quantum.
+     * 
+     * @return - The accesses made.
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUANTUM)
+    public long quantum() {
+        
+        int asid = next;
+        next = (next + 1) % processes;
+        
+        Simulator.contextSwitch(mmu, asid);
+        
+        return Simulator.step(workloads[asid], mmu, QUANTUM);
+        
+    } // end quantum
+    
+} // end MultiProcessBenchmark
\ No newline at end of file
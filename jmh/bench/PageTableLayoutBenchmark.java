@@ -0,0 +1,200 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class compares PageTable's entries, one int per page with the valid
+ * bit, protection and frame packed together, with the old table of two int arrays per
+ * page, rebuilt here as the baseline. The lookups go to pages picked at random from the
+ * whole table, the way a TLB miss would, so once the table outgrows the caches they
+ * measure how many cache lines an entry costs.
+ * 
+ * The build benchmarks allocate a whole table. Run them with -prof gc and the
+ * gc.alloc.rate.norm line is its size on the heap, PageTable's includes its frame to
+ * page map of NUM_FRAMES ints.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PageTableLayoutBenchmark {
+    
+    private final static int NUM_FRAMES = 1024;
+    
+    // Powers of 2, so a random page is a mask away.
+    @Param({"1024", "65536", "1048576", "16777216"})
+    public int numPages;
+    
+    private Object pageTable;                       // A PageTable, every page mapped.
+    private int[][] oldTable;                       // [page][0] frame, [page][1] valid.
+    private int seed;                               // Picks the next page at random.
+    
+    
+    /**
+     * This maps every page to a frame in both tables, as if memory held them all, so
+     * every lookup reads a whole entry.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        pageTable = Simulator.newPageTable(numPages, NUM_FRAMES);
+        oldTable = newOldTable();
+        
+        for(int page = 0 ; page < numPages ; page++) {
+            
+            Simulator.addPageToFrame(pageTable, page, page & (NUM_FRAMES - 1));
+            oldTable[page][0] = page & (NUM_FRAMES - 1);
+            oldTable[page][1] = 1;
+            
+        }
+        
+        seed = 1;
+        
+    } // end setUp
+    
+    
+    /**
+     * This checks both tables agree on a sample of pages, outside the timing.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        
+        for(int page = 0 ; page < numPages ; page += 7) {
+            
+            if(Simulator.getFrameNumber(pageTable, page) != oldLookup(page)) {
+                
+                throw new IllegalStateException("The tables disagree on page " + page);
+                
+            }
+            
+        }
+        
+    } // end tearDown
+    
+    
+    /**
+     * @return - The frame of a random page, from PageTable.
+     */
+    @Benchmark
+    public int packedLookup() {
+        
+        return Simulator.getFrameNumber(pageTable, nextPage());
+        
+    } // end packedLookup
+    
+    
+    /**
+     * @return - The frame of a random page, from the old table.
+     */
+    @Benchmark
+    public int pairLookup() {
+        
+        return oldLookup(nextPage());
+        
+    } // end pairLookup
+    
+    
+    /**
+     * @return - A new, empty, PageTable.
+     */
+    @Benchmark
+    public Object packedBuild() {
+        
+        return Simulator.newPageTable(numPages, NUM_FRAMES);
+        
+    } // end packedBuild
+    
+    
+    /**
+     * @return - A new, empty, old table.
+     */
+    @Benchmark
+    public Object pairBuild() {
+        
+        return newOldTable();
+        
+    } // end pairBuild
+    
+    
+    /**
+     * This is a private method picking the next page, an LCG is cheap enough not to hide
+     * the lookup and the same for both tables.
+     * 
+     * @return - The page.
+     */
+    private int nextPage() {
+        
+        seed = seed * 1103515245 + 12345;
+        
+        return (seed >>> 7) & (numPages - 1);
+        
+    } // end nextPage
+    
+    
+    /**
+     * This is a private method building the old table as the old PageTable's constructor
+     * did.
+     * 
+     * @return - Every page invalid, in no frame.
+     */
+    private int[][] newOldTable() {
+        
+        int[][] table = new int[numPages][2];
+        
+        for(int i = 0 ; i < table.length ; i++) {
+            
+            table[i][0] = -1;
+            table[i][1] = 0;
+            
+        }
+        
+        return table;
+        
+    } // end newOldTable
+    
+    
+    /**
+     * This is a private method looking a page up the way the old getFrameNumber did.
+     * 
+     * @param page - The page.
+     * 
+     * @return - The frame it is in, or -1 if none.
+     */
+    private int oldLookup(int page) {
+        
+        if(oldTable[page][1] == 1) {
+            
+            return oldTable[page][0];
+            
+        }
+        
+        return -1;
+        
+    } // end oldLookup
+    
+} // end PageTableLayoutBenchmark
\ No newline at end of file
@@ -0,0 +1,146 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times finding which page is in a frame, what every fault does
+ * for its victim, as the virtual address space grows from 16K to 16M pages. PageTable
+ * answers from its frame to page map. The old page table had no such map and scanned
+ * its two int entries per page for the frame, which is rebuilt here as the baseline.
+ * 
+ * Memory's 1024 frames hold pages spread evenly over the address space, so on average
+ * the scan covers half the table. The old layout of 16M pages needs a few hundred MB of
+ * heap, hence the larger heap.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PageTableScalingBenchmark {
+    
+    private final static int NUM_FRAMES = 1024;
+    
+    @Param({"16384", "262144", "4194304", "16777216"})
+    public int numPages;
+    
+    private Object pageTable;                       // A PageTable, frames mapped.
+    private int[][] oldTable;                       // [page][0] frame, [page][1] valid.
+    private int frame;                              // The next frame to look up.
+    
+    
+    /**
+     * This maps every frame to a page, in both tables, page numbers spread evenly and
+     * shuffled across the frames so the scan can't predict where it stops.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        pageTable = Simulator.newPageTable(numPages, NUM_FRAMES);
+        oldTable = new int[numPages][2];
+        int spacing = numPages / NUM_FRAMES;
+        
+        for(int i = 0 ; i < NUM_FRAMES ; i++) {
+            
+            // 401 is odd, so this visits every frame once.
+            int mappedFrame = (i * 401) & (NUM_FRAMES - 1);
+            int page = i * spacing;
+            
+            Simulator.addPageToFrame(pageTable, page, mappedFrame);
+            oldTable[page][0] = mappedFrame;
+            oldTable[page][1] = 1;
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * This checks both tables agree on every frame, outside the timing.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        
+        for(int i = 0 ; i < NUM_FRAMES ; i++) {
+            
+            if(Simulator.getPageNumber(pageTable, i) != scan(i)) {
+                
+                throw new IllegalStateException("The tables disagree on frame " + i);
+                
+            }
+            
+        }
+        
+    } // end tearDown
+    
+    
+    /**
+     * @return - The page in the next frame, from PageTable's frame to page map.
+     */
+    @Benchmark
+    public int frameToPageMap() {
+        
+        return Simulator.getPageNumber(pageTable, frame++ & (NUM_FRAMES - 1));
+        
+    } // end frameToPageMap
+    
+    
+    /**
+     * @return - The page in the next frame, found the old way.
+     */
+    @Benchmark
+    public int tableScan() {
+        
+        return scan(frame++ & (NUM_FRAMES - 1));
+        
+    } // end tableScan
+    
+    
+    /**
+     * This is a private method scanning the old table as PageTable.getPageNumber did.
+     * 
+     * @param frameNumber - The frame.
+     * 
+     * @return - The page in it, or -1 if none.
+     */
+    private int scan(int frameNumber) {
+        
+        for(int i = 0 ; i < oldTable.length ; i++) {
+            
+            if(oldTable[i][0] == frameNumber && oldTable[i][1] == 1) {
+                
+                return i;
+                
+            }
+            
+        }
+        
+        return -1;
+        
+    } // end scan
+    
+} // end PageTableScalingBenchmark
\ No newline at end of file
@@ -0,0 +1,85 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times Workload's patterns with and without read ahead, an
+ * eighth of the pages in memory. Sequential and strided faults are the streams read
+ * ahead is for, a loop bigger than memory is one too but every page read ahead evicts
+ * one the loop needs sooner, and uniform accesses have no stream at all so whatever is
+ * read ahead is wasted. The time reported is per access, prefetches included.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadAheadBenchmark {
+    
+    private final static int NUM_PAGES = 1024;
+    private final static int NUM_FRAMES = 128;
+    private final static int PAGE_SIZE = 256;
+    
+    @Param({"SEQUENTIAL", "STRIDED", "LOOP", "UNIFORM"})
+    public String workloadName;
+    
+    // The most pages to read ahead, 0 for none.
+    @Param({"0", "4", "16"})
+    public int window;
+    
+    private Object mmu;
+    private Object workload;
+    
+    
+    /**
+     * This builds the MMU and the workload, with 30% writes, and fills memory.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        Object config = Simulator.newConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE,
+                Simulator.LRU);
+        Simulator.setReadAheadWindow(config, window);
+        
+        mmu = Simulator.newMMU(config);
+        workload = Simulator.createWorkload(workloadName, config, 30, 1);
+        
+        Simulator.step(workload, mmu, NUM_PAGES * PAGE_SIZE);
+        
+    } // end setUp
+    
+    
+    /**
+     * @return - The accesses made.
+     */
+    @Benchmark
+    public long access() {
+        
+        return Simulator.step(workload, mmu, 1);
+        
+    } // end access
+    
+} // end ReadAheadBenchmark
\ No newline at end of file
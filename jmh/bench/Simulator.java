@@ -0,0 +1,934 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is how the benchmarks reach the simulator. JMH won't run
+ * benchmarks from the default package and a named package can't import from it, so the
+ * simulator's classes are looked up by name once and called through method handles. The
+ * handles are static finals of exact type, which the JIT inlines like direct calls, so
+ * the bridge itself doesn't show up in the measurements.
+ * 
+ * Everything the simulator hands back is an Object that is only ever passed back in.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+public final class Simulator {
+    
+    final static String LRU = "LRU";
+    final static String FIFO = "FIFO";
+    final static String CLOCK = "CLOCK";
+    final static String CLOCK_PRO = "CLOCKPRO";
+    
+    // The op bytes of TraceReader's records.
+    final static byte TRACE_READ = 0;
+    final static byte TRACE_WRITE = 1;
+    
+    private final static Class<?> CONFIG = load("MMUConfig");
+    private final static Class<?> MMU_HARDWARE = load("MMUHardware");
+    private final static Class<?> ZIPF = load("ZipfWorkload");
+    private final static Class<?> TRACE_READER = load("TraceReader");
+    private final static Class<?> PAGE_TABLE = load("PageTable");
+    private final static Class<?> MMU = load("MMU");
+    private final static Class<?> CONCURRENT_MMU = load("ConcurrentMMU");
+    private final static Class<?> WORKLOAD = load("Workload");
+    private final static Class<?> METRICS = load("MMUMetrics");
+    
+    private final static MethodHandle NEW_CONFIG = constructor(CONFIG, int.class, int.class,
+            int.class, String.class);
+    private final static MethodHandle SET_TLB_SIZE = method(CONFIG, "setTLBSize", void.class,
+            int.class);
+    private final static MethodHandle SET_OUTPUT_FILE = method(CONFIG, "setOutputFile",
+            void.class, String.class);
+    private final static MethodHandle SET_LOCAL_REPLACEMENT = method(CONFIG,
+            "setLocalReplacement", void.class, boolean.class);
+    private final static MethodHandle SET_CLEANER_WATER_MARKS = method(CONFIG,
+            "setCleanerWaterMarks", void.class, int.class, int.class);
+    private final static MethodHandle SET_FREE_FRAME_WATER_MARKS = method(CONFIG,
+            "setFreeFrameWaterMarks", void.class, int.class, int.class);
+    private final static MethodHandle SET_READ_AHEAD_WINDOW = method(CONFIG,
+            "setReadAheadWindow", void.class, int.class);
+    private final static MethodHandle SET_BACKING_STORE = method(CONFIG, "setBackingStore",
+            void.class, String.class);
+    private final static MethodHandle NEW_MMU = constructor(MMU_HARDWARE, CONFIG);
+    private final static MethodHandle CREATE_PROCESS = method(MMU_HARDWARE, "createProcess",
+            int.class);
+    private final static MethodHandle CONTEXT_SWITCH = method(MMU_HARDWARE, "contextSwitch",
+            boolean.class, int.class);
+    private final static MethodHandle STOP_CLEANER = method(MMU_HARDWARE, "stopCleaner",
+            void.class);
+    private final static MethodHandle NEW_CONCURRENT_MMU = constructor(CONCURRENT_MMU, CONFIG,
+            int.class);
+    private final static MethodHandle READ = method(MMU_HARDWARE, "readMemory", int.class,
+            int.class);
+    private final static MethodHandle WRITE = method(MMU_HARDWARE, "writeMemory",
+            boolean.class, int.class, int.class);
+    private final static MethodHandle FAULTS = method(MMU_HARDWARE, "getTotalPageFaults",
+            int.class);
+    private final static MethodHandle NEW_ZIPF = constructor(ZIPF, int.class, int.class,
+            double.class, int.class, long.class);
+    private final static MethodHandle NEXT_ADDRESS = method(ZIPF, "nextAddress", int.class);
+    private final static MethodHandle CREATE_WORKLOAD = staticMethod(WORKLOAD, "create",
+            WORKLOAD, String.class, CONFIG, int.class, long.class);
+    private final static MethodHandle STEP = method(WORKLOAD, "step", long.class, MMU,
+            long.class);
+    private final static MethodHandle NEW_TRACE_READER = constructor(TRACE_READER,
+            String.class);
+    private final static MethodHandle REPLAY = method(TRACE_READER, "replay", long.class,
+            MMU);
+    private final static MethodHandle NEW_PAGE_TABLE = constructor(PAGE_TABLE, int.class,
+            int.class);
+    private final static MethodHandle ADD_PAGE_TO_FRAME = method(PAGE_TABLE,
+            "addPageToFrame", void.class, int.class, int.class);
+    private final static MethodHandle GET_PAGE_NUMBER = method(PAGE_TABLE, "getPageNumber",
+            int.class, int.class);
+    private final static MethodHandle GET_FRAME_NUMBER = method(PAGE_TABLE, "getFrameNumber",
+            int.class, int.class);
+    private final static MethodHandle NEW_METRICS = constructor(METRICS, MMU_HARDWARE);
+    private final static MethodHandle START_SNAPSHOTS = method(METRICS, "startSnapshots",
+            void.class, long.class, PrintStream.class);
+    private final static MethodHandle DETACH = method(METRICS, "detach", void.class);
+            
+            
+    private Simulator() {
+    
+    } // end Simulator constructor
+    
+    
+    /**
+     * This method builds an MMU configuration that writes no output file.
+     * 
+     * @param numPages - Virtual pages.
+     * 
+     * @param numFrames - Physical frames.
+     * 
+     * @param pageSize - Addresses per page.
+     * 
+     * @param policy - The replacement policy, LRU, FIFO and so on.
+     * 
+     * @return - The MMUConfig.
+     */
+    static Object newConfig(int numPages, int numFrames, int pageSize, String policy) {
+        
+        try {
+            
+            Object config = (Object) NEW_CONFIG.invokeExact(numPages, numFrames, pageSize,
+                    policy);
+            SET_OUTPUT_FILE.invokeExact(config, (String) null);
+            
+            return config;
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newConfig
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param size - TLB entries, 0 for none.
+     */
+    static void setTLBSize(Object config, int size) {
+        
+        try {
+            
+            SET_TLB_SIZE.invokeExact(config, size);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end setTLBSize
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param local - True to split the frames evenly between processes.
+     */
+    static void setLocalReplacement(Object config, boolean local) {
+        
+        try {
+            
+            SET_LOCAL_REPLACEMENT.invokeExact(config, local);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end setLocalReplacement
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param lowWater - Clean frames the cleaner keeps, 0 for no cleaner.
+     * 
+     * @param highWater - Clean frames it stops at.
+     */
+    static void setCleanerWaterMarks(Object config, int lowWater, int highWater) {
+        
+        try {
+            
+            SET_CLEANER_WATER_MARKS.invokeExact(config, lowWater, highWater);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end setCleanerWaterMarks
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param lowWater - Free frames below which a batch is reclaimed, 0 for no pool.
+     * 
+     * @param highWater - Free frames a batch reclaims up to.
+     */
+    static void setFreeFrameWaterMarks(Object config, int lowWater, int highWater) {
+        
+        try {
+            
+            SET_FREE_FRAME_WATER_MARKS.invokeExact(config, lowWater, highWater);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end setFreeFrameWaterMarks
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param pages - The most pages to read ahead, 0 for none.
+     */
+    static void setReadAheadWindow(Object config, int pages) {
+        
+        try {
+            
+            SET_READ_AHEAD_WINDOW.invokeExact(config, pages);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end setReadAheadWindow
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param store - HEAP or MAPPED.
+     */
+    static void setBackingStore(Object config, String store) {
+        
+        try {
+            
+            SET_BACKING_STORE.invokeExact(config, store);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end setBackingStore
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @return - A new MMUHardware built from it.
+     */
+    static Object newMMU(Object config) {
+        
+        try {
+            
+            return (Object) NEW_MMU.invokeExact(config);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newMMU
+    
+    
+    /**
+     * @param mmu - The MMUHardware.
+     * 
+     * @return - The new process's address space ID, or -1 if there can be no more.
+     */
+    static int createProcess(Object mmu) {
+        
+        try {
+            
+            return (int) CREATE_PROCESS.invokeExact(mmu);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end createProcess
+    
+    
+    /**
+     * @param mmu - The MMUHardware.
+     * 
+     * @param asid - The process to run.
+     * 
+     * @return - A boolean true if switched, false if there is no such process.
+     */
+    static boolean contextSwitch(Object mmu, int asid) {
+        
+        try {
+            
+            return (boolean) CONTEXT_SWITCH.invokeExact(mmu, asid);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end contextSwitch
+    
+    
+    /**
+     * @param mmu - The MMUHardware, its cleaner thread is stopped if it has one.
+     */
+    static void stopCleaner(Object mmu) {
+        
+        try {
+            
+            STOP_CLEANER.invokeExact(mmu);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end stopCleaner
+    
+    
+    /**
+     * @param config - The MMUConfig.
+     * 
+     * @param threads - How many threads will share it.
+     * 
+     * @return - A new ConcurrentMMU built from it.
+     */
+    static Object newConcurrentMMU(Object config, int threads) {
+        
+        try {
+            
+            return (Object) NEW_CONCURRENT_MMU.invokeExact(config, threads);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newConcurrentMMU
+    
+    
+    /**
+     * @param mmu - The MMUHardware.
+     * 
+     * @param address - The address to read.
+     * 
+     * @return - The value read.
+     */
+    static int read(Object mmu, int address) {
+        
+        try {
+            
+            return (int) READ.invokeExact(mmu, address);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end read
+    
+    
+    /**
+     * @param mmu - The MMUHardware.
+     * 
+     * @param address - The address to write.
+     * 
+     * @param value - The value to write.
+     * 
+     * @return - A boolean true if written, false otherwise.
+     */
+    static boolean write(Object mmu, int address, int value) {
+        
+        try {
+            
+            return (boolean) WRITE.invokeExact(mmu, address, value);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end write
+    
+    
+    /**
+     * @param mmu - The MMUHardware.
+     * 
+     * @return - Its page faults so far.
+     */
+    static int getTotalPageFaults(Object mmu) {
+        
+        try {
+            
+            return (int) FAULTS.invokeExact(mmu);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end getTotalPageFaults
+    
+    
+    /**
+     * @param numAddresses - The size of the address space.
+     * 
+     * @param pageSize - Addresses per page.
+     * 
+     * @param skew - The Zipf exponent.
+     * 
+     * @param seed - The random seed.
+     * 
+     * @return - A new ZipfWorkload, writes are left to the caller.
+     */
+    static Object newZipf(int numAddresses, int pageSize, double skew, long seed) {
+        
+        try {
+            
+            return (Object) NEW_ZIPF.invokeExact(numAddresses, pageSize, skew, 0, seed);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newZipf
+    
+    
+    /**
+     * @param workload - The ZipfWorkload.
+     * 
+     * @return - Its next address.
+     */
+    static int nextAddress(Object workload) {
+        
+        try {
+            
+            return (int) NEXT_ADDRESS.invokeExact(workload);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end nextAddress
+    
+    
+    /**
+     * @param numAddresses - The size of the address space.
+     * 
+     * @param pageSize - Addresses per page.
+     * 
+     * @param skew - The Zipf exponent.
+     * 
+     * @param writePercent - The chance out of 100 that step writes.
+     * 
+     * @param seed - The random seed.
+     * 
+     * @return - A new ZipfWorkload.
+     */
+    static Object newZipf(int numAddresses, int pageSize, double skew, int writePercent,
+            long seed) {
+            
+        try {
+            
+            return (Object) NEW_ZIPF.invokeExact(numAddresses, pageSize, skew, writePercent,
+                    seed);
+                    
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newZipf
+    
+    
+    /**
+     * @param name - SEQUENTIAL, STRIDED, LOOP and so on from Workload.
+     * 
+     * @param config - The MMUConfig it runs against.
+     * 
+     * @param writePercent - The chance out of 100 that step writes.
+     * 
+     * @param seed - The random seed.
+     * 
+     * @return - The Workload, or null if the name isn't one it knows.
+     */
+    static Object createWorkload(String name, Object config, int writePercent, long seed) {
+        
+        try {
+            
+            return (Object) CREATE_WORKLOAD.invokeExact(name, config, writePercent, seed);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end createWorkload
+    
+    
+    /**
+     * @param workload - Any Workload.
+     * 
+     * @param mmu - The MMUHardware or ConcurrentMMU to drive.
+     * 
+     * @param numAccesses - How many reads and writes to make, from where it left off.
+     * 
+     * @return - The number of accesses made.
+     */
+    static long step(Object workload, Object mmu, long numAccesses) {
+        
+        try {
+            
+            return (long) STEP.invokeExact(workload, mmu, numAccesses);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end step
+    
+    
+    /**
+     * @param fileName - A binary trace.
+     * 
+     * @return - A TraceReader mapping it.
+     */
+    static Object newTraceReader(String fileName) {
+        
+        try {
+            
+            return (Object) NEW_TRACE_READER.invokeExact(fileName);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newTraceReader
+    
+    
+    /**
+     * @param trace - The TraceReader.
+     * 
+     * @param mmu - The MMUHardware to replay it on.
+     * 
+     * @return - The number of accesses replayed.
+     */
+    static long replay(Object trace, Object mmu) {
+        
+        try {
+            
+            return (long) REPLAY.invokeExact(trace, mmu);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end replay
+    
+    
+    /**
+     * @param numPages - Virtual pages.
+     * 
+     * @param numFrames - Physical frames.
+     * 
+     * @return - A new, empty, PageTable.
+     */
+    static Object newPageTable(int numPages, int numFrames) {
+        
+        try {
+            
+            return (Object) NEW_PAGE_TABLE.invokeExact(numPages, numFrames);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newPageTable
+    
+    
+    /**
+     * @param pageTable - The PageTable.
+     * 
+     * @param page - The page to map.
+     * 
+     * @param frame - The frame it now resides in.
+     */
+    static void addPageToFrame(Object pageTable, int page, int frame) {
+        
+        try {
+            
+            ADD_PAGE_TO_FRAME.invokeExact(pageTable, page, frame);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end addPageToFrame
+    
+    
+    /**
+     * @param pageTable - The PageTable.
+     * 
+     * @param frame - A frame.
+     * 
+     * @return - The page in it, or -1 if none.
+     */
+    static int getPageNumber(Object pageTable, int frame) {
+        
+        try {
+            
+            return (int) GET_PAGE_NUMBER.invokeExact(pageTable, frame);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end getPageNumber
+    
+    
+    /**
+     * @param pageTable - The PageTable.
+     * 
+     * @param page - A page.
+     * 
+     * @return - The frame it is in, or -1 if none.
+     */
+    static int getFrameNumber(Object pageTable, int page) {
+        
+        try {
+            
+            return (int) GET_FRAME_NUMBER.invokeExact(pageTable, page);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end getFrameNumber
+    
+    
+    /**
+     * @param mmu - The MMUHardware.
+     * 
+     * @return - New MMUMetrics timing its faults.
+     */
+    static Object newMetrics(Object mmu) {
+        
+        try {
+            
+            return (Object) NEW_METRICS.invokeExact(mmu);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end newMetrics
+    
+    
+    /**
+     * @param metrics - The MMUMetrics.
+     * 
+     * @param period - The milliseconds between snapshots.
+     * 
+     * @param printTo - Where to print them, null to only keep the latest.
+     */
+    static void startSnapshots(Object metrics, long period, PrintStream printTo) {
+        
+        try {
+            
+            START_SNAPSHOTS.invokeExact(metrics, period, printTo);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end startSnapshots
+    
+    
+    /**
+     * @param metrics - The MMUMetrics, its snapshots stop and its MMU is no longer timed.
+     */
+    static void detach(Object metrics) {
+        
+        try {
+            
+            DETACH.invokeExact(metrics);
+            
+        } catch(Throwable t) {
+            
+            throw rethrow(t);
+            
+        }
+        
+    } // end detach
+    
+    
+    /**
+     * This is a private method loading one of the simulator's classes.
+     * 
+     * @param name - The class name, they are all in the default package.
+     * 
+     * @return - The class.
+     */
+    private static Class<?> load(String name) {
+        
+        try {
+            
+            return Class.forName(name);
+            
+        } catch(ClassNotFoundException e) {
+            
+            throw new ExceptionInInitializerError("The simulator isn't on the class path,"
+                    + " missing " + name);
+                    
+        }
+        
+    } // end load
+    
+    
+    /**
+     * This is a private method finding a public constructor, typed to take and return
+     * Objects in place of the simulator's classes.
+     * 
+     * @param owner - The class to construct.
+     * 
+     * @param parameters - The constructor's parameter types.
+     * 
+     * @return - The handle.
+     */
+    private static MethodHandle constructor(Class<?> owner, Class<?>... parameters) {
+        
+        try {
+            
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(owner,
+                    MethodType.methodType(void.class, parameters));
+                    
+            return handle.asType(bridgeType(handle.type()));
+            
+        } catch(ReflectiveOperationException e) {
+            
+            throw new ExceptionInInitializerError(e);
+            
+        }
+        
+    } // end constructor
+    
+    
+    /**
+     * This is a private method finding a public instance method, typed to take and return
+     * Objects in place of the simulator's classes, the instance first.
+     * 
+     * @param owner - The class the method belongs to.
+     * 
+     * @param name - The method name.
+     * 
+     * @param returnType - What it returns.
+     * 
+     * @param parameters - Its parameter types.
+     * 
+     * @return - The handle.
+     */
+    private static MethodHandle method(Class<?> owner, String name, Class<?> returnType,
+            Class<?>... parameters) {
+            
+        try {
+            
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(owner, name,
+                    MethodType.methodType(returnType, parameters));
+                    
+            return handle.asType(bridgeType(handle.type()));
+            
+        } catch(ReflectiveOperationException e) {
+            
+            throw new ExceptionInInitializerError(e);
+            
+        }
+        
+    } // end method
+    
+    
+    /**
+     * This is a private method finding a public static method, typed to take and return
+     * Objects in place of the simulator's classes.
+     * 
+     * @param owner - The class the method belongs to.
+     * 
+     * @param name - The method name.
+     * 
+     * @param returnType - What it returns.
+     * 
+     * @param parameters - Its parameter types.
+     * 
+     * @return - The handle.
+     */
+    private static MethodHandle staticMethod(Class<?> owner, String name, Class<?> returnType,
+            Class<?>... parameters) {
+            
+        try {
+            
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(owner, name,
+                    MethodType.methodType(returnType, parameters));
+                    
+            return handle.asType(bridgeType(handle.type()));
+            
+        } catch(ReflectiveOperationException e) {
+            
+            throw new ExceptionInInitializerError(e);
+            
+        }
+        
+    } // end staticMethod
+    
+    
+    /**
+     * This is a private method replacing the simulator's classes in a method type with
+     * Object, everything from the JDK stays as it is.
+     * 
+     * @param type - The method type as looked up.
+     * 
+     * @return - The type the bridge calls it with.
+     */
+    private static MethodType bridgeType(MethodType type) {
+        
+        for(int i = 0 ; i < type.parameterCount() ; i++) {
+            
+            if(isSimulatorClass(type.parameterType(i))) {
+                
+                type = type.changeParameterType(i, Object.class);
+                
+            }
+            
+        }
+        
+        if(isSimulatorClass(type.returnType())) {
+            
+            type = type.changeReturnType(Object.class);
+            
+        }
+        
+        return type;
+        
+    } // end bridgeType
+    
+    
+    /**
+     * @param type - A class.
+     * 
+     * @return - A boolean true if it is one of the simulator's, in the default package.
+     */
+    private static boolean isSimulatorClass(Class<?> type) {
+        
+        return !type.isPrimitive() && type.getName().indexOf('.') < 0;
+        
+    } // end isSimulatorClass
+    
+    
+    /**
+     * This is a private method passing on whatever the simulator threw, unchecked.
+     * 
+     * @param t - What was thrown.
+     * 
+     * @return - Never returns, it is only there so callers can write "throw rethrow(t)".
+     */
+    private static RuntimeException rethrow(Throwable t) {
+        
+        if(t instanceof RuntimeException) {
+            
+            throw (RuntimeException) t;
+            
+        }
+        
+        if(t instanceof Error) {
+            
+            throw (Error) t;
+            
+        }
+        
+        throw new IllegalStateException(t);
+        
+    } // end rethrow
+    
+} // end Simulator
\ No newline at end of file
@@ -0,0 +1,132 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times replaying a binary trace end to end, from the mapped file
+ * through to the frames. The trace is Zipfian over 1024 pages, every third access a
+ * write, and is written to a temporary file once per trial. Every replay starts from a
+ * fresh MMU, so all of them see the same faults. Times are per access.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TraceReplayBenchmark {
+    
+    private final static int ACCESSES = 200000;     // Records in the trace.
+    private final static int NUM_PAGES = 1024;
+    
+    @Param({Simulator.LRU, Simulator.FIFO, Simulator.CLOCK, Simulator.CLOCK_PRO})
+    public String policy;
+    
+    @Param({"32", "128", "512"})
+    public int numFrames;
+    
+    @Param({"1024"})
+    public int pageSize;
+    
+    private File file;                              // The temporary trace.
+    private Object trace;                           // Its TraceReader.
+    private Object config;
+    private Object mmu;                             // A fresh one for every replay.
+    
+    
+    /**
+     * This writes the trace and maps it.
+     * 
+     * @throws IOException - If the trace can't be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        
+        file = File.createTempFile("benchmark", ".trace");
+        Object workload = Simulator.newZipf(NUM_PAGES * pageSize, pageSize, 1.0, 1);
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file)))) {
+                
+            for(int i = 0 ; i < ACCESSES ; i++) {
+                
+                out.writeByte(i % 3 == 0 ? Simulator.TRACE_WRITE : Simulator.TRACE_READ);
+                out.writeInt(Simulator.nextAddress(workload));
+                out.writeInt(i);
+                
+            }
+            
+        }
+        
+        trace = Simulator.newTraceReader(file.getPath());
+        config = Simulator.newConfig(NUM_PAGES, numFrames, pageSize, policy);
+        
+    } // end setUp
+    
+    
+    /**
+     * This builds the MMU the next replay runs on, outside the timing.
+     */
+    @Setup(Level.Invocation)
+    public void newMMU() {
+        
+        mmu = Simulator.newMMU(config);
+        
+    } // end newMMU
+    
+    
+    /**
+     * This deletes the trace.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        
+        trace = null;
+        file.delete();
+        
+    } // end tearDown
+    
+    
+    /**
+     * @return - The page faults of the replay, so it can't be optimized away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public int replay() {
+        
+        Simulator.replay(trace, mmu);
+        
+        return Simulator.getTotalPageFaults(mmu);
+        
+    } // end replay
+    
+} // end TraceReplayBenchmark
\ No newline at end of file
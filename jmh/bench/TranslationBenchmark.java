@@ -0,0 +1,142 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class compares the two ways MMUHardware splits an address into page
+ * and offset, divide and modulo for any page size or shift and mask when it is a power
+ * of two. First the arithmetic alone, over the same addresses, then whole reads that
+ * always hit with a page size of 1000, which has to divide, and 1024, which can shift.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TranslationBenchmark {
+    
+    private final static int ADDRESS_MASK = (1 << 16) - 1;  // Precomputed addresses - 1.
+    private final static int NUM_PAGES = 64;
+    
+    // Fields rather than constants, so the JIT can't turn the divide into a shift itself.
+    private int pageSize = 1024;
+    private int pageShift = 10;
+    private int pageMask = 1023;
+    
+    private int[] addresses;                        // Uniformly random, over every page.
+    private int next;                               // Index of the next address to use.
+    
+    
+    /**
+     * This is the MMU for whole reads, with every page resident.
+     */
+    @State(Scope.Thread)
+    public static class Reads {
+        
+        @Param({"1000", "1024"})
+        public int pageSize;
+        
+        private Object mmu;
+        
+        
+        /**
+         * This builds the MMU and touches every page once.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            
+            mmu = Simulator.newMMU(Simulator.newConfig(NUM_PAGES, NUM_PAGES, pageSize,
+                    Simulator.LRU));
+                    
+            for(int page = 0 ; page < NUM_PAGES ; page++) {
+                
+                Simulator.read(mmu, page * pageSize);
+                
+            }
+            
+        } // end setUp
+        
+    } // end Reads
+    
+    
+    /**
+     * This picks the addresses, all within the smaller page size's address space.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        Random random = new Random(1);
+        addresses = new int[ADDRESS_MASK + 1];
+        
+        for(int i = 0 ; i < addresses.length ; i++) {
+            
+            addresses[i] = random.nextInt(NUM_PAGES * 1000);
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * @return - The page and offset combined, so neither is optimized away.
+     */
+    @Benchmark
+    public int divideModulo() {
+        
+        int address = addresses[next++ & ADDRESS_MASK];
+        
+        return (address / pageSize) ^ (address % pageSize);
+        
+    } // end divideModulo
+    
+    
+    /**
+     * @return - The page and offset combined, so neither is optimized away.
+     */
+    @Benchmark
+    public int shiftMask() {
+        
+        int address = addresses[next++ & ADDRESS_MASK];
+        
+        return (address >>> pageShift) ^ (address & pageMask);
+        
+    } // end shiftMask
+    
+    
+    /**
+     * @param reads - The MMU to read from.
+     * 
+     * @return - The value read.
+     */
+    @Benchmark
+    public int read(Reads reads) {
+        
+        return Simulator.read(reads.mmu, addresses[next++ & ADDRESS_MASK]);
+        
+    } // end read
+    
+} // end TranslationBenchmark
\ No newline at end of file
@@ -0,0 +1,92 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class times picking a victim as memory grows. Pages hold only 16
+ * addresses so the copies are cheap, and a loop over one page more than there are frames
+ * makes LRU, FIFO and CLOCK fault on every access. What changes with the frame count is
+ * what the policy does to find its victim. LRUScanBenchmark times the linear scan LRU
+ * used before, over the same frame counts.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class VictimSelectionBenchmark {
+    
+    private final static int PAGE_SIZE = 16;
+    
+    @Param({Simulator.LRU, Simulator.FIFO, Simulator.CLOCK, Simulator.CLOCK_PRO})
+    public String policy;
+    
+    @Param({"16", "256", "4096", "65536"})
+    public int numFrames;
+    
+    private Object mmu;
+    private int page;                               // The next page of the loop.
+    
+    
+    /**
+     * This builds an MMU with twice as many pages as frames and runs the loop around
+     * once, so memory is full when timing starts.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        
+        mmu = Simulator.newMMU(Simulator.newConfig(numFrames * 2, numFrames, PAGE_SIZE,
+                policy));
+                
+        for(int i = 0 ; i <= numFrames ; i++) {
+            
+            access();
+            
+        }
+        
+    } // end setUp
+    
+    
+    /**
+     * @return - The value read, so the access can't be optimized away.
+     */
+    @Benchmark
+    public int access() {
+        
+        int current = page;
+        
+        // One frame more than fits.
+        if(++page > numFrames) {
+            
+            page = 0;
+            
+        }
+        
+        return Simulator.read(mmu, current * PAGE_SIZE);
+        
+    } // end access
+    
+} // end VictimSelectionBenchmark
\ No newline at end of file
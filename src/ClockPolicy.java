@@ -0,0 +1,102 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the CLOCK, or second chance, replacement policy. Every access
+ * just sets a reference bit and a hand sweeps the frames on a fault, clearing bits until
+ * it finds a frame that wasn't referenced since the last sweep. Much cheaper than true
+ * LRU and close to what real kernels do.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class ClockPolicy implements ReplacementPolicy {
+    
+    private boolean[] referenced;   // Reference bit of each frame.
+    private boolean[] resident;     // Whether each frame currently holds a page.
+    private int hand;               // The next frame the clock hand looks at.
+    
+    
+    /**
+     * This will construct a new CLOCK policy for the specified number of frames.
+     * 
+     * @param numFrames - The number of frames in memory.
+     */
+    public ClockPolicy(int numFrames) {
+        
+        referenced = new boolean[numFrames];
+        resident = new boolean[numFrames];
+        hand = 0;
+        
+    } // end ClockPolicy constructor
+    
+    
+    @Override
+    public void pageLoaded(int pageNumber, int frameNumber) {
+        
+        resident[frameNumber] = true;
+        referenced[frameNumber] = false;
+        
+    } // end pageLoaded
+    
+    
+    @Override
+    public void frameAccessed(int frameNumber) {
+        
+        referenced[frameNumber] = true;
+        
+    } // end frameAccessed
+    
+    
+    @Override
+    public boolean isAccessThreadSafe() {
+        
+        // A hit only sets its own frame's bit. One racing the hand clearing it is lost and
+        // the page misses its second chance, the same as with real hardware.
+        return true;
+        
+    } // end isAccessThreadSafe
+    
+    
+    @Override
+    public int selectVictim() {
+        
+        // At most two trips around, the first one clears every bit if need be.
+        while(true) {
+            
+            int frame = hand;
+            hand = (hand + 1) % referenced.length;
+            
+            if(resident[frame]) {
+                
+                if(referenced[frame]) {
+                    
+                    // Second chance, clear it and move on.
+                    referenced[frame] = false;
+                    
+                } else {
+                    
+                    resident[frame] = false;
+                    return frame;
+                    
+                }
+                
+            }
+            
+        }
+        
+    } // end selectVictim
+    
+    
+    @Override
+    public String toString() {
+        
+        return "CLOCK";
+        
+    } // end toString
+    
+} // end ClockPolicy
\ No newline at end of file
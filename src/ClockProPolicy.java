@@ -0,0 +1,435 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the CLOCK-Pro replacement policy (Jiang, Chen and Zhang, 2005).
+ * Pages are hot or cold, only cold pages are replaced, and a cold page gets a test period
+ * during which it is remembered even after leaving memory. A cold page re-used within
+ * its test period becomes hot, which lets CLOCK-Pro approximate LIRS reuse distances
+ * while every access still only sets a reference bit.
+ * 
+ * Three hands share one circular list, HAND_cold finds victims, HAND_hot demotes hot
+ * pages and HAND_test ends test periods. The number of resident cold pages adapts,
+ * growing when a page is re-used in its test period and shrinking when a test period
+ * runs out.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.HashMap;
+
+public class ClockProPolicy implements ReplacementPolicy {
+    
+    // Node state, a node is a page the policy remembers, resident or not.
+    private int[] nodePage;         // The page of each node.
+    private int[] nodeFrame;        // The frame each node resides in, -1 if non-resident.
+    private boolean[] nodeHot;      // Whether the node is a hot page.
+    private boolean[] nodeTest;     // Whether the node is a cold page in its test period.
+    private int[] prevNode;         // Circular list, the node before.
+    private int[] nextNode;         // Circular list, the node after.
+    private int[] freeNodes;        // Stack of unused node indexes.
+    private int numFreeNodes;
+    
+    private int[] frameNode;        // The node held in each frame, -1 if none.
+    private boolean[] referenced;   // Reference bit of each frame.
+    private int justLoaded = -1;    // Frame whose faulting access shouldn't count as a re-use.
+    
+    // Non-resident cold pages still in their test period, only looked up on a fault.
+    private HashMap<Integer, Integer> nonResident;
+    
+    private int handHot;            // Demotes hot pages, new pages go in just behind it.
+    private int handCold;           // Finds the next cold page to replace.
+    private int handTest;           // Ends test periods of cold pages.
+    
+    private int numFrames;          // Memory size, m in the paper.
+    private int coldTarget;         // Resident cold pages wanted, m_c in the paper.
+    private int hotCount;           // Resident hot pages.
+    private int coldCount;          // Resident cold pages.
+    private int nonResidentCount;   // Non-resident cold pages in their test period.
+    
+    
+    /**
+     * This will construct a new CLOCK-Pro policy for the specified number of frames.
+     * 
+     * @param numFrames - The number of frames in memory.
+     */
+    public ClockProPolicy(int numFrames) {
+        
+        this.numFrames = numFrames;
+        
+        // Up to numFrames resident plus numFrames non-resident pages, one spare for the
+        // moment a page is loaded before the test list is trimmed.
+        int capacity = 2 * numFrames + 1;
+        
+        nodePage = new int[capacity];
+        nodeFrame = new int[capacity];
+        nodeHot = new boolean[capacity];
+        nodeTest = new boolean[capacity];
+        prevNode = new int[capacity];
+        nextNode = new int[capacity];
+        freeNodes = new int[capacity];
+        
+        for(int i = 0 ; i < capacity ; i++) {
+            
+            freeNodes[i] = capacity - 1 - i;
+            
+        }
+        
+        numFreeNodes = capacity;
+        
+        frameNode = new int[numFrames];
+        referenced = new boolean[numFrames];
+        
+        for(int i = 0 ; i < numFrames ; i++) {
+            
+            frameNode[i] = -1;
+            
+        }
+        
+        nonResident = new HashMap<Integer, Integer>();
+        
+        handHot = -1;
+        handCold = -1;
+        handTest = -1;
+        
+        coldTarget = Math.max(1, numFrames / 2);
+        
+    } // end ClockProPolicy constructor
+    
+    
+    @Override
+    public void pageLoaded(int pageNumber, int frameNumber) {
+        
+        Integer node = nonResident.remove(pageNumber);
+        
+        if(node != null) {
+            
+            // Re-used within its test period, so its reuse distance is short enough to be
+            // hot and cold pages deserve more room.
+            coldTarget = Math.min(coldTarget + 1, maxColdTarget());
+            
+            removeNode(node);
+            nonResidentCount--;
+            
+            nodeHot[node] = true;
+            nodeTest[node] = false;
+            hotCount++;
+            
+        } else {
+            
+            // A brand new page starts cold in its test period.
+            node = freeNodes[--numFreeNodes];
+            
+            nodePage[node] = pageNumber;
+            nodeHot[node] = false;
+            nodeTest[node] = true;
+            coldCount++;
+            
+        }
+        
+        nodeFrame[node] = frameNumber;
+        frameNode[frameNumber] = node;
+        referenced[frameNumber] = false;
+        justLoaded = frameNumber;
+        insertAtHead(node);
+        
+        while(hotCount > numFrames - coldTarget) {
+            
+            runHandHot();
+            
+        }
+        
+    } // end pageLoaded
+    
+    
+    @Override
+    public void frameAccessed(int frameNumber) {
+        
+        // The access that faulted the page in is not a re-use, the page starts unreferenced.
+        if(frameNumber == justLoaded) {
+            
+            justLoaded = -1;
+            
+        } else {
+            
+            referenced[frameNumber] = true;
+            
+        }
+        
+    } // end frameAccessed
+    
+    
+    @Override
+    public int selectVictim() {
+        
+        // HAND_cold needs a resident cold page to stop at.
+        while(coldCount == 0) {
+            
+            runHandHot();
+            
+        }
+        
+        while(true) {
+            
+            int node = handCold;
+            handCold = nextNode[node];
+            
+            if(nodeHot[node] || nodeFrame[node] == -1) {
+                
+                continue;
+                
+            }
+            
+            int frame = nodeFrame[node];
+            
+            if(referenced[frame]) {
+                
+                referenced[frame] = false;
+                
+                if(nodeTest[node]) {
+                    
+                    // Re-used in its test period, promote it.
+                    nodeHot[node] = true;
+                    nodeTest[node] = false;
+                    coldCount--;
+                    hotCount++;
+                    
+                    while(hotCount > numFrames - coldTarget || coldCount == 0) {
+                        
+                        runHandHot();
+                        
+                    }
+                    
+                } else {
+                    
+                    // Give it a new test period.
+                    nodeTest[node] = true;
+                    
+                }
+                
+            } else {
+                
+                // Found the victim.
+                frameNode[frame] = -1;
+                nodeFrame[node] = -1;
+                coldCount--;
+                
+                if(nodeTest[node]) {
+                    
+                    // Still in its test period, remember it as non-resident.
+                    nonResident.put(nodePage[node], node);
+                    nonResidentCount++;
+                    
+                    while(nonResidentCount > numFrames) {
+                        
+                        runHandTest();
+                        
+                    }
+                    
+                } else {
+                    
+                    removeNode(node);
+                    freeNodes[numFreeNodes++] = node;
+                    
+                }
+                
+                return frame;
+                
+            }
+            
+        }
+        
+    } // end selectVictim
+    
+    
+    /**
+     * This is a private method moving HAND_hot until it demotes one hot page. Along the
+     * way it ends the test period of every cold page it passes.
+     */
+    private void runHandHot() {
+        
+        if(hotCount == 0) {
+            
+            return;
+            
+        }
+        
+        while(true) {
+            
+            int node = handHot;
+            handHot = nextNode[node];
+            
+            if(nodeHot[node]) {
+                
+                int frame = nodeFrame[node];
+                
+                if(referenced[frame]) {
+                    
+                    referenced[frame] = false;
+                    
+                } else {
+                    
+                    nodeHot[node] = false;
+                    hotCount--;
+                    coldCount++;
+                    return;
+                    
+                }
+                
+            } else if(nodeTest[node]) {
+                
+                endTestPeriod(node);
+                
+            }
+            
+        }
+        
+    } // end runHandHot
+    
+    
+    /**
+     * This is a private method moving HAND_test until it has dropped one non-resident page,
+     * ending the test period of every cold page it passes.
+     */
+    private void runHandTest() {
+        
+        while(nonResidentCount > 0) {
+            
+            int node = handTest;
+            handTest = nextNode[node];
+            
+            if(!nodeHot[node] && nodeTest[node]) {
+                
+                boolean wasResident = nodeFrame[node] != -1;
+                endTestPeriod(node);
+                
+                if(!wasResident) {
+                    
+                    return;
+                    
+                }
+                
+            }
+            
+        }
+        
+    } // end runHandTest
+    
+    
+    /**
+     * This is a private method ending a cold page's test period. It was not re-used in time
+     * so cold pages deserve less room, and a non-resident page is forgotten.
+     * 
+     * @param node - The cold page whose test period is over.
+     */
+    private void endTestPeriod(int node) {
+        
+        nodeTest[node] = false;
+        coldTarget = Math.max(coldTarget - 1, 1);
+        
+        if(nodeFrame[node] == -1) {
+            
+            nonResident.remove(nodePage[node]);
+            nonResidentCount--;
+            removeNode(node);
+            freeNodes[numFreeNodes++] = node;
+            
+        }
+        
+    } // end endTestPeriod
+    
+    
+    /**
+     * @return - The most resident cold pages allowed, everything but one hot page.
+     */
+    private int maxColdTarget() {
+        
+        return Math.max(1, numFrames - 1);
+        
+    } // end maxColdTarget
+    
+    
+    /**
+     * This is a private method putting a node at the list head, just behind HAND_hot, so it
+     * is the last page every hand reaches.
+     * 
+     * @param node - The node to insert.
+     */
+    private void insertAtHead(int node) {
+        
+        if(handHot == -1) {
+            
+            prevNode[node] = node;
+            nextNode[node] = node;
+            handHot = node;
+            handCold = node;
+            handTest = node;
+            return;
+            
+        }
+        
+        int before = prevNode[handHot];
+        
+        prevNode[node] = before;
+        nextNode[node] = handHot;
+        nextNode[before] = node;
+        prevNode[handHot] = node;
+        
+    } // end insertAtHead
+    
+    
+    /**
+     * This is a private method taking a node out of the list, moving any hand resting on it.
+     * 
+     * @param node - The node to remove.
+     */
+    private void removeNode(int node) {
+        
+        int next = nextNode[node];
+        
+        if(next == node) {
+            
+            // It was the only node.
+            handHot = -1;
+            handCold = -1;
+            handTest = -1;
+            return;
+            
+        }
+        
+        if(handHot == node) {
+            
+            handHot = next;
+            
+        }
+        
+        if(handCold == node) {
+            
+            handCold = next;
+            
+        }
+        
+        if(handTest == node) {
+            
+            handTest = next;
+            
+        }
+        
+        nextNode[prevNode[node]] = next;
+        prevNode[next] = prevNode[node];
+        
+    } // end removeNode
+    
+    
+    @Override
+    public String toString() {
+        
+        return "CLOCK-Pro";
+        
+    } // end toString
+    
+} // end ClockProPolicy
\ No newline at end of file
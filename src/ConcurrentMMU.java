@@ -0,0 +1,788 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is an MMU that any number of threads can use at once. Hits take
+ * no lock at all, a read is an optimistic read of its frame's StampedLock, checked after
+ * the fact, and a write shares the frame's read lock with other writers. Only replacing
+ * the page in a frame takes the frame's write lock. The page table is an atomic array of
+ * entries packed as in PageTable, so a write finds the page's protection in the same
+ * read that finds its frame.
+ * 
+ * Faults are single flight. Page numbers are striped over a fixed set of locks and the
+ * thread holding a page's stripe is the only one that can load it, a second thread
+ * faulting on the same page waits and then finds it already loaded. An evicted page is
+ * written back under its own stripe too, so it can't be loaded again half written.
+ * Evictions only ever try for the victim's stripe and move on to another frame if it is
+ * busy, so two faulting threads can't deadlock on each other's stripes.
+ * 
+ * Pages live in the configured FileSystem and victims come from the configured
+ * ReplacementPolicy, the same ones MMUHardware uses. Neither is thread safe, so moving a
+ * page in or out holds the file system's monitor and the policy is only called holding
+ * its own. A policy whose hits only set the frame's own state, CLOCK and FIFO, is told
+ * about hits without the monitor, so their hits still take no lock at all, every other
+ * policy serializes its hits on it, LRU can't keep an exact order any other way.
+ * 
+ * There is no TLB, every thread's hits already go straight to the shared page table, and
+ * the simulated time is that of MMUHardware without one, summed over every thread.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+public class ConcurrentMMU implements MMU {
+    
+    final static int NUMBER_OF_STRIPES = 64;        // Page locks, a power of 2.
+    
+    // The write bit of a page table entry.
+    private final static int WRITABLE = PageTable.WRITE << PageTable.PROTECTION_SHIFT;
+    
+    private final int numberOfPages;                // Virtual pages in the file system.
+    private final int numberOfFrames;               // Physical frames in memory.
+    private final int pageSize;                     // Addresses per page/frame.
+    
+    private final AtomicIntegerArray pageTable;     // Entries packed as in PageTable.
+    private final int[][] frameData;                // The frames' contents.
+    private final int[] frameToPage;                // Page in each frame, under its lock.
+    private final StampedLock[] frameLocks;         // Guards each frame's page and data.
+    private final AtomicIntegerArray dirty;         // 1 if the frame must be written back.
+    private final AtomicInteger nextUnusedFrame;    // Frames below this have been handed out.
+    private final ReentrantLock[] pageLocks;        // Striped locks, one faulting thread each.
+    
+    private final ReplacementPolicy policy;         // Picks victims, synchronized on itself.
+    private final boolean lockFreeHits;             // Whether hits can skip its monitor.
+    private final boolean[] considered;             // Frames the policy can pick, under it.
+    private int numConsidered;                      // How many, under the policy too.
+    private final FileSystem fileSystem;            // Where the pages live, synchronized.
+    private final CostModel costModel;              // What each step of an access costs.
+    
+    private final FaultLog faultLog;                // The first faults, in order, synchronized.
+    private volatile boolean faultLogFull;          // Later faults skip the log's monitor.
+    private final LongAdder numAccesses;            // Reads and writes so far.
+    private final LongAdder numPageFaults;          // Pages loaded so far.
+    private final LongAdder numWriteBacks;          // Dirty pages written back so far.
+    private final LongAdder numProtectionFaults;    // Writes refused by page protection.
+    private int numThreads;                         // Threads startSimulation uses.
+    
+    
+    /**
+     * This will construct a new concurrent MMU.
+     * 
+     * @param config - The geometry, replacement method, backing store and costs to use.
+     * 
+     * @param threads - How many threads startSimulation stresses it with.
+     */
+    public ConcurrentMMU(MMUConfig config, int threads) {
+        
+        policy = config.createReplacementPolicy();
+        
+        if(policy == null) {
+            
+            throw new IllegalArgumentException("Invalid replacement method specified: "
+                    + config.getReplacementMethod());
+                    
+        }
+        
+        fileSystem = config.createFileSystem();
+        
+        if(fileSystem == null) {
+            
+            throw new IllegalArgumentException("Couldn't create the backing store: "
+                    + config.getBackingStore());
+                    
+        }
+        
+        lockFreeHits = policy.isAccessThreadSafe();
+        costModel = config.getCostModel();
+        numberOfPages = config.getNumberOfPages();
+        numberOfFrames = config.getNumberOfFrames();
+        pageSize = config.getPageSize();
+        numThreads = threads;
+        
+        pageTable = new AtomicIntegerArray(numberOfPages);
+        frameData = new int[numberOfFrames][pageSize];
+        frameToPage = new int[numberOfFrames];
+        frameLocks = new StampedLock[numberOfFrames];
+        dirty = new AtomicIntegerArray(numberOfFrames);
+        nextUnusedFrame = new AtomicInteger();
+        considered = new boolean[numberOfFrames];
+        pageLocks = new ReentrantLock[NUMBER_OF_STRIPES];
+        
+        for(int i = 0 ; i < numberOfPages ; i++) {
+            
+            pageTable.set(i, PageTable.READ_WRITE << PageTable.PROTECTION_SHIFT);
+            
+        }
+        
+        for(int i = 0 ; i < numberOfFrames ; i++) {
+            
+            frameToPage[i] = -1;
+            frameLocks[i] = new StampedLock();
+            
+        }
+        
+        for(int i = 0 ; i < NUMBER_OF_STRIPES ; i++) {
+            
+            pageLocks[i] = new ReentrantLock();
+            
+        }
+        
+        faultLog = new FaultLog(config.getFaultLogLimit());
+        numAccesses = new LongAdder();
+        numPageFaults = new LongAdder();
+        numWriteBacks = new LongAdder();
+        numProtectionFaults = new LongAdder();
+        
+    } // end ConcurrentMMU constructor
+    
+    
+    /**
+     * This method will read a value from an address in the virtual file system.
+     * 
+     * @param address - The address to read from.
+     * 
+     * @return - The value at that address.
+     */
+    @Override
+    public int readMemory(int address) {
+        
+        int page = address / pageSize;
+        int offset = address % pageSize;
+        
+        numAccesses.increment();
+        
+        while(true) {
+            
+            int entry = pageTable.get(page);
+            
+            // The valid bit is the sign bit.
+            if(entry < 0) {
+                
+                int frame = entry & PageTable.FRAME_MASK;
+                StampedLock lock = frameLocks[frame];
+                long stamp = lock.tryOptimisticRead();
+                int value = frameData[frame][offset];
+                
+                // Nobody took the frame away while we looked, so the value is the page's.
+                if(frameToPage[frame] == page && lock.validate(stamp)) {
+                    
+                    touch(frame);
+                    return value;
+                    
+                }
+                
+                stamp = lock.readLock();
+                
+                try {
+                    
+                    if(frameToPage[frame] == page) {
+                        
+                        touch(frame);
+                        return frameData[frame][offset];
+                        
+                    }
+                    
+                } finally {
+                    
+                    lock.unlockRead(stamp);
+                    
+                }
+                
+            }
+            
+            // Not resident, or replaced under us, either way fault it in and look again.
+            pageIn(page);
+            
+        }
+        
+    } // end readMemory
+    
+    
+    /**
+     * This method will write a particular value to an address in the virtual file system.
+     * 
+     * @param address - The address to write to.
+     * 
+     * @param value - The value to be written.
+     * 
+     * @return - A boolean true once the value is written, false if the page may not be
+     * written.
+     */
+    @Override
+    public boolean writeMemory(int address, int value) {
+        
+        int page = address / pageSize;
+        int offset = address % pageSize;
+        
+        int entry = pageTable.get(page);
+        
+        // A page without write access is never touched, not even brought in.
+        if((entry & WRITABLE) == 0) {
+            
+            numProtectionFaults.increment();
+            return false;
+            
+        }
+        
+        numAccesses.increment();
+        
+        while(true) {
+            
+            if(entry < 0) {
+                
+                int frame = entry & PageTable.FRAME_MASK;
+                
+                // Writers share the frame, only a replacement has to wait for them.
+                StampedLock lock = frameLocks[frame];
+                long stamp = lock.readLock();
+                
+                try {
+                    
+                    if(frameToPage[frame] == page) {
+                        
+                        frameData[frame][offset] = value;
+                        
+                        if(dirty.get(frame) == 0) {
+                            
+                            dirty.set(frame, 1);
+                            
+                        }
+                        
+                        touch(frame);
+                        return true;
+                        
+                    }
+                    
+                } finally {
+                    
+                    lock.unlockRead(stamp);
+                    
+                }
+                
+            }
+            
+            pageIn(page);
+            entry = pageTable.get(page);
+            
+        }
+        
+    } // end writeMemory
+    
+    
+    /**
+     * This method sets what may be done with a page, from any thread. A write to a page
+     * without PageTable.WRITE is refused and counted as a protection fault.
+     * 
+     * @param page - The page.
+     * 
+     * @param protection - Some combination of PageTable.READ and PageTable.WRITE.
+     * 
+     * @return - A boolean true if set, false if there is no such page.
+     */
+    public boolean setProtection(int page, int protection) {
+        
+        if(page < 0 || page >= numberOfPages) {
+            
+            System.out.println("There is no page " + page + " to protect.");
+            return false;
+            
+        }
+        
+        // Atomic, a fault may be setting the valid bit and frame at the same time.
+        pageTable.getAndUpdate(page, entry -> (entry & ~PageTable.PROTECTION_MASK)
+                | ((protection << PageTable.PROTECTION_SHIFT) & PageTable.PROTECTION_MASK));
+                
+        return true;
+        
+    } // end setProtection
+    
+    
+    /**
+     * This is a private method telling the replacement policy about a hit.
+     * 
+     * @param frame - The frame accessed.
+     */
+    private void touch(int frame) {
+        
+        if(lockFreeHits) {
+            
+            policy.frameAccessed(frame);
+            return;
+            
+        }
+        
+        synchronized(policy) {
+            
+            // A frame already picked as a victim is out of the policy until it is loaded.
+            if(considered[frame]) {
+                
+                policy.frameAccessed(frame);
+                
+            }
+            
+        }
+        
+    } // end touch
+    
+    
+    /**
+     * This is a private method returning the lock a page's faults are serialized on.
+     * 
+     * @param page - The page in question.
+     * 
+     * @return - Its stripe's lock.
+     */
+    private ReentrantLock pageLock(int page) {
+        
+        return pageLocks[page & (NUMBER_OF_STRIPES - 1)];
+        
+    } // end pageLock
+    
+    
+    /**
+     * This is a private method bringing a page into memory unless another thread already
+     * has.
+     * 
+     * @param page - The page that needs to be in memory.
+     */
+    private void pageIn(int page) {
+        
+        ReentrantLock lock = pageLock(page);
+        lock.lock();
+        
+        try {
+            
+            // Whoever held the stripe before us may have loaded it already.
+            if(pageTable.get(page) < 0) {
+                
+                return;
+                
+            }
+            
+            int frame = claimFrame();
+            int victimPage = frameToPage[frame];
+            boolean wasDirty = victimPage >= 0 && dirty.get(frame) != 0;
+            
+            // The claim holds the frame's write lock, it has to be let go however this ends.
+            try {
+                
+                if(victimPage >= 0) {
+                    
+                    writeBack(victimPage, frame);
+                    
+                }
+                
+                synchronized(fileSystem) {
+                    
+                    fileSystem.readPage(page, frameData[frame]);
+                    
+                }
+                
+                frameToPage[frame] = page;
+                dirty.set(frame, 0);
+                giveToPolicy(page, frame);
+                pageTable.getAndUpdate(page, entry -> (entry & PageTable.PROTECTION_MASK)
+                        | PageTable.VALID_BIT | frame);
+                
+            } finally {
+                
+                frameLocks[frame].tryUnlockWrite();
+                
+            }
+            
+            numPageFaults.increment();
+            
+            // Only taken until the log is full, it would serialize every fault. The faults
+            // past the limit are only counted, see catchUpFaultLog.
+            if(!faultLogFull) {
+                
+                synchronized(faultLog) {
+                    
+                    if(faultLog.size() < faultLog.getLimit()) {
+                        
+                        faultLog.add(page, victimPage, frame, wasDirty, numAccesses.sum() - 1);
+                        
+                    }
+                    
+                    faultLogFull = faultLog.size() == faultLog.getLimit();
+                    
+                }
+                
+            }
+            
+        } finally {
+            
+            lock.unlock();
+            
+        }
+        
+    } // end pageIn
+    
+    
+    /**
+     * This is a private method picking a frame for a faulting page, unused frames first,
+     * then the replacement policy's victim. The frame comes back write locked with its
+     * victim page still in it, and that page's stripe is held as well if there is one,
+     * see writeBack.
+     * 
+     * @return - The frame, write locked.
+     */
+    private int claimFrame() {
+        
+        if(nextUnusedFrame.get() < numberOfFrames) {
+            
+            int frame = nextUnusedFrame.getAndIncrement();
+            
+            if(frame < numberOfFrames) {
+                
+                frameLocks[frame].writeLock();
+                return frame;
+                
+            }
+            
+        }
+        
+        int tries = 0;
+        
+        while(true) {
+            
+            // Let other threads finish their faults if every frame is busy.
+            if(++tries % numberOfFrames == 0) {
+                
+                Thread.yield();
+                
+            }
+            
+            int frame = -1;
+            
+            synchronized(policy) {
+                
+                // Every frame may be claimed by a fault in flight, none is left to pick.
+                if(numConsidered > 0) {
+                    
+                    frame = policy.selectVictim();
+                    considered[frame] = false;
+                    numConsidered--;
+                    
+                }
+                
+            }
+            
+            if(frame < 0) {
+                
+                continue;
+                
+            }
+            
+            // Waiting here is fine, nobody holding a frame's lock ever waits for a stripe.
+            frameLocks[frame].writeLock();
+            int victimPage = frameToPage[frame];
+            
+            // Never wait for the victim's stripe, its holder might be waiting for our frame.
+            if(pageLock(victimPage).tryLock()) {
+                
+                return frame;
+                
+            }
+            
+            // Hand it back as if just loaded, it is only passed over this once.
+            frameLocks[frame].tryUnlockWrite();
+            giveToPolicy(victimPage, frame);
+            
+        }
+        
+    } // end claimFrame
+    
+    
+    /**
+     * This is a private method letting the replacement policy pick a frame again.
+     * 
+     * @param page - The page in the frame.
+     * 
+     * @param frame - The frame.
+     */
+    private void giveToPolicy(int page, int frame) {
+        
+        synchronized(policy) {
+            
+            policy.pageLoaded(page, frame);
+            considered[frame] = true;
+            numConsidered++;
+            
+        }
+        
+    } // end giveToPolicy
+    
+    
+    /**
+     * This is a private method taking a page out of its frame, saving it first if dirty.
+     * The frame's write lock and the page's stripe are held, the stripe is let go here.
+     * 
+     * @param page - The page being replaced.
+     * 
+     * @param frame - The frame it is in.
+     */
+    private void writeBack(int page, int frame) {
+        
+        try {
+            
+            pageTable.getAndUpdate(page, entry -> entry & ~PageTable.VALID_BIT);
+            
+            if(dirty.get(frame) != 0) {
+                
+                synchronized(fileSystem) {
+                    
+                    fileSystem.writePage(page, frameData[frame]);
+                    
+                }
+                
+                numWriteBacks.increment();
+                
+            }
+            
+        } finally {
+            
+            pageLock(page).unlock();
+            
+        }
+        
+    } // end writeBack
+    
+    
+    /**
+     * This method stresses the MMU with several threads at once. Every thread writes its
+     * own share of the addresses, interleaved so threads share every page, then after all
+     * are done every thread reads back every address, so all of them fault on the same
+     * pages at the same time.
+     */
+    @Override
+    public void startSimulation() {
+        
+        System.out.print("Simulation running on " + numThreads + " threads!");
+        
+        final int numAddresses = numberOfPages * pageSize;
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        final AtomicInteger wrongValues = new AtomicInteger();
+        Thread[] threads = new Thread[numThreads];
+        
+        for(int t = 0 ; t < numThreads ; t++) {
+            
+            final int first = t;
+            
+            threads[t] = new Thread(() -> {
+                
+                for(int i = first ; i < numAddresses ; i += numThreads) {
+                    
+                    writeMemory(i, i);
+                    
+                }
+                
+                try {
+                    
+                    barrier.await();
+                    
+                } catch(Exception e) {
+                    
+                    wrongValues.incrementAndGet();
+                    return;
+                    
+                }
+                
+                // Everyone starts reading from a different place.
+                for(int j = 0 ; j < numAddresses ; j++) {
+                    
+                    int i = (j + first * (numAddresses / numThreads)) % numAddresses;
+                    
+                    if(readMemory(i) != i) {
+                        
+                        wrongValues.incrementAndGet();
+                        
+                    }
+                    
+                }
+                
+            });
+            
+            threads[t].start();
+            
+        }
+        
+        for(Thread thread : threads) {
+            
+            try {
+                
+                thread.join();
+                
+            } catch(InterruptedException e) {
+                
+                Thread.currentThread().interrupt();
+                
+            }
+            
+        }
+        
+        if(wrongValues.get() > 0) {
+            
+            // A warning will appear if not as expected.
+            System.out.println("\n" + wrongValues.get() + " addresses contained the wrong value!\n");
+            System.exit(-1); // CRASH!
+            
+        }
+        
+        System.out.println("\n");
+        
+    } // end startSimulation
+    
+    
+    /**
+     * This method will print out a general overview of system performance.
+     */
+    @Override
+    public void stopSimulation() {
+        
+        System.out.println("Simulation ended!");
+        System.out.println("Number of page faults: " + numPageFaults.sum());
+        System.out.println("Dirty pages written back: " + numWriteBacks.sum());
+        
+        if(numProtectionFaults.sum() > 0) {
+            
+            System.out.println("Writes refused by page protection: "
+                    + numProtectionFaults.sum());
+                    
+        }
+        
+        if(faultLog.getLimit() > 0) {
+            
+            synchronized(faultLog) {
+                
+                catchUpFaultLog();
+                System.out.println(faultLog.toSummary(MMUHardware.SUMMARY_PAGES));
+                
+            }
+            
+        }
+        
+        System.out.println("Replacement policy: " + policy);
+        System.out.println(String.format("Simulated time: %.3f ms, effective access time"
+                + " %.1f ns (%s)", getSimulatedTime() / 1e6, getEffectiveAccessTime(),
+                costModel));
+                
+    } // end stopSimulation
+    
+    
+    /**
+     * This is a private method adding the faults past the limit, which pageIn only counts,
+     * to the fault log's totals. Called holding the log's monitor.
+     */
+    private void catchUpFaultLog() {
+        
+        faultLog.addUnlogged(numPageFaults.sum() - faultLog.getNumberOfFaults(),
+                numWriteBacks.sum() - faultLog.getDirtyEvictions());
+                
+    } // end catchUpFaultLog
+    
+    
+    /**
+     * This will return the reference string which lists the page faults in the order
+     * in which they happened, across every thread, as many as the fault log keeps.
+     * 
+     * @return - A string listing off each page that caused a fault and in what order.
+     */
+    @Override
+    public String getReferenceString() {
+        
+        synchronized(faultLog) {
+            
+            return faultLog.toReferenceString();
+            
+        }
+        
+    } // end getReferenceString
+    
+    
+    /**
+     * This will return the total number of page faults.
+     * 
+     * @return - The total number of page faults.
+     */
+    @Override
+    public int getTotalPageFaults() {
+        
+        return numPageFaults.intValue();
+        
+    } // end getTotalPageFaults
+    
+    
+    /**
+     * @return - The number of reads and writes so far.
+     */
+    public long getAccesses() {
+        
+        return numAccesses.sum();
+        
+    } // end getAccesses
+    
+    
+    /**
+     * @return - The number of dirty pages written back so far.
+     */
+    public long getWriteBacks() {
+        
+        return numWriteBacks.sum();
+        
+    } // end getWriteBacks
+    
+    
+    /**
+     * @return - The number of writes refused because the page was not writable.
+     */
+    public long getProtectionFaults() {
+        
+        return numProtectionFaults.sum();
+        
+    } // end getProtectionFaults
+    
+    
+    /**
+     * This will return the simulated time of every access so far, summed over the threads
+     * as though they took turns. Every access looks its page up in the page table and then
+     * reads or writes memory, a fault looks it up once more after the page is in.
+     * 
+     * @return - The simulated nanoseconds.
+     */
+    public long getSimulatedTime() {
+        
+        long accesses = numAccesses.sum();
+        long faults = numPageFaults.sum();
+        
+        return (2 * accesses + faults) * costModel.getMemoryAccess()
+                + faults * costModel.getPageIn()
+                + numWriteBacks.sum() * costModel.getWriteBack();
+                
+    } // end getSimulatedTime
+    
+    
+    /**
+     * This will return the effective access time, the simulated time of the average access.
+     * 
+     * @return - The simulated nanoseconds per access, 0 before the first access.
+     */
+    public double getEffectiveAccessTime() {
+        
+        long accesses = numAccesses.sum();
+        
+        return accesses == 0 ? 0 : (double) getSimulatedTime() / accesses;
+        
+    } // end getEffectiveAccessTime
+    
+} // end ConcurrentMMU
\ No newline at end of file
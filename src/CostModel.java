@@ -0,0 +1,160 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class holds what each step of an access costs in simulated time, so
+ * fault counts can be turned into the latency a program would see. The defaults are the
+ * usual textbook figures, a 20 ns TLB, 100 ns memory and 8 ms to read a page in, with
+ * writing a dirty page back costing as much again.
+ * 
+ * A model never changes once built, so configurations and MMUs can share one.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class CostModel {
+    
+    final static long DEFAULT_TLB_HIT = 20;
+    final static long DEFAULT_MEMORY_ACCESS = 100;
+    final static long DEFAULT_PAGE_IN = 8000000;
+    final static long DEFAULT_WRITE_BACK = 8000000;
+    
+    final static CostModel DEFAULT = new CostModel(DEFAULT_TLB_HIT, DEFAULT_MEMORY_ACCESS,
+            DEFAULT_PAGE_IN, DEFAULT_WRITE_BACK);
+            
+    private final long tlbHit;          // Nanoseconds to look a page up in the TLB.
+    private final long memoryAccess;    // Nanoseconds to read or write main memory once.
+    private final long pageIn;          // Nanoseconds to read a page in from the backing store.
+    private final long writeBack;       // Nanoseconds to write a dirty page back.
+    
+    
+    /**
+     * This will construct a cost model, every time is in nanoseconds.
+     * 
+     * @param tlbHit - The time to look a page up in the TLB, hit or miss.
+     * 
+     * @param memoryAccess - The time of one memory access, a page table lookup is one.
+     * 
+     * @param pageIn - The time to read a page in from the backing store.
+     * 
+     * @param writeBack - The time to write a dirty page back to the backing store.
+     */
+    public CostModel(long tlbHit, long memoryAccess, long pageIn, long writeBack) {
+        
+        this.tlbHit = tlbHit;
+        this.memoryAccess = memoryAccess;
+        this.pageIn = pageIn;
+        this.writeBack = writeBack;
+        
+    } // end CostModel constructor
+    
+    
+    /**
+     * This method builds a cost model from the four times separated by commas, in the
+     * order of the constructor, e.g. "20,100,8000000,8000000".
+     * 
+     * @param costs - The times in nanoseconds.
+     * 
+     * @return - The cost model, or null if the times could not be understood.
+     */
+    public static CostModel parse(String costs) {
+        
+        String[] parts = costs.split(",");
+        
+        if(parts.length != 4) {
+            
+            System.out.println("Expected 4 times separated by commas: " + costs);
+            return null;
+            
+        }
+        
+        long[] times = new long[4];
+        
+        try {
+            
+            for(int i = 0 ; i < times.length ; i++) {
+                
+                times[i] = Long.parseLong(parts[i].trim());
+                
+            }
+            
+        } catch(NumberFormatException e) {
+            
+            System.out.println("Expected a number: " + e.getMessage());
+            return null;
+            
+        }
+        
+        return new CostModel(times[0], times[1], times[2], times[3]);
+        
+    } // end parse
+    
+    
+    /**
+     * This will tell you if every time makes sense, none may be negative.
+     * 
+     * @return - A boolean true if the model can be used, false otherwise.
+     */
+    public boolean isValid() {
+        
+        return tlbHit >= 0 && memoryAccess >= 0 && pageIn >= 0 && writeBack >= 0;
+        
+    } // end isValid
+    
+    
+    /**
+     * @return - The nanoseconds to look a page up in the TLB.
+     */
+    public long getTLBHit() {
+        
+        return tlbHit;
+        
+    } // end getTLBHit
+    
+    
+    /**
+     * @return - The nanoseconds of one memory access.
+     */
+    public long getMemoryAccess() {
+        
+        return memoryAccess;
+        
+    } // end getMemoryAccess
+    
+    
+    /**
+     * @return - The nanoseconds to read a page in.
+     */
+    public long getPageIn() {
+        
+        return pageIn;
+        
+    } // end getPageIn
+    
+    
+    /**
+     * @return - The nanoseconds to write a dirty page back.
+     */
+    public long getWriteBack() {
+        
+        return writeBack;
+        
+    } // end getWriteBack
+    
+    
+    /**
+     * This method returns a String representation of the cost model.
+     */
+    @Override
+    public String toString() {
+        
+        return tlbHit + " ns TLB, " + memoryAccess + " ns memory, " + pageIn + " ns page in, "
+                + writeBack + " ns write back";
+                
+    } // end toString
+    
+} // end CostModel
\ No newline at end of file
@@ -1,28 +1,613 @@
-/**
- * Class: ICS 462 - Operating Systems <br>
- * Instructor: Michael Dorin <br>
- * Description: Program 3, Simulating Memory Management. <br>
- * Due: 04/12/2016 <br><br>
- * 
- * This particular class is just a driver, creates an MMU, starts and stops
- * the simulation.
- * 
- * @author Tom Carney
- * @version 1.0
- * @since 04/01/2016
- */
-
-public class Driver {
-    
-    public static void main(String[] args) {
-        
-        // You can change the type of replacement policy from LRU to FIFO here.
-        // They are just final static ints in the MMUHardware class.
-        MMUHardware mmu = new MMUHardware(MMUHardware.LRU);
-        
-        mmu.startSimulation();
-        mmu.stopSimulation();
-        
-    } // end main
-    
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is just a driver, creates an MMU, starts and stops
+ * the simulation.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+public class Driver {
+    
+    private static String traceFile = null;         // Binary trace to replay, if any.
+    private static String textTraceFile = null;     // Text trace to convert first, if any.
+    private static String workloadName = null;      // Synthetic workload to run, if any.
+    private static long numAccesses = 1000000;      // Accesses each process's workload makes.
+    private static long seed = 1;                   // Seed of the workload.
+    private static int writePercent = 30;           // Chance out of 100 an access is a write.
+    private static int numProcesses = 1;            // Processes sharing memory.
+    private static long quantum = 10000;            // Accesses between context switches.
+    private static int numThreads = 0;              // Threads on a ConcurrentMMU, 0 for none.
+    private static Workload[] workloads = null;     // One per process, built from the above.
+    private static String mrcFile = null;           // Where the LRU miss ratio curve goes.
+    private static int cleanerLowWater = -1;        // Clean frames to keep, -1 if not asked.
+    private static int freeLowWater = 0;            // Free frames to keep, 0 for none.
+    private static int readAheadWindow = 0;         // Most pages to read ahead, 0 for none.
+    private static long metricsPeriod = -1;         // Ms between metrics, -1 if not asked.
+    
+    
+    public static void main(String[] args) {
+        
+        // With no arguments this runs the original 16 page, 4 frame, LRU simulation.
+        MMUConfig config = parseArguments(args);
+        
+        if(config == null) {
+            
+            printUsage();
+            System.exit(-1); // CRASH!
+            
+        }
+        
+        TraceReader trace = null;
+        
+        if(traceFile != null) {
+            
+            trace = openTrace();
+            
+        }
+        
+        if(workloadName != null) {
+            
+            // Each process or thread runs the same kind of workload from its own seed.
+            workloads = new Workload[Math.max(numProcesses, numThreads)];
+            
+            for(int i = 0 ; i < workloads.length ; i++) {
+                
+                workloads[i] = Workload.create(workloadName, config, writePercent, seed + i);
+                
+            }
+            
+        }
+        
+        if(mrcFile != null) {
+            
+            writeMissRatioCurve(config, trace);
+            return;
+            
+        }
+        
+        if(numThreads > 0) {
+            
+            runConcurrent(config);
+            return;
+            
+        }
+        
+        // OPT has to see every access before the real run starts.
+        if(config.getReplacementMethod().equals(MMUHardware.OPT)) {
+            
+            config.setPageTrace(recordPageTrace(config, trace));
+            
+        }
+        
+        // Only the real run gets a cleaner, the runs above just count faults.
+        if(cleanerLowWater >= 0) {
+            
+            config.setCleanerWaterMarks(cleanerLowWater, 2 * cleanerLowWater);
+            
+        }
+        
+        if(freeLowWater > 0) {
+            
+            config.setFreeFrameWaterMarks(freeLowWater, 2 * freeLowWater);
+            
+        }
+        
+        config.setReadAheadWindow(readAheadWindow);
+        
+        MMUHardware mmu = new MMUHardware(config);
+        
+        if(cleanerLowWater >= 0) {
+            
+            mmu.setFaultLatencyHistogram(new LatencyHistogram());
+            
+        }
+        
+        MMUMetrics metrics = null;
+        
+        // Exported over JMX the whole run, and printed every so often if a period is given.
+        if(metricsPeriod >= 0) {
+            
+            metrics = new MMUMetrics(mmu);
+            metrics.register();
+            
+            if(metricsPeriod > 0) {
+                
+                metrics.startSnapshots(metricsPeriod, System.out);
+                
+            }
+            
+        }
+        
+        runWorkload(mmu, trace, true);
+        
+        if(metrics != null) {
+            
+            metrics.stopSnapshots();
+            
+        }
+        
+        mmu.stopSimulation();
+        
+        if(metrics != null) {
+            
+            MetricsSnapshot last = metrics.snapshot();
+            
+            System.out.println("Metrics: " + last);
+            System.out.println("Page in latency: " + last.getPageIn());
+            System.out.println("Write back latency: " + last.getWriteBack());
+            metrics.detach();
+            
+        }
+        
+    } // end main
+    
+    
+    /**
+     * This method builds a configuration from the command line options.
+     * 
+     * @param args - The command line arguments.
+     * 
+     * @return - The configuration, or null if the arguments could not be understood.
+     */
+    private static MMUConfig parseArguments(String[] args) {
+        
+        MMUConfig config = new MMUConfig();
+        
+        try {
+            
+            for(int i = 0 ; i < args.length ; i++) {
+                
+                // Every option takes exactly one value.
+                if(i + 1 >= args.length) {
+                    
+                    System.out.println("Missing value for " + args[i]);
+                    return null;
+                    
+                }
+                
+                String option = args[i];
+                String value = args[++i];
+                
+                switch (option) {
+                    
+                    case "-policy":     config.setReplacementMethod(value.toUpperCase());
+                                        break;
+                                        
+                    case "-trace":      traceFile = value;
+                                        break;
+                                        
+                    case "-convert":    textTraceFile = value;
+                                        break;
+                                        
+                    case "-workload":   workloadName = value;
+                                        break;
+                                        
+                    case "-processes":  numProcesses = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-threads":    numThreads = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-quantum":    quantum = Long.parseLong(value);
+                                        break;
+                                        
+                    case "-replacement": if(value.equalsIgnoreCase("LOCAL")) {
+                                            
+                                            config.setLocalReplacement(true);
+                                            
+                                        } else if(!value.equalsIgnoreCase("GLOBAL")) {
+                                            
+                                            System.out.println("Unknown replacement " + value);
+                                            return null;
+                                            
+                                        }
+                                        break;
+                                        
+                    case "-accesses":   numAccesses = Long.parseLong(value);
+                                        break;
+                                        
+                    case "-seed":       seed = Long.parseLong(value);
+                                        break;
+                                        
+                    case "-writes":     writePercent = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-mrc":        mrcFile = value;
+                                        break;
+                                        
+                    case "-backing":    config.setBackingStore(value.toUpperCase());
+                                        break;
+                                        
+                    case "-cleaner":    cleanerLowWater = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-freeframes": freeLowWater = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-readahead":  readAheadWindow = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-cost":       config.setCostModel(CostModel.parse(value));
+                                        break;
+                                        
+                    case "-metrics":    metricsPeriod = Long.parseLong(value);
+                                        break;
+                                        
+                    case "-faultlog":   config.setFaultLogLimit(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-pages":      config.setNumberOfPages(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-frames":     config.setNumberOfFrames(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-pagesize":   config.setPageSize(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-tlb":        config.setTLBSize(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-tlbways":    config.setTLBAssociativity(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-tlbpolicy":  if(value.equalsIgnoreCase("LRU")) {
+                                            
+                                            config.setTLBReplacement(TLB.LRU);
+                                            
+                                        } else if(value.equalsIgnoreCase("FIFO")) {
+                                            
+                                            config.setTLBReplacement(TLB.FIFO);
+                                            
+                                        } else {
+                                            
+                                            System.out.println("Unknown TLB policy " + value);
+                                            return null;
+                                            
+                                        }
+                                        break;
+                                        
+                    default:            System.out.println("Unknown option " + option);
+                                        return null;
+                                        
+                } // end switch
+                
+            }
+            
+        } catch(NumberFormatException e) {
+            
+            System.out.println("Expected a number: " + e.getMessage());
+            return null;
+            
+        }
+        
+        if(textTraceFile != null && traceFile == null) {
+            
+            System.out.println("-convert needs -trace to say where the binary trace goes.");
+            return null;
+            
+        }
+        
+        if(workloadName != null && (traceFile != null
+                || Workload.create(workloadName, new MMUConfig(1, 1, 1, null), 0, 0) == null)) {
+                
+            System.out.println("-workload needs a known name and can't be used with -trace.");
+            return null;
+            
+        }
+        
+        if(numAccesses < 0 || writePercent < 0 || writePercent > 100) {
+            
+            System.out.println("-accesses can't be negative and -writes is from 0 to 100.");
+            return null;
+            
+        }
+        
+        if(numProcesses < 1 || quantum < 1 || (numProcesses > 1 && workloadName == null)) {
+            
+            System.out.println("-processes and -quantum must be positive, more than one"
+                    + " process needs a -workload.");
+            return null;
+            
+        }
+        
+        if(config.isLocalReplacement() && (config.getReplacementMethod().equals(MMUHardware.OPT)
+                || config.getNumberOfFrames() < numProcesses)) {
+                
+            System.out.println("Local replacement needs LRU, FIFO or CLOCK and a frame for"
+                    + " every process.");
+            return null;
+            
+        }
+        
+        if(numThreads < 0 || (numThreads > 0 && (traceFile != null || mrcFile != null
+                || numProcesses > 1 || config.isLocalReplacement()
+                || config.getReplacementMethod().equals(MMUHardware.OPT)))) {
+                
+            System.out.println("-threads can't be negative or used with -trace, -mrc,"
+                    + " -processes, -replacement or OPT.");
+            return null;
+            
+        }
+        
+        if((cleanerLowWater >= 0 || freeLowWater > 0 || readAheadWindow > 0
+                || metricsPeriod >= 0 || config.getTLBSize() > 0) && numThreads > 0) {
+                
+            System.out.println("-cleaner, -freeframes, -readahead, -metrics and -tlb can't be"
+                    + " used with -threads.");
+            return null;
+            
+        }
+        
+        if((long) numProcesses * config.getNumberOfPages() > Integer.MAX_VALUE) {
+            
+            System.out.println("Too many pages across all processes.");
+            return null;
+            
+        }
+        
+        // OPT is only valid once its trace is recorded, so check it as FIFO for now.
+        MMUConfig checkConfig = new MMUConfig(config);
+        
+        if(config.getReplacementMethod().equals(MMUHardware.OPT)) {
+            
+            checkConfig.setReplacementMethod(MMUHardware.FIFO);
+            
+        }
+        
+        if(!checkConfig.isValid()) {
+            
+            System.out.println("Invalid configuration: " + config);
+            return null;
+            
+        }
+        
+        return config;
+        
+    } // end parseArguments
+    
+    
+    /**
+     * This method opens the trace file, converting the text trace into it first if asked.
+     * 
+     * @return - The trace, the program exits if it can't be read.
+     */
+    private static TraceReader openTrace() {
+        
+        try {
+            
+            if(textTraceFile != null) {
+                
+                long converted = TraceConverter.convert(textTraceFile, traceFile);
+                System.out.println("Converted " + converted + " records into " + traceFile);
+                
+            }
+            
+            return new TraceReader(traceFile);
+            
+        } catch(IOException e) {
+            
+            System.out.println("Error reading trace: " + e.getMessage());
+            System.exit(-1); // CRASH!
+            
+        }
+        
+        return null;
+        
+    } // end openTrace
+    
+    
+    /**
+     * This method puts an MMU through the trace, the synthetic workload or the built in
+     * simulation, whichever was asked for.
+     * 
+     * @param mmu - The MMU to drive.
+     * 
+     * @param trace - The trace to replay, or null for the workload or built in simulation.
+     * 
+     * @param report - Whether to print the replay throughput.
+     */
+    private static void runWorkload(MMUHardware mmu, TraceReader trace, boolean report) {
+        
+        if(trace == null && workloads == null) {
+            
+            mmu.startSimulation();
+            return;
+            
+        }
+        
+        long start = System.nanoTime();
+        long accesses = trace != null ? trace.replay(mmu)
+                : Workload.runRoundRobin(mmu, workloads, numAccesses, quantum);
+        long elapsed = System.nanoTime() - start;
+        
+        if(report) {
+            
+            System.out.println((trace != null ? "Replayed " : "Ran ") + accesses
+                    + " accesses in " + (elapsed / 1000000) + " ms, "
+                    + (long) (accesses / Math.max(elapsed / 1e9, 1e-9))
+                    + " accesses per second.\n");
+                    
+        }
+        
+    } // end runWorkload
+    
+    
+    /**
+     * This method drives a ConcurrentMMU from several threads at once, either each running
+     * its own copy of the workload or through the built in multi-threaded simulation.
+     * 
+     * @param config - The geometry, replacement method, backing store and costs.
+     */
+    private static void runConcurrent(MMUConfig config) {
+        
+        ConcurrentMMU mmu = new ConcurrentMMU(config, numThreads);
+        
+        if(workloads == null) {
+            
+            mmu.startSimulation();
+            
+        } else {
+            
+            long start = System.nanoTime();
+            long accesses = Workload.runThreads(mmu, workloads, numAccesses);
+            long elapsed = System.nanoTime() - start;
+            
+            System.out.println("Ran " + accesses + " accesses on " + numThreads
+                    + " threads in " + (elapsed / 1000000) + " ms, "
+                    + (long) (accesses / Math.max(elapsed / 1e9, 1e-9))
+                    + " accesses per second.\n");
+                    
+        }
+        
+        mmu.stopSimulation();
+        
+    } // end runConcurrent
+    
+    
+    /**
+     * This method runs the workload once to record the page of every access, the
+     * policy used doesn't matter since the same accesses are made either way.
+     * 
+     * @param config - The configuration of the real run.
+     * 
+     * @param trace - The trace to replay, or null for the workload or built in simulation.
+     * 
+     * @return - The page of every access, in order.
+     */
+    private static int[] recordPageTrace(MMUConfig config, TraceReader trace) {
+        
+        MMUConfig recordConfig = new MMUConfig(config);
+        recordConfig.setReplacementMethod(MMUHardware.FIFO);
+        
+        PageTrace pages = new PageTrace();
+        MMUHardware recorder = new MMUHardware(recordConfig);
+        
+        recorder.setPageTrace(pages);
+        runWorkload(recorder, trace, false);
+        
+        return pages.toArray();
+        
+    } // end recordPageTrace
+    
+    
+    /**
+     * This method finds LRU's page faults at every memory size from a single recorded
+     * pass, writes them out as CSV and checks a few sizes against real LRU runs.
+     * 
+     * @param config - The geometry, the number of frames is only used as a check.
+     * 
+     * @param trace - The trace to replay, or null for the workload or built in simulation.
+     */
+    private static void writeMissRatioCurve(MMUConfig config, TraceReader trace) {
+        
+        // Without the output file every run makes exactly the same accesses.
+        MMUConfig mrcConfig = new MMUConfig(config);
+        mrcConfig.setOutputFile(null);
+        
+        // Pages of every process are told apart by their global page numbers.
+        int numPages = config.getNumberOfPages() * numProcesses;
+        int[] pages = recordPageTrace(mrcConfig, trace);
+        
+        long start = System.nanoTime();
+        StackDistanceAnalyzer analyzer = StackDistanceAnalyzer.analyze(pages, numPages);
+        long[] faults = analyzer.getFaultCurve();
+        long elapsed = System.nanoTime() - start;
+        
+        try (PrintWriter out = new PrintWriter(new FileWriter(mrcFile))) {
+            
+            out.println("frames,faults,missRatio");
+            
+            for(int frames = 1 ; frames <= numPages ; frames++) {
+                
+                out.println(frames + "," + faults[frames] + ","
+                        + (double) faults[frames] / pages.length);
+                        
+            }
+            
+        } catch(IOException e) {
+            
+            System.out.println("Error writing " + mrcFile + ": " + e.getMessage());
+            System.exit(-1); // CRASH!
+            
+        }
+        
+        System.out.println("Miss ratio curve for 1 to " + numPages + " frames from "
+                + pages.length + " accesses in " + (elapsed / 1000000) + " ms, written to "
+                + mrcFile);
+                
+        int[] checkSizes = {1, numPages / 4, config.getNumberOfFrames(), numPages / 2, numPages};
+        
+        for(int frames : checkSizes) {
+            
+            if(frames < 1) {
+                
+                continue;
+                
+            }
+            
+            mrcConfig.setNumberOfFrames(frames);
+            mrcConfig.setReplacementMethod(MMUHardware.LRU);
+            
+            MMUHardware mmu = new MMUHardware(mrcConfig);
+            runWorkload(mmu, trace, false);
+            
+            System.out.println(frames + " frames: " + faults[frames] + " faults from the curve, "
+                    + mmu.getTotalPageFaults() + " from an LRU run"
+                    + (faults[frames] == mmu.getTotalPageFaults() ? "" : ", MISMATCH!"));
+                    
+        }
+        
+    } // end writeMissRatioCurve
+    
+    
+    /**
+     * This method prints the command line options.
+     */
+    private static void printUsage() {
+        
+        System.out.println("Usage: java Driver [options]");
+        System.out.println("  -policy NAME        LRU, FIFO, CLOCK, CLOCKPRO or OPT (default LRU).");
+        System.out.println("  -pages N            Number of virtual pages (default 16).");
+        System.out.println("  -frames N           Number of physical frames (default 4).");
+        System.out.println("  -pagesize N         Addresses per page (default 1024).");
+        System.out.println("  -backing HEAP|MAPPED Pages on the heap or in a mapped swap file (default HEAP).");
+        System.out.println("  -cleaner N          Clean frames a background cleaner keeps, 0 for none,"
+                + " also times faults.");
+        System.out.println("  -freeframes N       Free frames to reclaim ahead of faults, in batches"
+                + " (default 0, evict on demand).");
+        System.out.println("  -readahead N        Most pages to prefetch after sequential or strided"
+                + " faults (default 0).");
+        System.out.println("  -cost T,M,I,W       Simulated ns of a TLB hit, memory access, page in"
+                + " and write back.");
+        System.out.println("  -metrics MS         Export metrics over JMX and print them every MS"
+                + " ms, 0 for only at the end.");
+        System.out.println("  -faultlog N         Keep the order of the first N page faults (default 65536).");
+        System.out.println("  -trace FILE         Replay a binary trace instead of the built in run.");
+        System.out.println("  -convert FILE       Convert a text trace into the -trace file first.");
+        System.out.println("  -workload NAME      Run SEQUENTIAL, STRIDED, UNIFORM, ZIPF, LOOP or PHASE.");
+        System.out.println("  -accesses N         Accesses each workload makes (default 1000000).");
+        System.out.println("  -seed N             Workload random seed (default 1).");
+        System.out.println("  -writes N           Percent of workload accesses that write (default 30).");
+        System.out.println("  -processes N        Processes sharing memory, each runs the workload (default 1).");
+        System.out.println("  -quantum N          Accesses between context switches (default 10000).");
+        System.out.println("  -replacement LOCAL|GLOBAL Replace any page or only the process's own (default GLOBAL).");
+        System.out.println("  -threads N          Run a thread safe MMU from N threads.");
+        System.out.println("  -mrc FILE           Write LRU faults for every frame count to a CSV.");
+        System.out.println("  -tlb N              TLB entries (default 0, no TLB).");
+        System.out.println("  -tlbways N          TLB entries per set (default 0, fully associative).");
+        System.out.println("  -tlbpolicy LRU|FIFO Replacement within a TLB set (default LRU).");
+        
+    } // end printUsage
+    
 } // end Driver
\ No newline at end of file
@@ -0,0 +1,80 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the First In First Out replacement policy, frames are
+ * replaced in the order their pages were loaded.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class FIFOPolicy implements ReplacementPolicy {
+    
+    private int[] queue;            // Circular queue of frames in load order.
+    private int head;               // The oldest loaded frame.
+    private int count;              // Number of frames in the queue.
+    
+    
+    /**
+     * This will construct a new FIFO policy for the specified number of frames.
+     * 
+     * @param numFrames - The number of frames in memory.
+     */
+    public FIFOPolicy(int numFrames) {
+        
+        queue = new int[numFrames];
+        head = 0;
+        count = 0;
+        
+    } // end FIFOPolicy constructor
+    
+    
+    @Override
+    public void pageLoaded(int pageNumber, int frameNumber) {
+        
+        queue[(head + count) % queue.length] = frameNumber;
+        count++;
+        
+    } // end pageLoaded
+    
+    
+    @Override
+    public void frameAccessed(int frameNumber) {
+        
+        // Access order doesn't matter to FIFO.
+        
+    } // end frameAccessed
+    
+    
+    @Override
+    public boolean isAccessThreadSafe() {
+        
+        return true;
+        
+    } // end isAccessThreadSafe
+    
+    
+    @Override
+    public int selectVictim() {
+        
+        int victim = queue[head];
+        head = (head + 1) % queue.length;
+        count--;
+        
+        return victim;
+        
+    } // end selectVictim
+    
+    
+    @Override
+    public String toString() {
+        
+        return "FIFO";
+        
+    } // end toString
+    
+} // end FIFOPolicy
\ No newline at end of file
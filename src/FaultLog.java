@@ -0,0 +1,288 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class records page faults as they happen. Events are kept in
+ * growable primitive arrays rather than appended to a String, which copied the whole
+ * String on every fault, and the reference string is only formatted when asked for.
+ * 
+ * Each fault logged takes 20 bytes, so only the first so many are kept, DEFAULT_LIMIT
+ * unless configured otherwise, see MMUConfig.setFaultLogLimit. Faults past the limit are
+ * still counted.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class FaultLog {
+    
+    private final static int FIELDS = 3;            // Ints recorded per fault.
+    private final static int DIRTY_FLAG = 1 << 31;  // Packed with the frame number.
+    private final static int INITIAL_CAPACITY = 1024;
+    
+    // Enough for the whole reference string of any small run, 1.3 MB at most.
+    final static int DEFAULT_LIMIT = 65536;
+    
+    // The most faults an int indexed array of records can hold.
+    final static int MAX_LIMIT = (Integer.MAX_VALUE - 8) / FIELDS;
+    
+    // For fault i, index i * FIELDS = faulting page, + 1 = victim page or -1,
+    // + 2 = frame, with the top bit set if the victim had to be written back.
+    private int[] records;
+    private long[] accessIndexes;   // Which access caused each fault, starting at 0.
+    private int size;               // Number of faults recorded.
+    private final int limit;        // Most faults recorded, later ones are only counted.
+    private long numFaults;         // Faults added, recorded or not.
+    private long dirtyEvictions;    // Faults that had to write their victim back.
+    
+    
+    /**
+     * This will construct a new, empty fault log.
+     * 
+     * @param limit - The most faults to record, 0 to only count them. It is capped at
+     * MAX_LIMIT.
+     */
+    public FaultLog(int limit) {
+        
+        this.limit = Math.max(0, Math.min(limit, MAX_LIMIT));
+        
+        int capacity = Math.min(INITIAL_CAPACITY, this.limit);
+        
+        records = new int[capacity * FIELDS];
+        accessIndexes = new long[capacity];
+        size = 0;
+        
+    } // end FaultLog constructor
+    
+    
+    /**
+     * This method records one page fault, or only counts it once the log is full.
+     * 
+     * @param pageNumber - The page that faulted.
+     * 
+     * @param victimPage - The page it replaced, -1 if the frame was unused.
+     * 
+     * @param frameNumber - The frame it was loaded into.
+     * 
+     * @param dirty - Whether the victim had to be written back first.
+     * 
+     * @param accessIndex - Which access caused the fault.
+     */
+    public void add(int pageNumber, int victimPage, int frameNumber, boolean dirty,
+            long accessIndex) {
+            
+        numFaults++;
+        
+        if(dirty) {
+            
+            dirtyEvictions++;
+            
+        }
+        
+        if(size == limit) {
+            
+            return;
+            
+        }
+        
+        if(size == accessIndexes.length) {
+            
+            // Computed as a long so doubling can't overflow, and never past the limit.
+            int capacity = (int) Math.min((long) accessIndexes.length * 2, limit);
+            
+            records = Arrays.copyOf(records, capacity * FIELDS);
+            accessIndexes = Arrays.copyOf(accessIndexes, capacity);
+            
+        }
+        
+        int base = size * FIELDS;
+        
+        records[base] = pageNumber;
+        records[base + 1] = victimPage;
+        records[base + 2] = dirty ? frameNumber | DIRTY_FLAG : frameNumber;
+        accessIndexes[size] = accessIndex;
+        size++;
+        
+    } // end add
+    
+    
+    /**
+     * This method counts faults past the limit that were never added, for a caller that
+     * stops calling add once the log is full and catches the counts up later.
+     * 
+     * @param faults - The faults not added.
+     * 
+     * @param dirty - How many of them had to write their victim back first.
+     */
+    public void addUnlogged(long faults, long dirty) {
+        
+        numFaults += faults;
+        dirtyEvictions += dirty;
+        
+    } // end addUnlogged
+    
+    
+    /**
+     * @return - The number of faults recorded.
+     */
+    public int size() {
+        
+        return size;
+        
+    } // end size
+    
+    
+    /**
+     * @return - The most faults that will be recorded.
+     */
+    public int getLimit() {
+        
+        return limit;
+        
+    } // end getLimit
+    
+    
+    /**
+     * @return - The number of faults added, including those past the limit.
+     */
+    public long getNumberOfFaults() {
+        
+        return numFaults;
+        
+    } // end getNumberOfFaults
+    
+    
+    /**
+     * @return - The number of faults that had to write their victim back first, including
+     * those past the limit.
+     */
+    public long getDirtyEvictions() {
+        
+        return dirtyEvictions;
+        
+    } // end getDirtyEvictions
+    
+    
+    /**
+     * @param index - Which fault, starting at 0.
+     * 
+     * @return - The page that faulted.
+     */
+    public int getPage(int index) {
+        
+        return records[index * FIELDS];
+        
+    } // end getPage
+    
+    
+    /**
+     * @param index - Which fault, starting at 0.
+     * 
+     * @return - The page it replaced, -1 if the frame was unused.
+     */
+    public int getVictimPage(int index) {
+        
+        return records[index * FIELDS + 1];
+        
+    } // end getVictimPage
+    
+    
+    /**
+     * @param index - Which fault, starting at 0.
+     * 
+     * @return - The frame the page was loaded into.
+     */
+    public int getFrame(int index) {
+        
+        return records[index * FIELDS + 2] & ~DIRTY_FLAG;
+        
+    } // end getFrame
+    
+    
+    /**
+     * @param index - Which fault, starting at 0.
+     * 
+     * @return - A boolean true if the victim had to be written back first.
+     */
+    public boolean isDirty(int index) {
+        
+        return (records[index * FIELDS + 2] & DIRTY_FLAG) != 0;
+        
+    } // end isDirty
+    
+    
+    /**
+     * @param index - Which fault, starting at 0.
+     * 
+     * @return - Which access caused the fault.
+     */
+    public long getAccessIndex(int index) {
+        
+        return accessIndexes[index];
+        
+    } // end getAccessIndex
+    
+    
+    /**
+     * This method formats the faulting pages, in order, the same way the reference string
+     * always has been.
+     * 
+     * @return - A string listing off each page that caused a fault and in what order.
+     */
+    public String toReferenceString() {
+        
+        StringBuilder builder = new StringBuilder("Order of page faults: ");
+        
+        for(int i = 0 ; i < size ; i++) {
+            
+            builder.append(records[i * FIELDS]).append(", ");
+            
+        }
+        
+        return builder.toString();
+        
+    } // end toReferenceString
+    
+    
+    /**
+     * This method formats only the first few faulting pages, so even a long run prints a
+     * short line, followed by how many more were recorded or only counted.
+     * 
+     * @param maxPages - The most pages to list.
+     * 
+     * @return - The start of the reference string and what was left out.
+     */
+    public String toSummary(int maxPages) {
+        
+        StringBuilder builder = new StringBuilder("Order of page faults: ");
+        int shown = Math.min(size, maxPages);
+        
+        for(int i = 0 ; i < shown ; i++) {
+            
+            builder.append(records[i * FIELDS]).append(", ");
+            
+        }
+        
+        if(shown < size) {
+            
+            builder.append("... ").append(size - shown).append(" more logged");
+            
+        }
+        
+        if(numFaults > size) {
+            
+            builder.append(shown < size ? ", " : "... ").append(numFaults - size)
+                    .append(" past the limit of ").append(limit);
+                    
+        }
+        
+        return builder.toString();
+        
+    } // end toSummary
+    
+} // end FaultLog
\ No newline at end of file
@@ -1,86 +1,67 @@
-/**
- * Class: ICS 462 - Operating Systems <br>
- * Instructor: Michael Dorin <br>
- * Description: Program 3, Simulating Memory Management. <br>
- * Due: 04/12/2016 <br><br>
- * 
- * This particular class represents a the file system where virtual pages are located.
- * 
- * @author Tom Carney
- * @version 1.0
- * @since 04/01/2016
- */
-
-public class FileSystem {
-    
-    // This will represent the virtual memory found on the HD
-    private int[][] pages;
-    
-    
-    /**
-     * This will construct a new file system with the specified number of virtual pages, 
-     * each of which have the specified size.
-     * 
-     * @param numPages - The number of virtual pages.
-     * 
-     * @param pageSize - The size of each virtual page.
-     */
-    public FileSystem(int numPages, int pageSize) {
-        
-        pages = new int[numPages][pageSize];
-        
-    } // end FileSystem Constructor
-   
-
-    
-    /**
-     * This method allows you to write a value to a specified address of a specified page.
-     * 
-     * @param pageNum - The specific page number.
-     * 
-     * @param offset - The specific cell.
-     * 
-     * @param value - The value to write.
-     */
-    public void writeToPage(int pageNum, int offset, int value) {
-       
-            pages[pageNum][offset] = value;
-        
-    } // end writeToPage
-    
-    
-    /**
-     * This method allows you to read a value from a specified page and address.
-     * 
-     * @param pageNum - The page in question.
-     * 
-     * @param offset - The address in question.
-     * 
-     * @return - The value in the address of that cell.
-     */
-    public int readFromPage(int pageNum, int offset) {
-        
-        return pages[pageNum][offset];
-        
-    } // end readFromPage
-    
-    
-    /**
-     * This method will return a string representation of the file system.
-     */
-    public String toString() {
-        
-        String returnString = "";
-        
-        for(int i = 0 ; i < pages.length ; i++) {
-            
-            // not terribly useful but also not a priority right now.
-            returnString += pages[i] + "\n";
-            
-        }
-        
-        return returnString;
-    
-    } // end toString
-    
-} // end FileSystem
\ No newline at end of file
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This is the interface of the file system where virtual pages are located. Memory only
+ * ever moves whole pages in and out, so where the pages really live, on the heap or in a
+ * swap file, is up to the implementation. See MMUConfig.createFileSystem.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public interface FileSystem {
+
+    /**
+     * This method allows you to write a value to a specified address of a specified page.
+     * 
+     * @param pageNum - The specific page number.
+     * 
+     * @param offset - The specific cell.
+     * 
+     * @param value - The value to write.
+     */
+    void writeToPage(int pageNum, int offset, int value);
+    
+    /**
+     * This method allows you to read a value from a specified page and address.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @param offset - The address in question.
+     * 
+     * @return - The value in the address of that cell.
+     */
+    int readFromPage(int pageNum, int offset);
+    
+    /**
+     * This method copies a whole page into the given array in one go, rather than one
+     * address at a time.
+     * 
+     * @param pageNum - The page to read.
+     * 
+     * @param destination - Where to copy it, must be at least a page long.
+     */
+    void readPage(int pageNum, int[] destination);
+    
+    /**
+     * This method overwrites a whole page with the contents of the given array in one go.
+     * 
+     * @param pageNum - The page to write.
+     * 
+     * @param source - The values to store, must be at least a page long.
+     */
+    void writePage(int pageNum, int[] source);
+    
+    /**
+     * This method tells you how many pages are really being stored, pages never written
+     * read as zeros and take up nothing.
+     * 
+     * @return - The number of pages written at least once.
+     */
+    long getMaterializedPages();
+    
+} // end FileSystem Interface
\ No newline at end of file
@@ -1,185 +1,240 @@
-/**
- * Class: ICS 462 - Operating Systems <br>
- * Instructor: Michael Dorin <br>
- * Description: Program 3, Simulating Memory Management. <br>
- * Due: 04/12/2016 <br><br>
- * 
- * This particular class represents a Frame in memory which is used to hold a virtual 
- * page when needed.
- * 
- * @author Tom Carney
- * @version 1.0
- * @since 04/01/2016
- */
-
-public class Frame {
-    
-    private int[] frameData;    // Holds the indexed array of data.
-    private long timeStamp;     // Used for the LRU replacement strategy
-    private boolean dirty;      // Keeps track whether a page has been modified while in memory.
-    
-    
-    /**
-     * Public constructor for the frame class.
-     * 
-     * @param frameSize - The number of addresses stored per page/frame.
-     */
-    public Frame(int frameSize) {
-        
-        frameData = new int[frameSize];
-        
-        // This will change only if LRU or like replacement methods are used.
-        timeStamp = 0;
-        dirty = false;
-        
-    } // end Frame constructor
-    
-    
-    /**
-     * This is used to get the length of/number of addresses per frame.
-     * 
-     * @return - The number of addresses per frame.
-     */
-    public int getLength() {
-        
-        return frameData.length;
-        
-    } // end getLength
-    
-    
-    /**
-     * This method determines whether the frame has been modified while in memory and 
-     * changes need to be written back.
-     * 
-     * @return - A boolean true if the values were modified in memory, false otherwise.
-     */
-    public boolean isDirty() {
-        
-        return dirty;
-        
-    } // end isDirty
-    
-    
-    /**
-     * If the frame has been altered while in memory, it should be marked dirty so that the
-     * updates can be stored before being written over.
-     */
-    public void setDirty() {
-        
-        dirty = true;
-        
-    } // end setDirty
-    
-    
-    /**
-     * If the frame has been written back to it's page on the file system, it is technically
-     * no longer dirty so should be set as such. That does not mean it must be replaced in 
-     * memory but data could be backed up periodically.
-     */
-    public void setNotDirty() {
-        
-        dirty = false;
-        
-    } // end setNotDirty
-    
-    
-    /**
-     * This method is used to update the value in a particular in the frame.
-     * 
-     * @param offset - The address location to be updated.
-     * 
-     * @param value - The value to be updated at that location.
-     * 
-     * @return - A boolean true if the value was updated, false otherwise.
-     */
-    public boolean writeToAddress(int offset, int value) {
-        
-        if(offset >= 0 && offset < frameData.length) {
-            
-            //System.out.println("Writing " + value + " to offset " + offset);
-            frameData[offset] = value;
-            return true;
-            
-        } else {
-            
-            System.out.println("Writing to address " + offset + " out of range!" );
-            return false;
-            
-        }
-        
-    } // end writeToAddress
-    
-    
-    /**
-     * This method is used to read the value at a particular address in the frame.
-     * 
-     * @param address - The address for which you want the value at.
-     * 
-     * @return - The value at that address.
-     */
-    public int readFromAddress(int address) {
-        
-        if(address >= 0 && address < frameData.length) {
-            
-            return frameData[address];
-            
-        } else {
-            
-            System.out.println("reading from address " + address + " out of range!");
-            
-            return -9999; // totally invalid value for our testing
-            
-        }
-        
-    } // end readFromAddress
-    
-    
-    /**
-     * This method will update the frames timestamp in milliseconds.
-     */
-    public void setTimeStamp() {
-        
-        timeStamp = System.currentTimeMillis();
-        
-    } // end setTimeStamp
-    
-    
-    /**
-     * This method will return the frames current timestamp.
-     * 
-     * @return - The frames current timestamp in milliseconds as a long.
-     */
-    public long getTimeStamp() {
-        
-        return timeStamp;
-        
-    } // end getTimeStamp
-    
-    
-    /**
-     * This method returns a String representation of the frame.
-     */
-    @Override
-    public String toString() {
-        
-        String returnString = "";
-        
-        for (int i : frameData) {
-            
-            returnString += (i + ", ");
-            
-            if(i % 15 == 0) {
-                
-                returnString += "\n";
-                
-            }
-            
-        }
-        
-        returnString += "\n";
-        
-        return returnString;
-        
-    } // end toString
-    
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents a Frame in memory which is used to hold a virtual 
+ * page when needed.
+ * 
+ * The dirty flag is the one piece of a frame the page cleaner touches from its own
+ * thread. A write stores its value and then publishes the flag, and the cleaner clears
+ * the flag before it copies the frame out, so a write that lands during the copy always
+ * leaves the frame dirty again.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+public class Frame {
+    
+    private final static AtomicIntegerFieldUpdater<Frame> DIRTY =
+            AtomicIntegerFieldUpdater.newUpdater(Frame.class, "dirty");
+            
+    private int[] frameData;    // Holds the indexed array of data.
+    private long timeStamp;     // Used for the LRU replacement strategy
+    private volatile int dirty; // 1 if a page has been modified while in memory, else 0.
+    
+    
+    /**
+     * Public constructor for the frame class.
+     * 
+     * @param frameSize - The number of addresses stored per page/frame.
+     */
+    public Frame(int frameSize) {
+        
+        frameData = new int[frameSize];
+        
+        // This will change only if LRU or like replacement methods are used.
+        timeStamp = 0;
+        dirty = 0;
+        
+    } // end Frame constructor
+    
+    
+    /**
+     * This is used to get the length of/number of addresses per frame.
+     * 
+     * @return - The number of addresses per frame.
+     */
+    public int getLength() {
+        
+        return frameData.length;
+        
+    } // end getLength
+    
+    
+    /**
+     * This method determines whether the frame has been modified while in memory and 
+     * changes need to be written back.
+     * 
+     * @return - A boolean true if the values were modified in memory, false otherwise.
+     */
+    public boolean isDirty() {
+        
+        return dirty != 0;
+        
+    } // end isDirty
+    
+    
+    /**
+     * If the frame has been altered while in memory, it should be marked dirty so that the
+     * updates can be stored before being written over. Call it after the write, it's an
+     * ordered store so the cleaner can't see the flag without the data.
+     */
+    public void setDirty() {
+        
+        DIRTY.lazySet(this, 1);
+        
+    } // end setDirty
+    
+    
+    /**
+     * If the frame has been written back to it's page on the file system, it is technically
+     * no longer dirty so should be set as such. That does not mean it must be replaced in 
+     * memory but data could be backed up periodically.
+     */
+    public void setNotDirty() {
+        
+        dirty = 0;
+        
+    } // end setNotDirty
+    
+    
+    /**
+     * This method clears the dirty flag and says whether it was set, in one atomic step,
+     * for whoever is about to write the frame back.
+     * 
+     * @return - A boolean true if the frame was dirty and now has to be written back.
+     */
+    public boolean clearDirty() {
+        
+        return DIRTY.getAndSet(this, 0) != 0;
+        
+    } // end clearDirty
+    
+    
+    /**
+     * This method is used to update the value in a particular in the frame.
+     * 
+     * @param offset - The address location to be updated.
+     * 
+     * @param value - The value to be updated at that location.
+     * 
+     * @return - A boolean true if the value was updated, false otherwise.
+     */
+    public boolean writeToAddress(int offset, int value) {
+        
+        if(offset >= 0 && offset < frameData.length) {
+            
+            //System.out.println("Writing " + value + " to offset " + offset);
+            frameData[offset] = value;
+            return true;
+            
+        } else {
+            
+            System.out.println("Writing to address " + offset + " out of range!" );
+            return false;
+            
+        }
+        
+    } // end writeToAddress
+    
+    
+    /**
+     * This method is used to read the value at a particular address in the frame.
+     * 
+     * @param address - The address for which you want the value at.
+     * 
+     * @return - The value at that address.
+     */
+    public int readFromAddress(int address) {
+        
+        if(address >= 0 && address < frameData.length) {
+            
+            return frameData[address];
+            
+        } else {
+            
+            System.out.println("reading from address " + address + " out of range!");
+            
+            return -9999; // totally invalid value for our testing
+            
+        }
+        
+    } // end readFromAddress
+    
+    
+    /**
+     * This method will overwrite the whole frame with a page from the file system.
+     * 
+     * @param fileSystem - Where the page is stored.
+     * 
+     * @param pageNum - The page to bring in.
+     */
+    public void loadPage(FileSystem fileSystem, int pageNum) {
+        
+        fileSystem.readPage(pageNum, frameData);
+        
+    } // end loadPage
+    
+    
+    /**
+     * This method will write the whole frame back to a page on the file system.
+     * 
+     * @param fileSystem - Where the page is stored.
+     * 
+     * @param pageNum - The page to write back to.
+     */
+    public void storePage(FileSystem fileSystem, int pageNum) {
+        
+        fileSystem.writePage(pageNum, frameData);
+        
+    } // end storePage
+    
+    
+    /**
+     * This method will update the frames timestamp. Stamps come from the memory unit's
+     * access counter rather than the wall clock, so no two accesses ever share one.
+     * 
+     * @param newTimeStamp - The logical time of the access.
+     */
+    public void setTimeStamp(long newTimeStamp) {
+        
+        timeStamp = newTimeStamp;
+        
+    } // end setTimeStamp
+    
+    
+    /**
+     * This method will return the frames current timestamp.
+     * 
+     * @return - The logical time of the frames last access as a long, 0 if never accessed.
+     */
+    public long getTimeStamp() {
+        
+        return timeStamp;
+        
+    } // end getTimeStamp
+    
+    
+    /**
+     * This method returns a String representation of the frame.
+     */
+    @Override
+    public String toString() {
+        
+        String returnString = "";
+        
+        for (int i : frameData) {
+            
+            returnString += (i + ", ");
+            
+            if(i % 15 == 0) {
+                
+                returnString += "\n";
+                
+            }
+            
+        }
+        
+        returnString += "\n";
+        
+        return returnString;
+        
+    } // end toString
+    
 } // end Frame
\ No newline at end of file
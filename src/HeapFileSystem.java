@@ -0,0 +1,196 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents a the file system where virtual pages are located,
+ * kept on the heap as one int array per page. Pages are demand zero, a page is only
+ * allocated the first time something is written to it and until then reads as all zeros,
+ * so memory and startup time follow the pages a workload touches rather than the size of
+ * the address space. Pages are found through a two level directory of chunks so even the
+ * table of pages is only allocated where it's used.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class HeapFileSystem implements FileSystem {
+    
+    final static int CHUNK_SHIFT = 10;              // log2 of the pages per directory chunk.
+    final static int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    
+    // This will represent the virtual memory found on the HD, directory[chunk][page in
+    // chunk], a null chunk or page has never been written and reads as zeros.
+    private int[][][] directory;
+    private int pageSize;           // The size of each virtual page.
+    private long numMaterialized;   // Pages that have been allocated.
+    
+    
+    /**
+     * This will construct a new file system with the specified number of virtual pages,
+     * each of which have the specified size.
+     * 
+     * @param numPages - The number of virtual pages.
+     * 
+     * @param pageSize - The size of each virtual page.
+     */
+    public HeapFileSystem(int numPages, int pageSize) {
+        
+        directory = new int[(numPages + CHUNK_MASK) >>> CHUNK_SHIFT][][];
+        this.pageSize = pageSize;
+        
+    } // end HeapFileSystem Constructor
+    
+    
+    /**
+     * This is a private method finding a page's data.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @return - The page, or null if it has never been written.
+     */
+    private int[] page(int pageNum) {
+        
+        int[][] chunk = directory[pageNum >>> CHUNK_SHIFT];
+        
+        return chunk == null ? null : chunk[pageNum & CHUNK_MASK];
+        
+    } // end page
+    
+    
+    /**
+     * This is a private method finding a page's data, allocating it if it has never been
+     * written.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @return - The page.
+     */
+    private int[] materialize(int pageNum) {
+        
+        int[][] chunk = directory[pageNum >>> CHUNK_SHIFT];
+        
+        if(chunk == null) {
+            
+            chunk = new int[CHUNK_MASK + 1][];
+            directory[pageNum >>> CHUNK_SHIFT] = chunk;
+            
+        }
+        
+        int[] page = chunk[pageNum & CHUNK_MASK];
+        
+        if(page == null) {
+            
+            page = new int[pageSize];
+            chunk[pageNum & CHUNK_MASK] = page;
+            numMaterialized++;
+            
+        }
+        
+        return page;
+        
+    } // end materialize
+    
+    
+    
+    /**
+     * This method allows you to write a value to a specified address of a specified page.
+     * 
+     * @param pageNum - The specific page number.
+     * 
+     * @param offset - The specific cell.
+     * 
+     * @param value - The value to write.
+     */
+    @Override
+    public void writeToPage(int pageNum, int offset, int value) {
+        
+        materialize(pageNum)[offset] = value;
+        
+    } // end writeToPage
+    
+    
+    /**
+     * This method allows you to read a value from a specified page and address.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @param offset - The address in question.
+     * 
+     * @return - The value in the address of that cell.
+     */
+    @Override
+    public int readFromPage(int pageNum, int offset) {
+        
+        int[] page = page(pageNum);
+        
+        return page == null ? 0 : page[offset];
+        
+    } // end readFromPage
+    
+    
+    /**
+     * This method copies a whole page into the given array in one go, rather than one
+     * address at a time. A page never written is just zero filled, nothing is allocated.
+     * 
+     * @param pageNum - The page to read.
+     * 
+     * @param destination - Where to copy it, must be at least a page long.
+     */
+    @Override
+    public void readPage(int pageNum, int[] destination) {
+        
+        int[] page = page(pageNum);
+        
+        if(page == null) {
+            
+            Arrays.fill(destination, 0, pageSize, 0);
+            
+        } else {
+            
+            System.arraycopy(page, 0, destination, 0, pageSize);
+            
+        }
+        
+    } // end readPage
+    
+    
+    /**
+     * This method overwrites a whole page with the contents of the given array in one go.
+     * 
+     * @param pageNum - The page to write.
+     * 
+     * @param source - The values to store, must be at least a page long.
+     */
+    @Override
+    public void writePage(int pageNum, int[] source) {
+        
+        System.arraycopy(source, 0, materialize(pageNum), 0, pageSize);
+        
+    } // end writePage
+    
+    
+    @Override
+    public long getMaterializedPages() {
+        
+        return numMaterialized;
+        
+    } // end getMaterializedPages
+    
+    
+    /**
+     * This method will return a string representation of the file system.
+     */
+    @Override
+    public String toString() {
+        
+        // not terribly useful but also not a priority right now.
+        return "Heap file system with " + numMaterialized + " pages allocated";
+        
+    } // end toString
+    
+} // end HeapFileSystem
\ No newline at end of file
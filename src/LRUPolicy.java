@@ -0,0 +1,137 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the Least Recently Used replacement policy. It keeps a
+ * recency list over frame numbers, head is least recent and tail is most, as index
+ * arrays so a touch or a victim lookup never has to scan the frames.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class LRUPolicy implements ReplacementPolicy {
+    
+    private int[] prevFrame;        // The next older frame, -1 at the head.
+    private int[] nextFrame;        // The next newer frame, -1 at the tail.
+    private int oldestFrame;        // Head of the recency list, -1 if empty.
+    private int newestFrame;        // Tail of the recency list, -1 if empty.
+    
+    
+    /**
+     * This will construct a new LRU policy for the specified number of frames.
+     * 
+     * @param numFrames - The number of frames in memory.
+     */
+    public LRUPolicy(int numFrames) {
+        
+        prevFrame = new int[numFrames];
+        nextFrame = new int[numFrames];
+        oldestFrame = -1;
+        newestFrame = -1;
+        
+    } // end LRUPolicy constructor
+    
+    
+    /**
+     * This is a private method taking a frame out of the recency list.
+     * 
+     * @param frameNumber - The frame to unlink.
+     */
+    private void unlink(int frameNumber) {
+        
+        int prev = prevFrame[frameNumber];
+        int next = nextFrame[frameNumber];
+        
+        if(prev == -1) {
+            
+            oldestFrame = next;
+            
+        } else {
+            
+            nextFrame[prev] = next;
+            
+        }
+        
+        if(next == -1) {
+            
+            newestFrame = prev;
+            
+        } else {
+            
+            prevFrame[next] = prev;
+            
+        }
+        
+    } // end unlink
+    
+    
+    /**
+     * This is a private method putting a frame at the most recently used end of the list.
+     * 
+     * @param frameNumber - The frame to link in.
+     */
+    private void linkNewest(int frameNumber) {
+        
+        prevFrame[frameNumber] = newestFrame;
+        nextFrame[frameNumber] = -1;
+        
+        if(newestFrame == -1) {
+            
+            oldestFrame = frameNumber;
+            
+        } else {
+            
+            nextFrame[newestFrame] = frameNumber;
+            
+        }
+        
+        newestFrame = frameNumber;
+        
+    } // end linkNewest
+    
+    
+    @Override
+    public void pageLoaded(int pageNumber, int frameNumber) {
+        
+        linkNewest(frameNumber);
+        
+    } // end pageLoaded
+    
+    
+    @Override
+    public void frameAccessed(int frameNumber) {
+        
+        // Already the most recent, nothing to move.
+        if(frameNumber != newestFrame) {
+            
+            unlink(frameNumber);
+            linkNewest(frameNumber);
+            
+        }
+        
+    } // end frameAccessed
+    
+    
+    @Override
+    public int selectVictim() {
+        
+        int victim = oldestFrame;
+        unlink(victim);
+        
+        return victim;
+        
+    } // end selectVictim
+    
+    
+    @Override
+    public String toString() {
+        
+        return "LRU";
+        
+    } // end toString
+    
+} // end LRUPolicy
\ No newline at end of file
@@ -0,0 +1,286 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class records a distribution of latencies in nanoseconds, such as how
+ * long each page fault took to service. Buckets are log-linear, every power of two is
+ * split into 16 equal buckets, so any value is known to within about 6% and the whole
+ * range of a long fits in under a thousand counters. Recording never allocates.
+ * 
+ * Timing an event costs two System.nanoTime calls, which on a fast path can cost more
+ * than the event itself. A histogram can be built to sample, so that only one event in
+ * every so many is timed. Whoever records asks isSampleDue first and only reads the
+ * clock when it says so. The percentiles are then of the sample, the count is of the
+ * events timed.
+ * 
+ * Like the rest of the simulator it is not safe for more than one thread at a time. The
+ * one exception is copy, which another thread may call to take a snapshot while values
+ * are still being recorded. The copy can be a few values behind, but recording never waits.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class LatencyHistogram {
+    
+    final static int SUB_BUCKET_BITS = 4;           // log2 of the buckets per power of two.
+    final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    final static int NUMBER_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final long[] counts;                    // Values recorded in each bucket.
+    private long totalCount;                        // Values recorded in all.
+    private long sum;                               // Of every value, for the mean.
+    private long max;                               // Largest value recorded.
+    private final int sampleInterval;               // Events timed are one in this many.
+    private int untilSample;                        // Events left until the next is due.
+    
+    
+    /**
+     * This will construct a new, empty, histogram that times every event.
+     */
+    public LatencyHistogram() {
+        
+        this(1);
+        
+    } // end LatencyHistogram constructor
+    
+    
+    /**
+     * This will construct a new, empty, histogram that times one event in sampleInterval,
+     * starting with the first.
+     * 
+     * @param sampleInterval - Events per one timed, 1 to time them all.
+     */
+    public LatencyHistogram(int sampleInterval) {
+        
+        counts = new long[NUMBER_OF_BUCKETS];
+        this.sampleInterval = Math.max(sampleInterval, 1);
+        untilSample = 1;
+        
+    } // end LatencyHistogram constructor
+    
+    
+    /**
+     * This method counts an event towards the next sample, call it once per event.
+     * 
+     * @return - A boolean true if this event should be timed and recorded, false otherwise.
+     */
+    public boolean isSampleDue() {
+        
+        if(--untilSample > 0) {
+            
+            return false;
+            
+        }
+        
+        untilSample = sampleInterval;
+        return true;
+        
+    } // end isSampleDue
+    
+    
+    /**
+     * This is a private method finding the bucket a value goes in. Values below 16 get a
+     * bucket each, above that the top 5 bits of the value pick the bucket.
+     * 
+     * @param value - A non negative value.
+     * 
+     * @return - The bucket index.
+     */
+    private static int bucketOf(long value) {
+        
+        if(value < SUB_BUCKETS) {
+            
+            return (int) value;
+            
+        }
+        
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        
+    } // end bucketOf
+    
+    
+    /**
+     * This is a private method giving the largest value that goes in a bucket.
+     * 
+     * @param bucket - The bucket index.
+     * 
+     * @return - Its highest value.
+     */
+    private static long highestValueIn(int bucket) {
+        
+        if(bucket < SUB_BUCKETS) {
+            
+            return bucket;
+            
+        }
+        
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        
+        return lowest + (1L << shift) - 1;
+        
+    } // end highestValueIn
+    
+    
+    /**
+     * This method records one value.
+     * 
+     * @param nanos - The latency, negative values count as 0.
+     */
+    public void record(long nanos) {
+        
+        long value = Math.max(nanos, 0);
+        
+        counts[bucketOf(value)]++;
+        totalCount++;
+        sum += value;
+        
+        if(value > max) {
+            
+            max = value;
+            
+        }
+        
+    } // end record
+    
+    
+    /**
+     * This method empties the histogram.
+     */
+    public void reset() {
+        
+        untilSample = 1;
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+        
+    } // end reset
+    
+    
+    /**
+     * This method copies the histogram, so its percentiles can be read at leisure while
+     * the original keeps recording.
+     * 
+     * @return - A new histogram holding the same values.
+     */
+    public LatencyHistogram copy() {
+        
+        LatencyHistogram copy = new LatencyHistogram(sampleInterval);
+        
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.max = max;
+        copy.sum = sum;
+        
+        // Counted from the buckets, so a copy racing a record stays self consistent.
+        for(long count : copy.counts) {
+            
+            copy.totalCount += count;
+            
+        }
+        
+        return copy;
+        
+    } // end copy
+    
+    
+    /**
+     * @return - The number of values recorded.
+     */
+    public long getCount() {
+        
+        return totalCount;
+        
+    } // end getCount
+    
+    
+    /**
+     * @return - The events per one timed, 1 if every event is.
+     */
+    public int getSampleInterval() {
+        
+        return sampleInterval;
+        
+    } // end getSampleInterval
+    
+    
+    /**
+     * @return - The mean of the values recorded, 0 if there are none.
+     */
+    public double getMean() {
+        
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+        
+    } // end getMean
+    
+    
+    /**
+     * @return - The largest value recorded, 0 if there are none.
+     */
+    public long getMax() {
+        
+        return max;
+        
+    } // end getMax
+    
+    
+    /**
+     * This will return the value a percentage of the recorded values are at or below,
+     * rounded up to the top of its bucket.
+     * 
+     * @param percentile - From 0 to 100, 50 for the median.
+     * 
+     * @return - The value, 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        
+        if(totalCount == 0) {
+            
+            return 0;
+            
+        }
+        
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * totalCount);
+        long seen = 0;
+        
+        for(int i = 0 ; i < counts.length ; i++) {
+            
+            seen += counts[i];
+            
+            if(seen >= Math.max(rank, 1)) {
+                
+                return Math.min(highestValueIn(i), max);
+                
+            }
+            
+        }
+        
+        return max;
+        
+    } // end getValueAtPercentile
+    
+    
+    /**
+     * This method returns a String representation of the histogram, its count, mean and
+     * the usual percentiles in nanoseconds.
+     */
+    @Override
+    public String toString() {
+        
+        return totalCount + " samples, mean " + Math.round(getMean()) + " ns, p50 "
+                + getValueAtPercentile(50) + " ns, p90 " + getValueAtPercentile(90)
+                + " ns, p99 " + getValueAtPercentile(99) + " ns, p99.9 "
+                + getValueAtPercentile(99.9) + " ns, max " + max + " ns";
+                
+    } // end toString
+    
+} // end LatencyHistogram
\ No newline at end of file
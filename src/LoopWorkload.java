@@ -0,0 +1,64 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a workload looping over a fixed set of pages, one access per
+ * page at a random offset. With more pages in the loop than frames in memory LRU and FIFO
+ * fault on every access while OPT keeps most of the loop resident.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class LoopWorkload extends Workload {
+    
+    private int pageSize;           // Addresses per page.
+    private int loopPages;          // Pages in the loop.
+    private int page;               // The next page of the loop.
+    
+    
+    /**
+     * This will construct a new loop workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param pageSize - Addresses per page.
+     * 
+     * @param loopPages - How many pages the loop covers, starting from page 0.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed.
+     */
+    public LoopWorkload(int numAddresses, int pageSize, int loopPages, int writePercent,
+            long seed) {
+            
+        super(numAddresses, writePercent, seed);
+        this.pageSize = pageSize;
+        this.loopPages = Math.max(1, Math.min(loopPages, numAddresses / pageSize));
+        
+    } // end LoopWorkload constructor
+    
+    
+    @Override
+    protected void resetPosition() {
+        
+        page = 0;
+        
+    } // end resetPosition
+    
+    
+    @Override
+    public int nextAddress() {
+        
+        int address = page * pageSize + nextInt(pageSize);
+        page = (page + 1 == loopPages) ? 0 : page + 1;
+        
+        return address;
+        
+    } // end nextAddress
+    
+} // end LoopWorkload
\ No newline at end of file
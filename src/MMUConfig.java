@@ -0,0 +1,644 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class holds the geometry and replacement policy used to build an MMU,
+ * so the simulator can be sized to match a workload instead of the original hardcoded
+ * 16 pages, 4 frames and 1024 addresses per page.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.IOException;
+
+public class MMUConfig {
+    
+    final static int DEFAULT_NUMBER_OF_PAGES = 16;
+    final static int DEFAULT_NUMBER_OF_FRAMES = 4;
+    final static int DEFAULT_PAGE_SIZE = 1024;
+    final static String DEFAULT_OUTPUT_FILE = "SimulationOutput.txt";
+    
+    final static String HEAP = "HEAP";              // Pages kept in int arrays on the heap.
+    final static String MAPPED = "MAPPED";          // Pages kept in a memory mapped swap file.
+    
+    private int numberOfPages;                      // Virtual pages in the file system.
+    private int numberOfFrames;                     // Physical frames in memory.
+    private int pageSize;                           // Addresses per page/frame.
+    private String replacementMethod;               // Policy name, see MMUHardware.
+    private int tlbSize;                            // TLB entries, 0 for no TLB.
+    private int tlbAssociativity;                   // TLB entries per set, 0 for fully.
+    private int tlbReplacement;                     // Either LRU or FIFO from TLB.
+    private int[] pageTrace;                        // Pages of every access, needed by OPT.
+    private String outputFile;                      // Where startSimulation writes, or null.
+    private boolean localReplacement;               // Each process replaces only its own pages.
+    private String backingStore;                    // Where the pages live, HEAP or MAPPED.
+    private int cleanerLowWater;                    // Clean frames the cleaner keeps, 0 for none.
+    private int cleanerHighWater;                   // Clean frames the cleaner stops at.
+    private int freeLowWater;                       // Free frames kept, 0 to evict on demand.
+    private int freeHighWater;                      // Free frames a reclaim pass stops at.
+    private int readAheadWindow;                    // Most pages read ahead, 0 for none.
+    private CostModel costModel;                    // What each step of an access costs.
+    private int faultLogLimit;                      // Faults the fault log keeps, 0 for none.
+    
+    
+    /**
+     * This will construct a configuration matching the original assignment, 16 pages,
+     * 4 frames and 1024 addresses per page using LRU replacement.
+     */
+    public MMUConfig() {
+        
+        this(DEFAULT_NUMBER_OF_PAGES, DEFAULT_NUMBER_OF_FRAMES, DEFAULT_PAGE_SIZE,
+                MMUHardware.LRU);
+                
+    } // end no argument MMUConfig constructor
+    
+    
+    /**
+     * This will construct a configuration with the specified geometry.
+     * 
+     * @param numPages - The number of virtual pages.
+     * 
+     * @param numFrames - The number of physical frames.
+     * 
+     * @param pageSize - The number of addresses per page.
+     * 
+     * @param method - The type of replacement policy to follow which can be found as static
+     * class variables such as LRU and FIFO in MMUHardware.
+     */
+    public MMUConfig(int numPages, int numFrames, int pageSize, String method) {
+        
+        this.numberOfPages = numPages;
+        this.numberOfFrames = numFrames;
+        this.pageSize = pageSize;
+        this.replacementMethod = method;
+        this.tlbSize = 0;
+        this.tlbAssociativity = 0;
+        this.tlbReplacement = TLB.LRU;
+        this.outputFile = DEFAULT_OUTPUT_FILE;
+        this.backingStore = HEAP;
+        this.costModel = CostModel.DEFAULT;
+        this.faultLogLimit = FaultLog.DEFAULT_LIMIT;
+        
+    } // end MMUConfig constructor
+    
+    
+    /**
+     * This will construct a copy of another configuration, so one can be tweaked without
+     * changing the other. The page trace is shared since it is never modified.
+     * 
+     * @param other - The configuration to copy.
+     */
+    public MMUConfig(MMUConfig other) {
+        
+        this(other.numberOfPages, other.numberOfFrames, other.pageSize,
+                other.replacementMethod);
+                
+        this.tlbSize = other.tlbSize;
+        this.tlbAssociativity = other.tlbAssociativity;
+        this.tlbReplacement = other.tlbReplacement;
+        this.pageTrace = other.pageTrace;
+        this.outputFile = other.outputFile;
+        this.localReplacement = other.localReplacement;
+        this.backingStore = other.backingStore;
+        this.cleanerLowWater = other.cleanerLowWater;
+        this.cleanerHighWater = other.cleanerHighWater;
+        this.freeLowWater = other.freeLowWater;
+        this.freeHighWater = other.freeHighWater;
+        this.readAheadWindow = other.readAheadWindow;
+        this.costModel = other.costModel;
+        this.faultLogLimit = other.faultLogLimit;
+        
+    } // end MMUConfig copy constructor
+    
+    
+    /**
+     * This will tell you if the geometry makes sense, every size must be positive, the
+     * whole virtual address space has to be addressable with an int and every frame
+     * number has to fit in a page table entry.
+     * 
+     * @return - A boolean true if the configuration can be used, false otherwise.
+     */
+    public boolean isValid() {
+        
+        return numberOfPages > 0 && numberOfFrames > 0 && pageSize > 0
+                && numberOfFrames <= PageTable.FRAME_MASK
+                && isKnownPolicy()
+                && (HEAP.equals(backingStore) || MAPPED.equals(backingStore))
+                && (long) numberOfPages * pageSize <= Integer.MAX_VALUE
+                && tlbSize >= 0 && tlbAssociativity >= 0
+                && cleanerLowWater >= 0 && cleanerHighWater >= 0
+                && freeLowWater >= 0 && freeHighWater >= 0 && readAheadWindow >= 0
+                && costModel != null && costModel.isValid() && faultLogLimit >= 0
+                && (tlbAssociativity == 0 || tlbSize % tlbAssociativity == 0);
+                
+    } // end isValid
+    
+    
+    /**
+     * This will tell you if the page size is a power of two, in which case addresses can
+     * be split with a shift and a mask instead of a divide and a modulo.
+     * 
+     * @return - A boolean true if the page size is a power of two, false otherwise.
+     */
+    public boolean isPageSizePowerOfTwo() {
+        
+        return pageSize > 0 && (pageSize & (pageSize - 1)) == 0;
+        
+    } // end isPageSizePowerOfTwo
+    
+    
+    /**
+     * @return - The number of virtual pages.
+     */
+    public int getNumberOfPages() {
+        
+        return numberOfPages;
+        
+    } // end getNumberOfPages
+    
+    
+    /**
+     * @param numPages - The number of virtual pages.
+     */
+    public void setNumberOfPages(int numPages) {
+        
+        numberOfPages = numPages;
+        
+    } // end setNumberOfPages
+    
+    
+    /**
+     * @return - The number of physical frames.
+     */
+    public int getNumberOfFrames() {
+        
+        return numberOfFrames;
+        
+    } // end getNumberOfFrames
+    
+    
+    /**
+     * @param numFrames - The number of physical frames.
+     */
+    public void setNumberOfFrames(int numFrames) {
+        
+        numberOfFrames = numFrames;
+        
+    } // end setNumberOfFrames
+    
+    
+    /**
+     * @return - The number of addresses per page.
+     */
+    public int getPageSize() {
+        
+        return pageSize;
+        
+    } // end getPageSize
+    
+    
+    /**
+     * @param newPageSize - The number of addresses per page.
+     */
+    public void setPageSize(int newPageSize) {
+        
+        pageSize = newPageSize;
+        
+    } // end setPageSize
+    
+    
+    /**
+     * @return - The replacement method, LRU, FIFO, CLOCK, CLOCKPRO or OPT from MMUHardware.
+     */
+    public String getReplacementMethod() {
+        
+        return replacementMethod;
+        
+    } // end getReplacementMethod
+    
+    
+    /**
+     * @param method - The replacement method, LRU, FIFO, CLOCK, CLOCKPRO or OPT from MMUHardware.
+     */
+    public void setReplacementMethod(String method) {
+        
+        replacementMethod = method;
+        
+    } // end setReplacementMethod
+    
+    
+    /**
+     * This is a private method telling whether createReplacementPolicy would build a
+     * policy, without building one, OPT in particular has to preprocess its whole trace.
+     * 
+     * @return - A boolean true if the method is known and can be used, false otherwise.
+     */
+    private boolean isKnownPolicy() {
+        
+        if(replacementMethod == null) {
+            
+            return false;
+            
+        }
+        
+        switch (replacementMethod.toUpperCase()) {
+            
+            // Only these three can be split between processes.
+            case MMUHardware.LRU:
+            case MMUHardware.FIFO:
+            case MMUHardware.CLOCK:     return true;
+            
+            case MMUHardware.CLOCK_PRO: return !localReplacement;
+            
+            case MMUHardware.OPT:       return !localReplacement && pageTrace != null;
+            
+            default:                    return false;
+            
+        } // end switch
+        
+    } // end isKnownPolicy
+    
+    
+    /**
+     * This will build a fresh replacement policy of the configured type, sized for the
+     * configured number of frames.
+     * 
+     * @return - The replacement policy, or null if the method isn't one we know.
+     */
+    public ReplacementPolicy createReplacementPolicy() {
+        
+        if(replacementMethod == null) {
+            
+            return null;
+            
+        }
+        
+        // Each process gets its own copy of the policy, which has to cope with only seeing
+        // some of the frames and some of the accesses.
+        if(localReplacement) {
+            
+            MMUConfig processConfig = new MMUConfig(this);
+            processConfig.setLocalReplacement(false);
+            
+            switch (replacementMethod.toUpperCase()) {
+                
+                case MMUHardware.LRU:
+                case MMUHardware.FIFO:
+                case MMUHardware.CLOCK:     return new PartitionedPolicy(processConfig);
+                
+                default:                    return null;
+                
+            } // end switch
+            
+        }
+        
+        switch (replacementMethod.toUpperCase()) {
+            
+            case MMUHardware.LRU:   return new LRUPolicy(numberOfFrames);
+            
+            case MMUHardware.FIFO:  return new FIFOPolicy(numberOfFrames);
+            
+            case MMUHardware.CLOCK: return new ClockPolicy(numberOfFrames);
+            
+            case MMUHardware.CLOCK_PRO: return new ClockProPolicy(numberOfFrames);
+            
+            case MMUHardware.OPT:   return pageTrace == null ? null
+                                            : new OptimalPolicy(pageTrace, numberOfFrames);
+                                            
+            default:                return null;
+            
+        } // end switch
+        
+    } // end createReplacementPolicy
+    
+    
+    /**
+     * This will build a fresh, empty, file system of the configured type holding every
+     * virtual page.
+     * 
+     * @return - The file system, or null if the swap file can't be created.
+     */
+    public FileSystem createFileSystem() {
+        
+        if(MAPPED.equals(backingStore)) {
+            
+            try {
+                
+                return new MappedFileSystem(null, numberOfPages, pageSize);
+                
+            } catch(IOException e) {
+                
+                System.out.println("Error creating swap file: " + e.getMessage());
+                return null;
+                
+            }
+            
+        }
+        
+        return new HeapFileSystem(numberOfPages, pageSize);
+        
+    } // end createFileSystem
+    
+    
+    /**
+     * @return - Where the pages live, HEAP or MAPPED.
+     */
+    public String getBackingStore() {
+        
+        return backingStore;
+        
+    } // end getBackingStore
+    
+    
+    /**
+     * @param store - Where the pages live, HEAP for int arrays on the heap or MAPPED for a
+     * temporary swap file mapped into memory, which lets the address space outgrow the heap.
+     */
+    public void setBackingStore(String store) {
+        
+        backingStore = store;
+        
+    } // end setBackingStore
+    
+    
+    /**
+     * @return - The number of clean frames below which the page cleaner writes dirty ones
+     * back, 0 if there is no cleaner.
+     */
+    public int getCleanerLowWater() {
+        
+        return cleanerLowWater;
+        
+    } // end getCleanerLowWater
+    
+    
+    /**
+     * @return - The number of clean frames the page cleaner stops at.
+     */
+    public int getCleanerHighWater() {
+        
+        return cleanerHighWater;
+        
+    } // end getCleanerHighWater
+    
+    
+    /**
+     * This turns on the background page cleaner, see PageCleaner.
+     * 
+     * @param lowWater - Clean frames below which dirty frames are written back ahead of
+     * time, 0 to write back only when a dirty page is replaced.
+     * 
+     * @param highWater - Clean frames the cleaner stops at, at least the low water mark.
+     */
+    public void setCleanerWaterMarks(int lowWater, int highWater) {
+        
+        cleanerLowWater = lowWater;
+        cleanerHighWater = highWater;
+        
+    } // end setCleanerWaterMarks
+    
+    
+    /**
+     * @return - The number of free frames below which pages are reclaimed ahead of demand,
+     * 0 if a page is only evicted by the fault that needs its frame.
+     */
+    public int getFreeFrameLowWater() {
+        
+        return freeLowWater;
+        
+    } // end getFreeFrameLowWater
+    
+    
+    /**
+     * @return - The number of free frames a reclaim pass stops at.
+     */
+    public int getFreeFrameHighWater() {
+        
+        return freeHighWater;
+        
+    } // end getFreeFrameHighWater
+    
+    
+    /**
+     * This turns on the free frame pool, see Memory.setFreeFrameWaterMarks.
+     * 
+     * @param lowWater - Free frames below which a batch of pages is reclaimed, 0 to evict
+     * on demand.
+     * 
+     * @param highWater - Free frames a reclaim pass stops at, at least the low water mark.
+     */
+    public void setFreeFrameWaterMarks(int lowWater, int highWater) {
+        
+        freeLowWater = lowWater;
+        freeHighWater = highWater;
+        
+    } // end setFreeFrameWaterMarks
+    
+    
+    /**
+     * @return - The most pages a fault stream may read ahead, 0 if nothing is prefetched.
+     */
+    public int getReadAheadWindow() {
+        
+        return readAheadWindow;
+        
+    } // end getReadAheadWindow
+    
+    
+    /**
+     * @param pages - The most pages a sequential or strided fault stream may read ahead,
+     * see ReadAhead, 0 to only ever read the page that faulted. It is capped at half the
+     * frames so read ahead can't push everything else out.
+     */
+    public void setReadAheadWindow(int pages) {
+        
+        readAheadWindow = pages;
+        
+    } // end setReadAheadWindow
+    
+    
+    /**
+     * @return - The costs simulated time is counted in.
+     */
+    public CostModel getCostModel() {
+        
+        return costModel;
+        
+    } // end getCostModel
+    
+    
+    /**
+     * @param model - The costs to count simulated time in, see CostModel.
+     */
+    public void setCostModel(CostModel model) {
+        
+        costModel = model;
+        
+    } // end setCostModel
+    
+    
+    /**
+     * @return - The most page faults the fault log keeps, 0 if it only counts them.
+     */
+    public int getFaultLogLimit() {
+        
+        return faultLogLimit;
+        
+    } // end getFaultLogLimit
+    
+    
+    /**
+     * @param limit - The most page faults to keep in the fault log, in order, 0 to keep
+     * none. Each takes 20 bytes, the default of FaultLog.DEFAULT_LIMIT tops out at 1.3 MB.
+     */
+    public void setFaultLogLimit(int limit) {
+        
+        faultLogLimit = limit;
+        
+    } // end setFaultLogLimit
+    
+    
+    /**
+     * @return - The page of every access the simulation will make, null if not known.
+     */
+    public int[] getPageTrace() {
+        
+        return pageTrace;
+        
+    } // end getPageTrace
+    
+    
+    /**
+     * @param trace - The page of every access the simulation will make, in order. Only OPT
+     * needs it, see MMUHardware.setPageTrace for recording one.
+     */
+    public void setPageTrace(int[] trace) {
+        
+        pageTrace = trace;
+        
+    } // end setPageTrace
+    
+    
+    /**
+     * @return - The number of TLB entries, 0 if there is no TLB.
+     */
+    public int getTLBSize() {
+        
+        return tlbSize;
+        
+    } // end getTLBSize
+    
+    
+    /**
+     * @param size - The number of TLB entries, 0 for no TLB.
+     */
+    public void setTLBSize(int size) {
+        
+        tlbSize = size;
+        
+    } // end setTLBSize
+    
+    
+    /**
+     * @return - The TLB entries per set, 0 if fully associative.
+     */
+    public int getTLBAssociativity() {
+        
+        return tlbAssociativity;
+        
+    } // end getTLBAssociativity
+    
+    
+    /**
+     * @param associativity - The TLB entries per set, 0 for fully associative. Must
+     * divide the TLB size evenly.
+     */
+    public void setTLBAssociativity(int associativity) {
+        
+        tlbAssociativity = associativity;
+        
+    } // end setTLBAssociativity
+    
+    
+    /**
+     * @return - The replacement used within a TLB set, LRU or FIFO from TLB.
+     */
+    public int getTLBReplacement() {
+        
+        return tlbReplacement;
+        
+    } // end getTLBReplacement
+    
+    
+    /**
+     * @param method - The replacement used within a TLB set, LRU or FIFO from TLB.
+     */
+    public void setTLBReplacement(int method) {
+        
+        tlbReplacement = method;
+        
+    } // end setTLBReplacement
+    
+    
+    /**
+     * @return - The file startSimulation writes every value to, null if it writes none.
+     */
+    public String getOutputFile() {
+        
+        return outputFile;
+        
+    } // end getOutputFile
+    
+    
+    /**
+     * @param fileName - The file startSimulation writes every value to, null for none.
+     * MMUs running side by side need a file each or none at all.
+     */
+    public void setOutputFile(String fileName) {
+        
+        outputFile = fileName;
+        
+    } // end setOutputFile
+    
+    
+    /**
+     * @return - A boolean true if each process replaces only its own pages, false if a
+     * fault can replace any process's page.
+     */
+    public boolean isLocalReplacement() {
+        
+        return localReplacement;
+        
+    } // end isLocalReplacement
+    
+    
+    /**
+     * @param local - True for each process to replace only its own pages within an equal
+     * share of memory, which works with LRU, FIFO and CLOCK. False for global replacement.
+     */
+    public void setLocalReplacement(boolean local) {
+        
+        localReplacement = local;
+        
+    } // end setLocalReplacement
+    
+    
+    /**
+     * This method returns a String representation of the configuration.
+     */
+    @Override
+    public String toString() {
+        
+        return numberOfPages + " pages, " + numberOfFrames + " frames, " + pageSize
+                + " addresses per page, " + backingStore + " backing store, "
+                + (localReplacement ? "local " : "")
+                + replacementMethod + " replacement, " + tlbSize
+                + " TLB entries";
+                
+    } // end toString
+    
+} // end MMUConfig
\ No newline at end of file
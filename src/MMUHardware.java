@@ -1,314 +1,1127 @@
-/**
- * Class: ICS 462 - Operating Systems <br>
- * Instructor: Michael Dorin <br>
- * Description: Program 3, Simulating Memory Management. <br>
- * Due: 04/12/2016 <br><br>
- * 
- * This particular class represents the MMU hardware and implements the interface as 
- * specified in the project write up. The beginning of trying to find the best way to 
- * "simulate" hardware as a bunch of software classes. I admit this is probably trying 
- * to do too much with one class but can improve upon it if time permits. 
- * 
- * @author Tom Carney
- * @version 1.0
- * @since 04/01/2016
- */
-
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-
-public class MMUHardware implements MMU {
-
-    final static int LRU = 0;                       // For Least Recently Used
-    final static int FIFO = 1;                      // For First In First Out
-    final int NUMBER_OF_PAGES = 16;
-    final int NUMBER_OF_FRAMES = 4;
-    final int PAGE_SIZE = 1024;
-    
-    private PageTable pageTable;                    // Tells which pages are in which frames.
-    private FileSystem fileSystem;                  // Represents our virtual pages.
-    private String referenceString;                 // The pages that caused a fault, in order.
-    private Memory memory;                          // Represents our physical frames. 
-    private int numPageFaults;                      // Number of times a page is not in memory.
-    private int replacementMethod;                  // Either LRU or FIFO, must Choose one.
-    private PrintWriter pWriter;                    // Used to output the contents of everything.
-    
-    
-    /**
-     * This will construct a new MMU along with the other bits of hardware needed.
-     * 
-     * @param method - The type of replacement policy to follow which can be found as static 
-     * class variables LRU and FIFO.
-     */
-    public MMUHardware(int method) {
-        
-        // These are the items most likely part of the MMU itself.
-        numPageFaults = 0;
-        referenceString = "Order of page faults: ";
-        pageTable = new PageTable(NUMBER_OF_PAGES);
-        replacementMethod = method;
-        
-        // These are the items outside the MMU but it works with and accesses.
-        memory = new Memory(NUMBER_OF_FRAMES, PAGE_SIZE);
-        fileSystem = new FileSystem(NUMBER_OF_PAGES, PAGE_SIZE);
-        
-        // This way memory can work together with MMU which primarily just gives orders.
-        memory.setFileSystem(fileSystem);
-        memory.setPageTable(pageTable);
-        
-        // This will be so we can visually see each location has the correct value.
-        setupWriter();
-        
-    } // end MMUHardware constructor
-    
-    
-    /**
-     * This method will create a new file in which to write line sums to.
-     * 
-     * @return A boolean true if creation goes smoothly, false otherwise.
-     */
-    private Boolean setupWriter() {
-        
-        try {
-            
-            pWriter = new PrintWriter(new FileWriter("SimulationOutput.txt"));
-            return true;
-        
-        } catch(IOException e) {
-            
-            System.out.println("Error creating print writer.");
-            
-        }
-        
-        return false;
-        
-    } // end setupWriter
-    
-    
-    /**
-     * This method will write a particular value to an address in the virtual file system.
-     * 
-     * @param address - The address to write to.
-     * 
-     * @param value - The value to be written.
-     * 
-     * @return - A boolean true if value was written correctly, false otherwise.
-     */
-    @Override
-    public boolean writeMemory(int address, int value) {
-        
-        // Get the page number and offset location to write the value.
-        int newPage = address / 1024;
-        int offset = address % 1024;
-        
-        // If the page isn't in memory we need to bring it into memory.
-        checkForPageOrSwap(newPage);
-        
-        // now that we know the page is in a frame, we need to know which.
-        int frameNumber = pageTable.getFrameNumber(newPage);
-        
-        // Once we have a valid frame, let's write it all.
-        return memory.writeToFrame(frameNumber, offset, value);
-        
-    } // end writeMemory
-    
-
-    /**
-     * This method will read a value from an address in the virtual file system.
-     * 
-     * @param address - The address to read from.
-     * 
-     * @return - The value at that address.
-     */
-    @Override
-    public int readMemory(int address) {
-        
-        // Get the page number and offset location to write the value.
-        int newPage = address / 1024;
-        int offset = address % 1024;
-        
-        // If the page isn't in memory we need to bring it into memory.
-        checkForPageOrSwap(newPage);
-
-        // now that we know the page is in a frame, we need to know which.
-        int frameNumber = pageTable.getFrameNumber(newPage);
-        
-        // Once we have a valid frame, let's write it all.
-        return memory.readFromFrame(frameNumber, offset);
-        
-    }
-    
-    
-    /**
-     * This method will make sure the specified page is placed in memory if not
-     * already there.
-     * 
-     * @param newPage - The page that needs to be in memory.
-     */
-    private void checkForPageOrSwap(int newPage) {
-        
-        // If the page isn't in memory we need to bring it into memory.
-        if(!pageTable.isValid(newPage)) {
-            
-            switch (replacementMethod) {
-            
-                case LRU:   swapViaLRU(newPage);
-                            break;
-                        
-                case FIFO:  swapViaFIFO(newPage);
-                            break;
-                        
-                default:    System.out.println("Invalid replacement method specified!");
-                            System.exit(-1); // CRASH!
-            
-            } // end switch
-            
-            // Since we had to swap, update fault and reference string.
-            numPageFaults++;
-            referenceString += newPage + ", ";
-            
-        }
-        
-    } // end checkForPageOrSwap
-    
-    
-    /**
-     * If the page is not in memory, this method is used to get it there when
-     * LRU is selected.
-     * 
-     * @param newPage - The page that needs to be in memory.
-     */
-    private void swapViaLRU(int newPage) {
-        
-        // Find out which frame to swap out.
-        int LRUFrame = memory.getLRUFrame();
-        int victimPage = pageTable.getPageNumber(LRUFrame);
-        
-        // if victimPage is -1 then the frame is free.
-        if(victimPage == -1) {
-            
-            // Since the original unused frames are not dirty, they won't be "swapped" back or overwrite anything.
-            memory.swapFrameLRU(newPage, LRUFrame);
-            
-        } else {
-            
-            // Otherwise we now know new page and old so swap out.
-            memory.swapFrameLRU(newPage, victimPage);
-            
-        }
-        
-    } // end swapViaLRU
-    
-    
-    /**
-     * If the page is not in memory, this method is used to get it there when
-     * FIFO is selected.
-     * 
-     * @param newPage - The page that needs to be in memory.
-     */
-    private void swapViaFIFO(int newPage) {
-        
-        // Find out which frame to swap out.
-        int FIFOFrame = memory.getFIFOFrame();
-        int victimPage = pageTable.getPageNumber(FIFOFrame);
-        
-        // if victimPage is -1 then the frame is free.
-        if(victimPage == -1) {
-            
-            // Since the original unused frames are not dirty, they won't be "swapped" back or overwrite anything.
-            memory.swapFrameFIFO(newPage, FIFOFrame);
-            
-        } else {
-            
-            // Otherwise we now know new page and old so swap out.
-            memory.swapFrameFIFO(newPage, victimPage);
-            
-        }
-        
-    } // end swapViaFIFO
-
-    
-    /**
-     * This method basically just puts the simulated hardware through its' paces. Reading 
-     * and Writing to each location, keeping tabs on page faults and their order.
-     */
-    @Override
-    public void startSimulation() {
-
-        // Taking the methodology from the UnitTest example, no user input, just
-        // auto generate values seems to be a good way to test. 
-        
-        System.out.print("Simulation running!");
-        
-        // Fill each virtual memory location with it's own address.
-        for (int i = 0 ; i < 16384 ; i++) {
-            
-            writeMemory(i, i);
-            
-        }
-        
-        // Read to make sure each location holds it's own address.
-        for (int i = 0 ; i < 16384 ; i++) {
-            
-            if (readMemory(i) != i) {
-                
-                // A warning will appear if not as expected.
-                System.out.println("Address contains the wrong value!\n");
-                System.exit(-1); // CRASH!
-                
-            } else {
-                
-                // If correct, add values to an output file to view later.
-                pWriter.println("Value at address " + i + ": " + readMemory(i));
-                
-            }
-            
-        }
-        
-        pWriter.close();
-        System.out.println("\n");
-        
-    } // end startSimulation
-
-    
-    /**
-     * This method will print out a general overview of system performance.
-     */
-    @Override
-    public void stopSimulation() {
-
-        System.out.println("Simulation ended!");
-        System.out.println("Number of page faults: " + numPageFaults);
-        System.out.println(referenceString);
-        
-    } // end stopSimulation
-    
-
-    /**
-     * This will return the reference string which lists the page faults in the order
-     * in which they happened.
-     * 
-     * @return - A string listing off each page that caused a fault and in what order.
-     */
-    @Override
-    public String getReferenceString() {
-        
-        return referenceString;
-        
-    } // end getReferenceString
-
-    
-    /**
-     * This will return the total number of page faults.
-     * 
-     * @return - The total number of page faults.
-     */
-    @Override
-    public int getTotalPageFaults() {
-        
-        return numPageFaults;
-        
-    } // end getTotalPageFaults
-    
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents the MMU hardware and implements the interface as 
+ * specified in the project write up. The beginning of trying to find the best way to 
+ * "simulate" hardware as a bunch of software classes. I admit this is probably trying 
+ * to do too much with one class but can improve upon it if time permits. 
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+public class MMUHardware implements MMU {
+
+    final static String LRU = "LRU";                // For Least Recently Used
+    final static String FIFO = "FIFO";              // For First In First Out
+    final static String CLOCK = "CLOCK";            // For second chance
+    final static String CLOCK_PRO = "CLOCKPRO";     // For CLOCK-Pro
+    final static String OPT = "OPT";                // For Belady's optimal, needs a page trace
+    final static String[] POLICIES = {LRU, FIFO, CLOCK, CLOCK_PRO, OPT};
+    final static int SUMMARY_PAGES = 32;            // Faulting pages stopSimulation lists.
+    
+    private final int numberOfPages;                // Virtual pages in the file system.
+    private final int numberOfFrames;               // Physical frames in memory.
+    private final int pageSize;                     // Addresses per page/frame.
+    private final int pageShift;                    // log2(pageSize), or -1 if not a power of 2.
+    private final int pageMask;                     // pageSize - 1 when pageShift is used.
+    
+    private PageTable pageTable;                    // Tells which pages are in which frames.
+    private FileSystem fileSystem;                  // Represents our virtual pages.
+    private ArrayList<SimProcess> processes;        // Every address space, indexed by ASID.
+    private SimProcess currentProcess;              // The one whose pages are being accessed.
+    private int pageBase;                           // ASID * pages, its first global page.
+    private int numContextSwitches;                 // Times the running process changed.
+    private PartitionedPolicy localPolicy;          // The policy, if replacement is local.
+    private MMUConfig config;                       // Builds each new process's file system.
+    private FaultLog faultLog;                      // The first page faults, in order.
+    private Memory memory;                          // Represents our physical frames. 
+    private int numPageFaults;                      // Number of times a page is not in memory.
+    private long numMinorFaults;                    // Faults that found the page in a frame.
+    private long numAccesses;                       // Number of reads and writes so far.
+    private long numReads;                          // Of those, the reads.
+    private long numProtectionFaults;               // Writes refused by page protection.
+    private String outputFile;                      // Where to output everything, may be null.
+    private TLB tlb;                                // Caches translations, null if disabled.
+    private PageTrace pageTrace;                    // Records every accessed page, may be null.
+    private PageCleaner cleaner;                    // Writes dirty frames back early, or null.
+    private LatencyHistogram faultLatency;          // Times each page fault, may be null.
+    private ReadAhead readAhead;                    // Picks pages to prefetch, or null.
+    private CostModel costModel;                    // What each step of an access costs.
+    private long translationTime;                   // Simulated ns in the TLB and page table.
+    private long memoryTime;                        // Simulated ns reading and writing frames.
+    private long pageInTime;                        // Simulated ns faults spent reading in.
+    private long writeBackTime;                     // Simulated ns faults spent writing back.
+    private long readAheadTime;                     // Simulated ns of read ahead I/O.
+    
+    
+    /**
+     * This will construct a new MMU along with the other bits of hardware needed, sized
+     * like the original assignment.
+     * 
+     * @param method - The type of replacement policy to follow which can be found as static 
+     * class variables such as LRU and FIFO.
+     */
+    public MMUHardware(String method) {
+        
+        this(new MMUConfig(MMUConfig.DEFAULT_NUMBER_OF_PAGES, MMUConfig.DEFAULT_NUMBER_OF_FRAMES,
+                MMUConfig.DEFAULT_PAGE_SIZE, method));
+                
+    } // end MMUHardware constructor
+    
+    
+    /**
+     * This will construct a new MMU along with the other bits of hardware needed.
+     * 
+     * @param config - The geometry and replacement policy to use.
+     */
+    public MMUHardware(MMUConfig config) {
+        
+        ReplacementPolicy policy = config.createReplacementPolicy();
+        
+        if(policy == null) {
+            
+            throw new IllegalArgumentException("Invalid replacement method specified: "
+                    + config.getReplacementMethod());
+                    
+        }
+        
+        this.config = new MMUConfig(config);
+        numberOfPages = config.getNumberOfPages();
+        numberOfFrames = config.getNumberOfFrames();
+        pageSize = config.getPageSize();
+        
+        // A power of two page size lets addresses be split with a shift and mask.
+        if(config.isPageSizePowerOfTwo()) {
+            
+            pageShift = Integer.numberOfTrailingZeros(pageSize);
+            pageMask = pageSize - 1;
+            
+        } else {
+            
+            pageShift = -1;
+            pageMask = 0;
+            
+        }
+        
+        // These are the items most likely part of the MMU itself.
+        numPageFaults = 0;
+        numAccesses = 0;
+        faultLog = new FaultLog(config.getFaultLogLimit());
+        costModel = config.getCostModel();
+        
+        if(config.getTLBSize() > 0) {
+            
+            tlb = new TLB(config.getTLBSize(), config.getTLBAssociativity(),
+                    config.getTLBReplacement());
+                    
+        }
+        
+        // These are the items outside the MMU but it works with and accesses.
+        memory = new Memory(numberOfFrames, pageSize);
+        memory.setReplacementPolicy(policy);
+        memory.setFreeFrameWaterMarks(config.getFreeFrameLowWater(),
+                config.getFreeFrameHighWater());
+        
+        if(config.isLocalReplacement()) {
+            
+            localPolicy = (PartitionedPolicy) policy;
+            
+        }
+        
+        // Every MMU starts with one process, which is all the original simulation uses.
+        processes = new ArrayList<SimProcess>();
+        
+        if(createProcess() < 0) {
+            
+            throw new IllegalArgumentException("Could not create the "
+                    + config.getBackingStore() + " backing store");
+                    
+        }
+        
+        contextSwitch(0);
+        numContextSwitches = 0;
+        
+        if(config.getReadAheadWindow() > 0 && numberOfFrames >= 2) {
+            
+            readAhead = new ReadAhead(Math.min(config.getReadAheadWindow(),
+                    numberOfFrames / 2));
+                    
+        }
+        
+        if(config.getCleanerLowWater() > 0) {
+            
+            cleaner = new PageCleaner(memory, config.getCleanerLowWater(),
+                    config.getCleanerHighWater());
+            cleaner.start();
+            
+        }
+        
+        // This will be so we can visually see each location has the correct value.
+        outputFile = config.getOutputFile();
+        
+    } // end MMUHardware constructor
+    
+    
+    /**
+     * This method will create a new file in which to write line sums to. It is only opened
+     * once the simulation starts, so an MMU that never runs it holds no file.
+     * 
+     * @return The writer, or null if there is no output file or it couldn't be created.
+     */
+    private PrintWriter setupWriter() {
+        
+        if(outputFile == null) {
+            
+            return null;
+            
+        }
+        
+        try {
+            
+            return new PrintWriter(new FileWriter(outputFile));
+        
+        } catch(IOException e) {
+            
+            System.out.println("Error creating print writer.");
+            
+        }
+        
+        return null;
+        
+    } // end setupWriter
+    
+    
+    /**
+     * This method creates a new process with its own, empty, address space sharing the same
+     * physical memory as every other process.
+     * 
+     * @return - The new process's address space ID, or -1 if there can be no more.
+     */
+    public int createProcess() {
+        
+        int asid = processes.size();
+        
+        // Every page of every process needs its own global page number.
+        if((long) (asid + 1) * numberOfPages > Integer.MAX_VALUE) {
+            
+            System.out.println("No room for another " + numberOfPages + " page process.");
+            return -1;
+            
+        }
+        
+        // Local replacement splits the frames evenly, each process needs at least one.
+        if(localPolicy != null && asid >= numberOfFrames) {
+            
+            System.out.println("No frame left for another process under local replacement.");
+            return -1;
+            
+        }
+        
+        FileSystem processFileSystem = config.createFileSystem();
+        
+        if(processFileSystem == null) {
+            
+            return -1;
+            
+        }
+        
+        SimProcess process = new SimProcess(asid, numberOfPages, numberOfFrames,
+                processFileSystem);
+                
+        if(tlb != null) {
+            
+            process.getPageTable().setTLB(tlb, asid);
+            
+        }
+        
+        if(localPolicy != null) {
+            
+            localPolicy.addProcess(asid);
+            
+        }
+        
+        processes.add(process);
+        
+        return asid;
+        
+    } // end createProcess
+    
+    
+    /**
+     * This method switches to running another process, every read and write after this
+     * goes to its address space. The TLB tags each entry with its process, so nothing has
+     * to be flushed.
+     * 
+     * @param asid - The address space ID of the process to run.
+     * 
+     * @return - A boolean true if switched, false if there is no such process.
+     */
+    public boolean contextSwitch(int asid) {
+        
+        if(asid < 0 || asid >= processes.size()) {
+            
+            System.out.println("No process with address space ID " + asid);
+            return false;
+            
+        }
+        
+        if(processes.get(asid) == currentProcess) {
+            
+            return true;
+            
+        }
+        
+        currentProcess = processes.get(asid);
+        pageTable = currentProcess.getPageTable();
+        fileSystem = currentProcess.getFileSystem();
+        pageBase = asid * numberOfPages;
+        
+        memory.setAddressSpace(pageTable, fileSystem, pageBase);
+        
+        if(localPolicy != null) {
+            
+            localPolicy.setCurrentProcess(asid);
+            
+        }
+        
+        numContextSwitches++;
+        
+        return true;
+        
+    } // end contextSwitch
+    
+    
+    /**
+     * This method will write a particular value to an address in the virtual file system.
+     * 
+     * @param address - The address to write to.
+     * 
+     * @param value - The value to be written.
+     * 
+     * @return - A boolean true if value was written correctly, false otherwise.
+     */
+    @Override
+    public boolean writeMemory(int address, int value) {
+        
+        // Get the page number and offset location to write the value.
+        int newPage;
+        int offset;
+        
+        if(pageShift >= 0) {
+            
+            newPage = address >>> pageShift;
+            offset = address & pageMask;
+            
+        } else {
+            
+            newPage = address / pageSize;
+            offset = address % pageSize;
+            
+        }
+        
+        // Find the frame, bringing the page into memory if needed.
+        int frameNumber = translate(newPage, PageTable.WRITE);
+        
+        // A page without write access is never touched, not even brought in.
+        if(frameNumber < 0) {
+            
+            numProtectionFaults++;
+            return false;
+            
+        }
+        
+        memoryTime += costModel.getMemoryAccess();
+        
+        // Once we have a valid frame, let's write it all.
+        return memory.writeToFrame(frameNumber, offset, value);
+        
+    } // end writeMemory
+    
+
+    /**
+     * This method sets what the running process may do with one of its pages. A write to
+     * a page without PageTable.WRITE is refused and counted as a protection fault.
+     * 
+     * @param page - The page, of the running process.
+     * 
+     * @param protection - Some combination of PageTable.READ and PageTable.WRITE.
+     * 
+     * @return - A boolean true if set, false if there is no such page.
+     */
+    public boolean setProtection(int page, int protection) {
+        
+        if(page < 0 || page >= numberOfPages) {
+            
+            System.out.println("There is no page " + page + " to protect.");
+            return false;
+            
+        }
+        
+        pageTable.setProtection(page, protection);
+        return true;
+        
+    } // end setProtection
+    
+    
+    /**
+     * This method will read a value from an address in the virtual file system.
+     * 
+     * @param address - The address to read from.
+     * 
+     * @return - The value at that address.
+     */
+    @Override
+    public int readMemory(int address) {
+        
+        // Get the page number and offset location to write the value.
+        int newPage;
+        int offset;
+        
+        if(pageShift >= 0) {
+            
+            newPage = address >>> pageShift;
+            offset = address & pageMask;
+            
+        } else {
+            
+            newPage = address / pageSize;
+            offset = address % pageSize;
+            
+        }
+        
+        // Find the frame, bringing the page into memory if needed.
+        int frameNumber = translate(newPage, 0);
+        memoryTime += costModel.getMemoryAccess();
+        numReads++;
+        
+        // Once we have a valid frame, let's write it all.
+        return memory.readFromFrame(frameNumber, offset);
+        
+    }
+    
+    
+    /**
+     * This method finds the frame a page resides in, first from the TLB, then from the
+     * page table, and finally by bringing the page into memory. The page's protection
+     * comes along with the frame from either, an access it doesn't allow goes no further
+     * and isn't counted.
+     * 
+     * @param newPage - The page that needs to be in memory.
+     * 
+     * @param access - The PageTable protection bits the access needs, 0 for none.
+     * 
+     * @return - The frame the page now resides in, -1 if the access isn't allowed.
+     */
+    private int translate(int newPage, int access) {
+        
+        int frameNumber = -1;
+        
+        if(tlb != null) {
+            
+            translationTime += costModel.getTLBHit();
+            int entry = tlb.lookup(currentProcess.getASID(), newPage);
+            
+            if(entry >= 0) {
+                
+                if(((entry >>> PageTable.PROTECTION_SHIFT) & access) != access) {
+                    
+                    return -1;
+                    
+                }
+                
+                frameNumber = entry & PageTable.FRAME_MASK;
+                
+            }
+            
+        }
+        
+        // Only a TLB miss needs the page table for the protection.
+        if(frameNumber < 0 && (pageTable.getProtection(newPage) & access) != access) {
+            
+            return -1;
+            
+        }
+        
+        numAccesses++;
+        currentProcess.countAccess();
+        
+        // Recorded as global page numbers, the way the replacement policy sees them.
+        if(pageTrace != null) {
+            
+            pageTrace.add(pageBase + newPage);
+            
+        }
+        
+        if(frameNumber >= 0) {
+            
+            return frameNumber;
+            
+        }
+        
+        // One page table lookup answers both whether it is valid and where.
+        frameNumber = pageTable.getFrameNumber(newPage);
+        translationTime += costModel.getMemoryAccess();
+        
+        if(frameNumber < 0) {
+            
+            checkForPageOrSwap(newPage);
+            frameNumber = pageTable.getFrameNumber(newPage);
+            
+            // The access is restarted once the fault is serviced and looks the page up again.
+            translationTime += costModel.getMemoryAccess();
+            
+        }
+        
+        if(tlb != null) {
+            
+            tlb.insert(currentProcess.getASID(), newPage, frameNumber,
+                    pageTable.getProtection(newPage));
+            
+        }
+        
+        return frameNumber;
+        
+    } // end translate
+    
+    
+    /**
+     * This method will make sure the specified page is placed in memory if not
+     * already there.
+     * 
+     * @param newPage - The page that needs to be in memory.
+     */
+    private void checkForPageOrSwap(int newPage) {
+        
+        // If the page isn't in memory we need to bring it into memory.
+        if(!pageTable.isValid(newPage)) {
+            
+            // Read the clock only for faults the histogram samples.
+            boolean timed = faultLatency != null && faultLatency.isSampleDue();
+            long start = timed ? System.nanoTime() : 0;
+            long reclaimWriteBacks = memory.getReclaimWriteBacks();
+            
+            if(readAhead != null) {
+                
+                prefetchAfter(newPage);
+                
+            }
+            
+            // A page read ahead or freed but not yet reused only has to be mapped.
+            if(memory.mapPrefetchedPage(newPage) != -1
+                    || memory.rescueFreedPage(newPage) != -1) {
+                
+                numMinorFaults++;
+                chargeWriteBacks(memory.getReclaimWriteBacks() - reclaimWriteBacks);
+                
+                if(timed) {
+                    
+                    faultLatency.record(System.nanoTime() - start);
+                    
+                }
+                
+                return;
+                
+            }
+            
+            // Memory asks the replacement policy for a victim once no frame is unused.
+            int victimFrame = memory.selectVictimFrame();
+            int victimPage = memory.getPageInFrame(victimFrame);
+            
+            // The cleaner may get to the victim first, so only the swap knows for sure.
+            boolean dirty = memory.swapFrame(newPage, victimFrame);
+            pageInTime += costModel.getPageIn();
+            chargeWriteBacks(memory.getReclaimWriteBacks() - reclaimWriteBacks
+                    + (dirty ? 1 : 0));
+            
+            if(timed) {
+                
+                faultLatency.record(System.nanoTime() - start);
+                
+            }
+            
+            // Having to write back ourselves means the cleaner has fallen behind.
+            if(dirty && cleaner != null) {
+                
+                cleaner.wakeUp();
+                
+            }
+            
+            // Since we had to swap, update fault count and log.
+            numPageFaults++;
+            currentProcess.countPageFault();
+            faultLog.add(newPage, victimPage, victimFrame, dirty, numAccesses - 1);
+            
+        }
+        
+    } // end checkForPageOrSwap
+    
+    
+    /**
+     * This is a private method charging a fault for the pages it had to write back, its
+     * own victim and any written back by the reclaim pass it set off.
+     * 
+     * @param writeBacks - The number of dirty pages written back.
+     */
+    private void chargeWriteBacks(long writeBacks) {
+        
+        writeBackTime += writeBacks * costModel.getWriteBack();
+        
+    } // end chargeWriteBacks
+    
+    
+    /**
+     * This method reads in whatever pages read ahead expects to follow a fault. It runs
+     * before the faulting page is loaded, so nothing it reads can push that page back out.
+     * 
+     * @param newPage - The page that faulted.
+     */
+    private void prefetchAfter(int newPage) {
+        
+        int count = readAhead.pageFaulted(pageBase + newPage,
+                memory.isPagePrefetched(newPage), memory.getPrefetchesWasted());
+        long writeBacks = memory.getPrefetchWriteBacks();
+        
+        for(int i = 0 ; i < count ; i++) {
+            
+            int page = readAhead.getPage(i) - pageBase;
+            
+            // Streams run off the end of the address space, or back around to this page.
+            if(page >= 0 && page < numberOfPages && page != newPage) {
+                
+                if(memory.prefetchPage(page)) {
+                    
+                    readAheadTime += costModel.getPageIn();
+                    
+                }
+                
+            }
+            
+        }
+        
+        // Any dirty page a prefetch replaced had to be written back first.
+        readAheadTime += (memory.getPrefetchWriteBacks() - writeBacks)
+                * costModel.getWriteBack();
+                
+    } // end prefetchAfter
+    
+    
+    /**
+     * This will have the MMU record the page of every access it makes from now on, which
+     * is how the trace OPT needs is found. Run the same accesses once with any policy while
+     * recording, then hand the trace to MMUConfig.setPageTrace.
+     * 
+     * @param trace - Where to record the pages, null to stop recording.
+     */
+    public void setPageTrace(PageTrace trace) {
+        
+        pageTrace = trace;
+        
+    } // end setPageTrace
+    
+    
+    /**
+     * This will have the MMU time how long page faults take to service from now on, from
+     * picking the victim to the new page being in place. A sampling histogram only gets
+     * the faults it samples.
+     * 
+     * @param histogram - Where to record the times, null to stop timing.
+     */
+    public void setFaultLatencyHistogram(LatencyHistogram histogram) {
+        
+        faultLatency = histogram;
+        
+    } // end setFaultLatencyHistogram
+    
+    
+    /**
+     * This will have memory time the pages it reads in and writes back from now on,
+     * whether for a fault, read ahead, a reclaim pass or the cleaner. Sampling histograms
+     * only get the reads and writes they sample.
+     * 
+     * @param pageIn - Where to record read times, null to stop timing them.
+     * 
+     * @param writeBack - Where to record write back times, null to stop timing them.
+     */
+    public void setPageIOLatencyHistograms(LatencyHistogram pageIn,
+            LatencyHistogram writeBack) {
+            
+        memory.setLatencyHistograms(pageIn, writeBack);
+        
+    } // end setPageIOLatencyHistograms
+    
+    
+    /**
+     * @return - The page cleaner, or null if the MMU doesn't have one.
+     */
+    public PageCleaner getPageCleaner() {
+        
+        return cleaner;
+        
+    } // end getPageCleaner
+    
+    
+    /**
+     * This stops the page cleaner, if there is one. Dirty frames are then only written
+     * back when replaced, as without a cleaner.
+     */
+    public void stopCleaner() {
+        
+        if(cleaner != null) {
+            
+            cleaner.stop();
+            
+        }
+        
+    } // end stopCleaner
+    
+    
+    /**
+     * This method basically just puts the simulated hardware through its' paces. Reading 
+     * and Writing to each location, keeping tabs on page faults and their order.
+     */
+    @Override
+    public void startSimulation() {
+
+        // Taking the methodology from the UnitTest example, no user input, just
+        // auto generate values seems to be a good way to test. 
+        
+        System.out.print("Simulation running!");
+        
+        int numAddresses = numberOfPages * pageSize;
+        PrintWriter pWriter = setupWriter();
+        
+        // Fill each virtual memory location with it's own address.
+        for (int i = 0 ; i < numAddresses ; i++) {
+            
+            writeMemory(i, i);
+            
+        }
+        
+        // Read to make sure each location holds it's own address.
+        for (int i = 0 ; i < numAddresses ; i++) {
+            
+            if (readMemory(i) != i) {
+                
+                // A warning will appear if not as expected.
+                System.out.println("Address contains the wrong value!\n");
+                System.exit(-1); // CRASH!
+                
+            } else if(pWriter != null) {
+                
+                // If correct, add values to an output file to view later.
+                pWriter.println("Value at address " + i + ": " + readMemory(i));
+                
+            }
+            
+        }
+        
+        if(pWriter != null) {
+            
+            pWriter.close();
+            
+        }
+        
+        System.out.println("\n");
+        
+    } // end startSimulation
+
+    
+    /**
+     * This method will print out a general overview of system performance.
+     */
+    @Override
+    public void stopSimulation() {
+
+        System.out.println("Simulation ended!");
+        System.out.println("Number of page faults: " + numPageFaults);
+        
+        if(numProtectionFaults > 0) {
+            
+            System.out.println("Writes refused by page protection: " + numProtectionFaults);
+            
+        }
+        
+        stopCleaner();
+        
+        if(cleaner != null) {
+            
+            System.out.println(cleaner + ", " + faultLog.getDirtyEvictions()
+                    + " written back by faults");
+                    
+        }
+        
+        if(config.getFreeFrameLowWater() > 0) {
+            
+            System.out.println("Free frames reclaimed ahead of faults: "
+                    + memory.getFramesReclaimed() + ", pages rescued from the free list: "
+                    + memory.getPagesRescued());
+                    
+        }
+        
+        if(readAhead != null) {
+            
+            System.out.println("Read ahead: " + memory.getPrefetches() + " pages prefetched, "
+                    + memory.getPrefetchHits() + " used, " + memory.getPrefetchesWasted()
+                    + " wasted");
+                    
+        }
+        
+        System.out.println(String.format("Simulated time: %.3f ms, effective access time"
+                + " %.1f ns (%s)", getSimulatedTime() / 1e6, getEffectiveAccessTime(),
+                costModel));
+        System.out.println(String.format("  translation %.3f ms, memory %.3f ms, page ins"
+                + " %.3f ms, write backs %.3f ms", translationTime / 1e6, memoryTime / 1e6,
+                pageInTime / 1e6, writeBackTime / 1e6));
+                
+        // Read ahead and the cleaner keep the device busy, but no access waits for them.
+        if(readAhead != null || cleaner != null) {
+            
+            long cleaned = cleaner == null ? 0 : cleaner.getFramesCleaned();
+            
+            System.out.println(String.format("  off the access path: read ahead %.3f ms"
+                    + " (%d write backs), cleaner %.3f ms", readAheadTime / 1e6,
+                    memory.getPrefetchWriteBacks(), cleaned * costModel.getWriteBack() / 1e6));
+                    
+        }
+        
+        if(faultLatency != null) {
+            
+            System.out.println("Fault latency: " + faultLatency);
+            
+        }
+        
+        if(tlb != null) {
+            
+            System.out.println("TLB hits: " + getTLBHits() + ", TLB misses: " + getTLBMisses());
+            
+        }
+        
+        if(processes.size() > 1) {
+            
+            for(SimProcess process : processes) {
+                
+                System.out.println(process);
+                
+            }
+            
+            System.out.println("Context switches: " + numContextSwitches);
+            
+        }
+        
+        // The whole reference string of a long run would run to megabytes.
+        if(faultLog.getLimit() > 0) {
+            
+            System.out.println(faultLog.toSummary(SUMMARY_PAGES));
+            
+        }
+        
+    } // end stopSimulation
+    
+
+    /**
+     * This will return the reference string which lists the page faults in the order
+     * in which they happened, as many as the fault log keeps.
+     * 
+     * @return - A string listing off each page that caused a fault and in what order.
+     */
+    @Override
+    public String getReferenceString() {
+        
+        // Only formatted on demand, the log itself is kept as primitives.
+        return faultLog.toReferenceString();
+        
+    } // end getReferenceString
+
+    
+    /**
+     * This will return the total number of page faults.
+     * 
+     * @return - The total number of page faults.
+     */
+    @Override
+    public int getTotalPageFaults() {
+        
+        return numPageFaults;
+        
+    } // end getTotalPageFaults
+    
+    
+    /**
+     * This will return the number of faults on pages that were already in a frame, freed
+     * but not yet reused or read ahead, which are not counted as page faults since nothing
+     * is read in.
+     * 
+     * @return - The number of minor faults.
+     */
+    public long getMinorFaults() {
+        
+        return numMinorFaults;
+        
+    } // end getMinorFaults
+    
+    
+    /**
+     * @return - The number of writes refused because the page was not writable.
+     */
+    public long getProtectionFaults() {
+        
+        return numProtectionFaults;
+        
+    } // end getProtectionFaults
+    
+    
+    /**
+     * @return - The number of reads so far.
+     */
+    public long getReads() {
+        
+        return numReads;
+        
+    } // end getReads
+    
+    
+    /**
+     * @return - The number of writes so far.
+     */
+    public long getWrites() {
+        
+        // Every access is one or the other, so only reads need counting.
+        return numAccesses - numReads;
+        
+    } // end getWrites
+    
+    
+    /**
+     * This will return the number of accesses that found their page mapped, in the TLB
+     * or the page table, and didn't fault at all.
+     * 
+     * @return - The number of hits.
+     */
+    public long getHits() {
+        
+        return numAccesses - numPageFaults - numMinorFaults;
+        
+    } // end getHits
+    
+    
+    /**
+     * @return - The number of pages replaced or reclaimed that had to be written back.
+     */
+    public long getDirtyEvictions() {
+        
+        return memory.getDirtyEvictions();
+        
+    } // end getDirtyEvictions
+    
+    
+    /**
+     * @return - The number of pages replaced or reclaimed without a write back.
+     */
+    public long getCleanEvictions() {
+        
+        return memory.getCleanEvictions();
+        
+    } // end getCleanEvictions
+    
+    
+    /**
+     * @return - The number of pages read ahead that were used before being replaced.
+     */
+    public long getPrefetchHits() {
+        
+        return memory.getPrefetchHits();
+        
+    } // end getPrefetchHits
+    
+    
+    /**
+     * @return - The number of pages read ahead that were replaced without being used.
+     */
+    public long getPrefetchesWasted() {
+        
+        return memory.getPrefetchesWasted();
+        
+    } // end getPrefetchesWasted
+    
+    
+    /**
+     * This will return the time every access so far would have taken, under the cost
+     * model, from the TLB through to any page read in or written back on the way.
+     * 
+     * @return - The simulated time in nanoseconds.
+     */
+    public long getSimulatedTime() {
+        
+        return translationTime + memoryTime + pageInTime + writeBackTime;
+        
+    } // end getSimulatedTime
+    
+    
+    /**
+     * This will return the effective access time, the simulated time of the average access.
+     * 
+     * @return - The simulated nanoseconds per access, 0 before the first access.
+     */
+    public double getEffectiveAccessTime() {
+        
+        return numAccesses == 0 ? 0 : (double) getSimulatedTime() / numAccesses;
+        
+    } // end getEffectiveAccessTime
+    
+    
+    /**
+     * @return - The simulated nanoseconds spent in the TLB and page table.
+     */
+    public long getTranslationTime() {
+        
+        return translationTime;
+        
+    } // end getTranslationTime
+    
+    
+    /**
+     * @return - The simulated nanoseconds spent reading and writing the frames themselves.
+     */
+    public long getMemoryTime() {
+        
+        return memoryTime;
+        
+    } // end getMemoryTime
+    
+    
+    /**
+     * @return - The simulated nanoseconds faults spent reading pages in.
+     */
+    public long getPageInTime() {
+        
+        return pageInTime;
+        
+    } // end getPageInTime
+    
+    
+    /**
+     * @return - The simulated nanoseconds faults spent writing dirty pages back.
+     */
+    public long getWriteBackTime() {
+        
+        return writeBackTime;
+        
+    } // end getWriteBackTime
+    
+    
+    /**
+     * This will return the device time read ahead took, reading pages in and writing back
+     * the dirty pages they replaced. No access waits for it, so it is not part of the
+     * simulated time of the accesses.
+     * 
+     * @return - The simulated nanoseconds of read ahead I/O.
+     */
+    public long getReadAheadTime() {
+        
+        return readAheadTime;
+        
+    } // end getReadAheadTime
+    
+    
+    /**
+     * This will return the log of the first page faults, with the victim, frame and
+     * whether a write back was needed, see MMUConfig.setFaultLogLimit.
+     * 
+     * @return - The fault log.
+     */
+    public FaultLog getFaultLog() {
+        
+        return faultLog;
+        
+    } // end getFaultLog
+    
+    
+    /**
+     * This will return a process, for its fault and access counts.
+     * 
+     * @param asid - The address space ID of the process.
+     * 
+     * @return - The process.
+     */
+    public SimProcess getProcess(int asid) {
+        
+        return processes.get(asid);
+        
+    } // end getProcess
+    
+    
+    /**
+     * This will return how many virtual pages are really being stored, across every
+     * process. Pages never written take up no room.
+     * 
+     * @return - The number of pages written at least once.
+     */
+    public long getMaterializedPages() {
+        
+        long total = 0;
+        
+        for(SimProcess process : processes) {
+            
+            total += process.getFileSystem().getMaterializedPages();
+            
+        }
+        
+        return total;
+        
+    } // end getMaterializedPages
+    
+    
+    /**
+     * @return - The number of processes, at least 1.
+     */
+    public int getNumberOfProcesses() {
+        
+        return processes.size();
+        
+    } // end getNumberOfProcesses
+    
+    
+    /**
+     * @return - The number of times the running process changed.
+     */
+    public int getContextSwitches() {
+        
+        return numContextSwitches;
+        
+    } // end getContextSwitches
+    
+    
+    /**
+     * This will return the number of translations found in the TLB.
+     * 
+     * @return - The TLB hit count, 0 if there is no TLB.
+     */
+    public long getTLBHits() {
+        
+        return tlb == null ? 0 : tlb.getHits();
+        
+    } // end getTLBHits
+    
+    
+    /**
+     * This will return the number of translations that missed the TLB.
+     * 
+     * @return - The TLB miss count, 0 if there is no TLB.
+     */
+    public long getTLBMisses() {
+        
+        return tlb == null ? 0 : tlb.getMisses();
+        
+    } // end getTLBMisses
+    
 } // end MMUHardware
\ No newline at end of file
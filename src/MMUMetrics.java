@@ -0,0 +1,404 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the metrics surface of an MMU. The counters, reads, writes,
+ * hits, faults and clean and dirty evictions, are plain fields the MMU and memory bump
+ * as they go, so they cost next to nothing on the hit path. Attaching metrics adds three
+ * latency histograms, the wall clock time to service a fault, to read a page in and to
+ * write a page back. Reading the clock twice costs a good share of a fault, so each
+ * histogram times only one event in SAMPLE_INTERVAL. Recording never allocates and only
+ * happens on the fault path.
+ * 
+ * Everything is read from other threads without locking, over JMX once registered, by
+ * snapshot, or every so often by a daemon thread that keeps the latest snapshot and can
+ * print it. The simulation never waits for a reader, so a reading may be a few accesses
+ * behind the counters.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MMUMetrics implements MMUMetricsMBean, Runnable {
+    
+    final static String DEFAULT_NAME = "PageTableSimulation:type=MMUMetrics";
+    final static int SAMPLE_INTERVAL = 16;          // Events per one timed, per histogram.
+    
+    private final MMUHardware mmu;                  // Where the counters are kept.
+    private final LatencyHistogram faultService;    // Wall clock ns of sampled faults.
+    private final LatencyHistogram pageIn;          // Wall clock ns of sampled page ins.
+    private final LatencyHistogram writeBack;       // Wall clock ns of sampled write backs.
+    private ObjectName registeredName;              // Name under JMX, null if not registered.
+    private volatile MetricsSnapshot latest;        // Taken by the snapshot thread, or null.
+    private volatile boolean running;               // Cleared by stopSnapshots.
+    private long periodMillis;                      // Time between snapshots.
+    private PrintStream out;                        // Where to print them, may be null.
+    private Thread thread;                          // The snapshot daemon, or null.
+    
+    
+    /**
+     * This will construct the metrics of an MMU and start sampling the times of its faults,
+     * page ins and write backs. Nothing is exported until register or startSnapshots is called.
+     * 
+     * @param mmu - The MMU to watch, it should have only the one metrics at a time.
+     */
+    public MMUMetrics(MMUHardware mmu) {
+        
+        this.mmu = mmu;
+        
+        faultService = new LatencyHistogram(SAMPLE_INTERVAL);
+        pageIn = new LatencyHistogram(SAMPLE_INTERVAL);
+        writeBack = new LatencyHistogram(SAMPLE_INTERVAL);
+        
+        mmu.setFaultLatencyHistogram(faultService);
+        mmu.setPageIOLatencyHistograms(pageIn, writeBack);
+        
+    } // end MMUMetrics constructor
+    
+    
+    /**
+     * This stops timing the MMU and stops the snapshot thread and JMX export, the
+     * counters themselves carry on.
+     */
+    public void detach() {
+        
+        stopSnapshots();
+        unregister();
+        
+        mmu.setFaultLatencyHistogram(null);
+        mmu.setPageIOLatencyHistograms(null, null);
+        
+    } // end detach
+    
+    
+    /**
+     * This method copies the counters and histograms as they are right now.
+     * 
+     * @return - The snapshot.
+     */
+    public MetricsSnapshot snapshot() {
+        
+        return new MetricsSnapshot(mmu, faultService.copy(), pageIn.copy(), writeBack.copy());
+        
+    } // end snapshot
+    
+    
+    /**
+     * This method exports the metrics over JMX with the platform MBean server, under the
+     * default name.
+     * 
+     * @return - A boolean true if registered, false otherwise.
+     */
+    public boolean register() {
+        
+        return register(DEFAULT_NAME);
+        
+    } // end register
+    
+    
+    /**
+     * This method exports the metrics over JMX with the platform MBean server.
+     * 
+     * @param name - The object name to register under, one per MMU.
+     * 
+     * @return - A boolean true if registered, false otherwise.
+     */
+    public boolean register(String name) {
+        
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        
+        try {
+            
+            ObjectName objectName = new ObjectName(name);
+            
+            server.registerMBean(this, objectName);
+            registeredName = objectName;
+            
+            return true;
+            
+        } catch(JMException e) {
+            
+            System.out.println("Error registering metrics as " + name + ", "
+                    + e.getClass().getSimpleName());
+                    
+        }
+        
+        return false;
+        
+    } // end register
+    
+    
+    /**
+     * This method stops exporting the metrics over JMX, if they were.
+     */
+    public void unregister() {
+        
+        if(registeredName == null) {
+            
+            return;
+            
+        }
+        
+        try {
+            
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            
+        } catch(JMException e) {
+            
+            System.out.println("Error unregistering metrics: " + e.getMessage());
+            
+        }
+        
+        registeredName = null;
+        
+    } // end unregister
+    
+    
+    /**
+     * This starts a daemon thread taking a snapshot every so often, see getLatestSnapshot.
+     * 
+     * @param period - The milliseconds between snapshots, at least 1.
+     * 
+     * @param printTo - Where to print each snapshot, null to only keep the latest.
+     */
+    public void startSnapshots(long period, PrintStream printTo) {
+        
+        stopSnapshots();
+        
+        periodMillis = Math.max(period, 1);
+        out = printTo;
+        running = true;
+        
+        thread = new Thread(this, "MMUMetrics");
+        thread.setDaemon(true);
+        thread.start();
+        
+    } // end startSnapshots
+    
+    
+    /**
+     * This stops the snapshot thread, if there is one, and waits for it to finish.
+     */
+    public void stopSnapshots() {
+        
+        if(thread == null) {
+            
+            return;
+            
+        }
+        
+        running = false;
+        thread.interrupt();
+        
+        try {
+            
+            thread.join();
+            
+        } catch(InterruptedException e) {
+            
+            Thread.currentThread().interrupt();
+            
+        }
+        
+        thread = null;
+        
+    } // end stopSnapshots
+    
+    
+    /**
+     * The snapshot thread's loop, a nap and then a snapshot, printed along with the
+     * access rate since the one before if asked to.
+     */
+    @Override
+    public void run() {
+        
+        MetricsSnapshot previous = snapshot();
+        
+        while(running) {
+            
+            try {
+                
+                Thread.sleep(periodMillis);
+                
+            } catch(InterruptedException e) {
+                
+                return;
+                
+            }
+            
+            MetricsSnapshot current = snapshot();
+            latest = current;
+            
+            if(out != null) {
+                
+                out.println("Metrics: " + (long) current.getAccessesPerSecond(previous)
+                        + " accesses/s, " + current);
+                        
+            }
+            
+            previous = current;
+            
+        }
+        
+    } // end run
+    
+    
+    /**
+     * @return - The snapshot the snapshot thread took last, null if none yet.
+     */
+    public MetricsSnapshot getLatestSnapshot() {
+        
+        return latest;
+        
+    } // end getLatestSnapshot
+    
+    
+    /**
+     * @return - The histogram of wall clock fault service times, only for reading.
+     */
+    public LatencyHistogram getFaultServiceHistogram() {
+        
+        return faultService;
+        
+    } // end getFaultServiceHistogram
+    
+    
+    @Override
+    public long getReads() {
+        
+        return mmu.getReads();
+        
+    } // end getReads
+    
+    
+    @Override
+    public long getWrites() {
+        
+        return mmu.getWrites();
+        
+    } // end getWrites
+    
+    
+    @Override
+    public long getHits() {
+        
+        return mmu.getHits();
+        
+    } // end getHits
+    
+    
+    @Override
+    public double getHitRatio() {
+        
+        long accesses = mmu.getReads() + mmu.getWrites();
+        
+        return accesses == 0 ? 0 : (double) mmu.getHits() / accesses;
+        
+    } // end getHitRatio
+    
+    
+    @Override
+    public long getPageFaults() {
+        
+        return mmu.getTotalPageFaults();
+        
+    } // end getPageFaults
+    
+    
+    @Override
+    public long getMinorFaults() {
+        
+        return mmu.getMinorFaults();
+        
+    } // end getMinorFaults
+    
+    
+    @Override
+    public long getDirtyEvictions() {
+        
+        return mmu.getDirtyEvictions();
+        
+    } // end getDirtyEvictions
+    
+    
+    @Override
+    public long getCleanEvictions() {
+        
+        return mmu.getCleanEvictions();
+        
+    } // end getCleanEvictions
+    
+    
+    @Override
+    public double getFaultServiceMean() {
+        
+        return faultService.getMean();
+        
+    } // end getFaultServiceMean
+    
+    
+    @Override
+    public long getFaultServiceP50() {
+        
+        return faultService.getValueAtPercentile(50);
+        
+    } // end getFaultServiceP50
+    
+    
+    @Override
+    public long getFaultServiceP99() {
+        
+        return faultService.getValueAtPercentile(99);
+        
+    } // end getFaultServiceP99
+    
+    
+    @Override
+    public long getFaultServiceP999() {
+        
+        return faultService.getValueAtPercentile(99.9);
+        
+    } // end getFaultServiceP999
+    
+    
+    @Override
+    public long getFaultServiceMax() {
+        
+        return faultService.getMax();
+        
+    } // end getFaultServiceMax
+    
+    
+    @Override
+    public long getPageInP99() {
+        
+        return pageIn.getValueAtPercentile(99);
+        
+    } // end getPageInP99
+    
+    
+    @Override
+    public long getWriteBackP99() {
+        
+        return writeBack.getValueAtPercentile(99);
+        
+    } // end getWriteBackP99
+    
+    
+    @Override
+    public double getEffectiveAccessTime() {
+        
+        return mmu.getEffectiveAccessTime();
+        
+    } // end getEffectiveAccessTime
+    
+} // end MMUMetrics
\ No newline at end of file
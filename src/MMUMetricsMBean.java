@@ -0,0 +1,97 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This is the management interface MMUMetrics exports over JMX, every getter shows up
+ * as a read only attribute in jconsole or any other JMX client. Times are nanoseconds.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public interface MMUMetricsMBean {
+    
+    /**
+     * @return - The number of reads so far.
+     */
+    long getReads();
+    
+    /**
+     * @return - The number of writes so far.
+     */
+    long getWrites();
+    
+    /**
+     * @return - The number of accesses that didn't fault.
+     */
+    long getHits();
+    
+    /**
+     * @return - The fraction of accesses that didn't fault, from 0 to 1.
+     */
+    double getHitRatio();
+    
+    /**
+     * @return - The number of faults that had to read their page in.
+     */
+    long getPageFaults();
+    
+    /**
+     * @return - The number of faults that found their page already in a frame.
+     */
+    long getMinorFaults();
+    
+    /**
+     * @return - The number of pages replaced or reclaimed that had to be written back.
+     */
+    long getDirtyEvictions();
+    
+    /**
+     * @return - The number of pages replaced or reclaimed without a write back.
+     */
+    long getCleanEvictions();
+    
+    /**
+     * @return - The mean wall clock time to service a fault.
+     */
+    double getFaultServiceMean();
+    
+    /**
+     * @return - The median wall clock time to service a fault.
+     */
+    long getFaultServiceP50();
+    
+    /**
+     * @return - The 99th percentile wall clock time to service a fault.
+     */
+    long getFaultServiceP99();
+    
+    /**
+     * @return - The 99.9th percentile wall clock time to service a fault.
+     */
+    long getFaultServiceP999();
+    
+    /**
+     * @return - The longest wall clock time to service a fault.
+     */
+    long getFaultServiceMax();
+    
+    /**
+     * @return - The 99th percentile wall clock time to read a page in.
+     */
+    long getPageInP99();
+    
+    /**
+     * @return - The 99th percentile wall clock time to write a page back.
+     */
+    long getWriteBackP99();
+    
+    /**
+     * @return - The simulated time of the average access, see CostModel.
+     */
+    double getEffectiveAccessTime();
+    
+} // end MMUMetricsMBean Interface
\ No newline at end of file
@@ -0,0 +1,208 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents the file system where virtual pages are located as a
+ * swap file mapped into memory. The pages live outside the heap, in the operating
+ * system's page cache, so the address space can be far bigger than the heap and the
+ * garbage collector never has to look at it. A brand new swap file reads as all zeros,
+ * so pages never written are zero filled on the heap without touching the mapping, the
+ * operating system only ever backs pages that have been written.
+ * 
+ * Like the rest of the simulator it is not safe for more than one thread at a time.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class MappedFileSystem implements FileSystem {
+    
+    // A single mapping can't pass 2GB, so the file is mapped a whole number of pages at a time.
+    private final static long MAX_REGION_BYTES = 1L << 30;
+    
+    private IntBuffer[] regions;    // The mapped swap file, as ints.
+    private int pageSize;           // Ints per page.
+    private int pagesPerRegion;     // Pages in every region but maybe the last.
+    private BitSet written;         // Pages written at least once, the rest are zeros.
+    
+    
+    /**
+     * This will create a swap file big enough for every page and map it into memory.
+     * 
+     * @param fileName - The swap file, or null for a temporary one deleted on exit.
+     * 
+     * @param numPages - The number of virtual pages.
+     * 
+     * @param pageSize - The size of each virtual page.
+     * 
+     * @throws IOException - If the file can't be created or mapped.
+     */
+    public MappedFileSystem(String fileName, int numPages, int pageSize) throws IOException {
+        
+        File file;
+        
+        if(fileName == null) {
+            
+            file = File.createTempFile("swap", ".bin");
+            file.deleteOnExit();
+            
+        } else {
+            
+            file = new File(fileName);
+            
+        }
+        
+        this.pageSize = pageSize;
+        long pageBytes = 4L * pageSize;
+        long length = pageBytes * numPages;
+        
+        written = new BitSet(numPages);
+        pagesPerRegion = (int) Math.max(1, MAX_REGION_BYTES / pageBytes);
+        regions = new IntBuffer[(numPages + pagesPerRegion - 1) / pagesPerRegion];
+        
+        try(RandomAccessFile swap = new RandomAccessFile(file, "rw");
+                FileChannel channel = swap.getChannel()) {
+                
+            // Growing the file leaves a hole that reads as zeros, nothing is written yet.
+            swap.setLength(length);
+            
+            // The mappings stay valid after the channel is closed.
+            for(int i = 0 ; i < regions.length ; i++) {
+                
+                long start = (long) i * pagesPerRegion * pageBytes;
+                long size = Math.min(pagesPerRegion * pageBytes, length - start);
+                
+                regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, size)
+                        .order(ByteOrder.nativeOrder()).asIntBuffer();
+                        
+            }
+            
+        }
+        
+    } // end MappedFileSystem constructor
+    
+    
+    /**
+     * This is a private method finding the region a page is in.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @return - The region holding that page.
+     */
+    private IntBuffer region(int pageNum) {
+        
+        return regions[pageNum / pagesPerRegion];
+        
+    } // end region
+    
+    
+    /**
+     * This is a private method finding where an address of a page is within its region.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @param offset - The address within it.
+     * 
+     * @return - The index of the address in the page's region.
+     */
+    private int indexOf(int pageNum, int offset) {
+        
+        return (pageNum % pagesPerRegion) * pageSize + offset;
+        
+    } // end indexOf
+    
+    
+    /**
+     * This is a private method positioning a region's buffer at an address of a page, for
+     * the bulk copies which only work from the position.
+     * 
+     * @param pageNum - The page in question.
+     * 
+     * @param offset - The address within it.
+     * 
+     * @return - The region holding that page, positioned at the address.
+     */
+    private IntBuffer seek(int pageNum, int offset) {
+        
+        IntBuffer region = region(pageNum);
+        region.position(indexOf(pageNum, offset));
+        
+        return region;
+        
+    } // end seek
+    
+    
+    @Override
+    public void writeToPage(int pageNum, int offset, int value) {
+        
+        written.set(pageNum);
+        region(pageNum).put(indexOf(pageNum, offset), value);
+        
+    } // end writeToPage
+    
+    
+    @Override
+    public int readFromPage(int pageNum, int offset) {
+        
+        return written.get(pageNum) ? region(pageNum).get(indexOf(pageNum, offset)) : 0;
+        
+    } // end readFromPage
+    
+    
+    @Override
+    public void readPage(int pageNum, int[] destination) {
+        
+        if(written.get(pageNum)) {
+            
+            seek(pageNum, 0).get(destination, 0, pageSize);
+            
+        } else {
+            
+            Arrays.fill(destination, 0, pageSize, 0);
+            
+        }
+        
+    } // end readPage
+    
+    
+    @Override
+    public void writePage(int pageNum, int[] source) {
+        
+        written.set(pageNum);
+        seek(pageNum, 0).put(source, 0, pageSize);
+        
+    } // end writePage
+    
+    
+    @Override
+    public long getMaterializedPages() {
+        
+        return written.cardinality();
+        
+    } // end getMaterializedPages
+    
+    
+    /**
+     * This method will return a string representation of the file system.
+     */
+    @Override
+    public String toString() {
+        
+        return "Swap file of " + regions.length + " mapped regions, " + pagesPerRegion
+                + " pages each";
+                
+    } // end toString
+    
+} // end MappedFileSystem
\ No newline at end of file
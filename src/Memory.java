@@ -1,277 +1,872 @@
-/**
- * Class: ICS 462 - Operating Systems <br>
- * Instructor: Michael Dorin <br>
- * Description: Program 3, Simulating Memory Management. <br>
- * Due: 04/12/2016 <br><br>
- * 
- * This particular class represents a memory module which has a variable amount of frames
- * to store virtual pages as needed.
- * 
- * @author Tom Carney
- * @version 1.0
- * @since 04/01/2016
- */
-
-public class Memory {
-    
-    private Frame[] frames;         // An array of frames to store pages
-    private FileSystem fileSystem;  // Where the pages are stored
-    private PageTable pageTable;    // Where everyting is organized
-    private int FIFOFrame = 0;      // For use when FIFO replacement is used.
-    private int LRUFrame = 0;       // For use when LRU replacement is used.
-    
-    
-    /**
-     * This will construct a new memory unit with the specified number of frames, 
-     * each having the specified frame size.
-     * 
-     * @param numFrames - The number of frames desired.
-     * 
-     * @param frameSize - The size of each frame.
-     */
-    public Memory(int numFrames, int frameSize) {
-        
-        frames = new Frame[numFrames];
-        
-        for(int i = 0 ; i < frames.length ; i++) {
-            
-            frames[i] = new Frame(frameSize);
-            
-        } 
-        
-    } // end no argument Memory Constructor
-    
-    
-    /**
-     * This will give the memory unit access to the file system where pages
-     * are stored.
-     * 
-     * @param newFileSystem - The file system memory needs access to.
-     */
-    public void setFileSystem(FileSystem newFileSystem) {
-        
-        fileSystem = newFileSystem;
-        
-    } // end setFileSystem
-    
-    
-    /**
-     * This will give the memory unit access to the page table that keeps
-     * tabs on which pages are in which frames. 
-     * 
-     * @param newPageTable - The page table.
-     */
-    public void setPageTable(PageTable newPageTable) {
-        
-        pageTable = newPageTable;
-        
-    } // end setPageTable
-    
-    
-    /**
-     * This method will take care of swapping out one page for another via FIFO replacement
-     * rules.
-     * 
-     * @param newPage - The page that needs into memory.
-     * 
-     * @param currentPage - The page to store away.
-     */
-    public void swapFrameFIFO(int newPage, int currentPage) {
-        
-        // All frames are instantiated as clean but if a frame has been written to, it 
-        // should be saved back before swapping out.
-        if(frames[FIFOFrame].isDirty()) {
-            
-            // Write the frame back to its page.
-            for(int i = 0 ; i < frames[FIFOFrame].getLength() ; i++) {
-                
-                fileSystem.writeToPage(currentPage, i, frames[FIFOFrame].readFromAddress(i));
-                
-            }
-            
-            // It's no longer dirty because it has been written back to the page.
-            frames[FIFOFrame].setNotDirty();
-            
-        }
-        
-        // Now that dirty frame issues have been dealt with move the needed page into place.
-        for(int i = 0 ; i < frames[FIFOFrame].getLength() ; i++) {
-            
-            // This overwrites the victim frame with the one requested.
-            frames[FIFOFrame].writeToAddress(i, fileSystem.readFromPage(newPage, i));
-            
-        }
-        
-        // Update the page table that the victim frame is no longer in memory.
-        pageTable.markInvalid(currentPage);
-        
-        // Update the page table that the requested frame is in memory and where.
-        pageTable.addPageToFrame(newPage, FIFOFrame);
-        
-        // Update the next victim frame, 0 through frames.length - 1.
-        FIFOFrame = (FIFOFrame + 1) % frames.length;
-        
-    } // end swapFrameFIFO
-    
-    
-    /**
-     * This method will take care of swapping out one page for another via LRU replacement
-     * rules.
-     * 
-     * @param newPage - The page that needs into memory.
-     * 
-     * @param currentPage - The page to store away.
-     */
-    public void swapFrameLRU(int newPage, int currentPage) {
-        
-        // All frames are instantiated as clean but if a frame has been written to, it 
-        // should be saved back before swapping out.
-        if(frames[LRUFrame].isDirty()) {
-            
-            // Write the frame back to its page.
-            for(int i = 0 ; i < frames[LRUFrame].getLength() ; i++) {
-                
-                fileSystem.writeToPage(currentPage, i, frames[LRUFrame].readFromAddress(i));
-                
-            }
-            
-            // It's no longer dirty because it has been written back to the page.
-            frames[LRUFrame].setNotDirty();
-            
-        }
-        
-        // Now that dirty frame issues have been dealt with move the needed page into place.
-        for(int i = 0 ; i < frames[LRUFrame].getLength() ; i++) {
-            
-            // This overwrites the victim frame with the one requested.
-            frames[LRUFrame].writeToAddress(i, fileSystem.readFromPage(newPage, i));
-            
-        }
-        
-        // Update the page table that the victim frame is no longer in memory.
-        pageTable.markInvalid(currentPage);
-        
-        // Update the page table that the requested frame is in memory and where.
-        pageTable.addPageToFrame(newPage, LRUFrame);
-        
-    } // end swapFrameFIFO
-    
-    
-    /**
-     * This method returns the current victim frame via FIFO replacement rules.
-     * 
-     * @return - The next frame to be replaced via FIFO.
-     */
-    public int getFIFOFrame() {
-        
-        return FIFOFrame;
-        
-    } // end getFIFOFrame
-    
-    
-    /**
-     * This method will get the least recently used (oldest) frame based on each frames 
-     * timestamp, updated each time it is accessed.
-     * 
-     * @return - The LRU frame number.
-     */
-    public int getLRUFrame() {
-        
-        // Initially all timestamps are 0, replaced with actual time in milliseconds 
-        // when written to. 
-        
-        LRUFrame = 0; // until proven otherwise
-        
-        for(int i = 1 ; i < frames.length ; i++) {
-            
-            if(frames[i].getTimeStamp() < frames[LRUFrame].getTimeStamp()) {
-                
-                LRUFrame = i;
-                
-            }
-            
-        }
-        
-        return LRUFrame;
-        
-    } // end getOldestFrame
-    
-    
-    /**
-     * This method allows you to write to a particular frame.
-     * 
-     * @param frameNumber - The frame you want to write to.
-     * 
-     * @param offset - The cell in the frame you wish to write to.
-     * 
-     * @param value - The value to write.
-     * 
-     * @return - A boolean true if all went well, false otherwise.
-     */
-    public boolean writeToFrame(int frameNumber, int offset, int value) {
-        
-        if(frameNumber >= 0 && frameNumber < frames.length) {
-            
-            frames[frameNumber].writeToAddress(offset, value);
-            frames[frameNumber].setDirty();
-            
-            // This is only used by certain replacement methods, LRU specifically.
-            frames[frameNumber].setTimeStamp();
-            return true;
-            
-        } else {
-            
-            System.out.println("Writing frame number " + frameNumber + " out of range!");
-            return false;
-            
-        }
-        
-    } // end writeToFrame
-    
-    
-    /**
-     * This method allows you to read from a particular frame.
-     * 
-     * @param frameNumber - The frame you wish to read from.
-     * 
-     * @param offset - The particular cell you wish to read.
-     * 
-     * @return - The value found in that frame's cell.
-     */
-    public int readFromFrame(int frameNumber, int offset) {
-        
-        if(frameNumber >= 0 && frameNumber < frames.length) {
-            
-            // This is only used by certain replacement methods, LRU specifically.
-            frames[frameNumber].setTimeStamp();
-            
-            return frames[frameNumber].readFromAddress(offset);
-            
-        } else {
-            
-            System.out.println("Reading frame number " + frameNumber + " out of range!");
-            
-            return -9999; // totally invalid value for our testing
-            
-        }
-        
-    } // end readFromFrame
-    
-    
-    @Override
-    public String toString() {
-        
-        String returnString = "This memory unit contains " + frames.length + " Frames,\n\n";
-        
-        for(int i = 0 ; i < frames.length ; i++) {
-            
-            returnString += "Frame " + i + ":\n ";
-            returnString += frames[i];
-            
-        }
-        
-        return returnString;
-        
-    } // end toString
-    
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents a memory module which has a variable amount of frames
+ * to store virtual pages as needed.
+ * 
+ * A PageCleaner may write dirty frames back from its own thread, so swapping a frame and
+ * cleaning one are synchronized on the memory unit. Reads and writes of frames are not,
+ * see Frame for how a write racing a clean is kept.
+ * 
+ * Frames not holding a page sit on a free list, which a fault takes from in O(1). By
+ * default a frame is only freed by replacing its page at fault time, but with water marks
+ * set, a reclaim pass evicts a batch of pages whenever the list runs low and writes the
+ * dirty ones back in page order. A freed frame keeps its contents until it's handed out
+ * again, so a page faulted on before then is taken back off the list without any I/O.
+ * 
+ * Pages can also be read in ahead of being asked for, see ReadAhead. A prefetched page is
+ * loaded and handed to the replacement policy but left unmapped, so its first access
+ * still faults and maps it without any I/O, which is how a prefetch hit is noticed
+ * without touching the read and write paths.
+ * 
+ * Every eviction is counted as clean or dirty, and page ins and write backs can be timed
+ * into histograms for MMUMetrics. Those are only ever recorded in synchronized methods,
+ * so the cleaner's write backs and the faults' don't trip over each other.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class Memory {
+    
+    private Frame[] frames;         // An array of frames to store pages
+    private FileSystem fileSystem;  // Where the running process's pages are stored
+    private PageTable pageTable;    // Where everyting is organized for the running process
+    private int pageBase;           // Added to a page number to make it unique to its process.
+    private PageTable[] frameTables; // The page table of the page in each frame, or null.
+    private FileSystem[] frameFileSystems; // Where the page in each frame goes back to.
+    private ReplacementPolicy policy; // Decides which frame to give up on a fault.
+    private int[] frameBases;       // The page base of the process owning each frame's page.
+    private int[] freeNext;         // The next frame on the free list, -1 at the tail.
+    private int[] freePrev;         // The previous frame on the free list, -1 at the head.
+    private boolean[] isFree;       // Whether each frame is on the free list.
+    private int[] freedPages;       // The page a free frame still holds, -1 if none.
+    private int freeHead = -1;      // Handed out next.
+    private int freeTail = -1;      // Freed last.
+    private int freeCount = 0;      // Frames on the free list.
+    private int freeLowWater = 0;   // Free frames below which a reclaim pass runs, 0 for none.
+    private int freeHighWater = 0;  // Free frames a reclaim pass stops at.
+    private long[] writeBackBatch;  // Dirty pages of one reclaim pass, reused every pass.
+    private long framesReclaimed;   // Frames freed ahead of a fault.
+    private long reclaimWriteBacks; // Dirty pages those frames held, written back in batches.
+    private long pagesRescued;      // Pages taken back off the free list.
+    private int[] prefetchedPages;  // The unmapped page read ahead into each frame, or -1.
+    private long prefetches;        // Pages read in ahead of being asked for.
+    private long prefetchHits;      // Prefetched pages that were then used.
+    private long prefetchesWasted;  // Prefetched pages replaced before being used.
+    private long prefetchWriteBacks;    // Dirty pages written back to make room for them.
+    private long accessClock = 0;   // Logical time, bumped on every frame access.
+    private long cleanEvictions;    // Pages given up without needing a write back.
+    private long dirtyEvictions;    // Pages given up that had to be written back.
+    private LatencyHistogram pageInLatency;     // Times every page read in, may be null.
+    private LatencyHistogram writeBackLatency;  // Times every page written back, may be null.
+    
+    
+    /**
+     * This will construct a new memory unit with the specified number of frames, 
+     * each having the specified frame size.
+     * 
+     * @param numFrames - The number of frames desired.
+     * 
+     * @param frameSize - The size of each frame.
+     */
+    public Memory(int numFrames, int frameSize) {
+        
+        frames = new Frame[numFrames];
+        frameTables = new PageTable[numFrames];
+        frameFileSystems = new FileSystem[numFrames];
+        frameBases = new int[numFrames];
+        freeNext = new int[numFrames];
+        freePrev = new int[numFrames];
+        isFree = new boolean[numFrames];
+        freedPages = new int[numFrames];
+        writeBackBatch = new long[numFrames];
+        prefetchedPages = new int[numFrames];
+        
+        // Every frame starts out free, handed out lowest number first.
+        for(int i = 0 ; i < frames.length ; i++) {
+            
+            frames[i] = new Frame(frameSize);
+            freedPages[i] = -1;
+            prefetchedPages[i] = -1;
+            appendFree(i);
+            
+        } 
+        
+    } // end no argument Memory Constructor
+    
+    
+    /**
+     * This will give the memory unit access to the page table that keeps tabs on which
+     * pages are in which frames and the file system where those pages are stored, those
+     * of the running process. Frames keep track of whose page they hold, so pages of other
+     * processes still go back where they came from when replaced.
+     * 
+     * @param newPageTable - The page table.
+     * 
+     * @param newFileSystem - The file system memory needs access to.
+     * 
+     * @param newPageBase - The process's first global page number, which the replacement
+     * policy sees in place of its page numbers, 0 for a single process.
+     */
+    public void setAddressSpace(PageTable newPageTable, FileSystem newFileSystem,
+            int newPageBase) {
+            
+        pageTable = newPageTable;
+        fileSystem = newFileSystem;
+        pageBase = newPageBase;
+        
+    } // end setAddressSpace
+    
+    
+    /**
+     * This will give the memory unit the replacement policy used to pick victim frames.
+     * 
+     * @param newPolicy - The replacement policy.
+     */
+    public void setReplacementPolicy(ReplacementPolicy newPolicy) {
+        
+        policy = newPolicy;
+        
+    } // end setReplacementPolicy
+    
+    
+    /**
+     * This will have memory keep a pool of free frames, reclaimed in batches ahead of the
+     * faults that need them, instead of evicting a page on every fault. At least one page
+     * always stays resident.
+     * 
+     * @param lowWater - Free frames below which a reclaim pass runs, 0 to evict on demand.
+     * 
+     * @param highWater - Free frames a reclaim pass stops at, at least the low water mark.
+     */
+    public void setFreeFrameWaterMarks(int lowWater, int highWater) {
+        
+        freeLowWater = Math.max(Math.min(lowWater, frames.length - 1), 0);
+        freeHighWater = Math.min(Math.max(highWater, freeLowWater), frames.length - 1);
+        
+    } // end setFreeFrameWaterMarks
+    
+    
+    /**
+     * This is a private method adding a frame to the tail of the free list.
+     * 
+     * @param frameNumber - The frame, no longer holding a valid page.
+     */
+    private void appendFree(int frameNumber) {
+        
+        freeNext[frameNumber] = -1;
+        freePrev[frameNumber] = freeTail;
+        
+        if(freeTail == -1) {
+            
+            freeHead = frameNumber;
+            
+        } else {
+            
+            freeNext[freeTail] = frameNumber;
+            
+        }
+        
+        freeTail = frameNumber;
+        isFree[frameNumber] = true;
+        freeCount++;
+        
+    } // end appendFree
+    
+    
+    /**
+     * This is a private method taking a frame off the free list, from anywhere in it.
+     * 
+     * @param frameNumber - The frame, which must be free.
+     */
+    private void removeFree(int frameNumber) {
+        
+        int next = freeNext[frameNumber];
+        int prev = freePrev[frameNumber];
+        
+        if(prev == -1) {
+            
+            freeHead = next;
+            
+        } else {
+            
+            freeNext[prev] = next;
+            
+        }
+        
+        if(next == -1) {
+            
+            freeTail = prev;
+            
+        } else {
+            
+            freePrev[next] = prev;
+            
+        }
+        
+        isFree[frameNumber] = false;
+        freedPages[frameNumber] = -1;
+        freeCount--;
+        
+    } // end removeFree
+    
+    
+    /**
+     * This method picks the frame a faulting page should be loaded into. Free frames are
+     * handed out first, oldest first, so a freed page stays rescuable as long as possible.
+     * Without water marks the replacement policy picks a victim once none are free,
+     * otherwise the list is topped up whenever it falls below the low water mark.
+     * 
+     * @return - The frame to load the new page into.
+     */
+    public int selectVictimFrame() {
+        
+        // Top up before taking one, while the policy still knows every frame in use.
+        if(freeCount <= freeLowWater && freeLowWater > 0) {
+            
+            reclaimFrames();
+            
+        }
+        
+        if(freeCount == 0) {
+            
+            return policy.selectVictim();
+            
+        }
+        
+        int frameNumber = freeHead;
+        removeFree(frameNumber);
+        
+        return frameNumber;
+        
+    } // end selectVictimFrame
+    
+    
+    /**
+     * This is a private method evicting pages until the free list is back at the high
+     * water mark. Victims are unmapped first and their dirty pages then written back in
+     * page order, so the file system sees one sweep rather than scattered writes.
+     */
+    private synchronized void reclaimFrames() {
+        
+        int numDirty = 0;
+        
+        // A policy with nothing resident has nothing to give up, so leave it one page.
+        while(freeCount < freeHighWater && freeCount < frames.length - 1) {
+            
+            int frameNumber = policy.selectVictim();
+            int page = getPageInFrame(frameNumber);
+            
+            if(page != -1) {
+                
+                frameTables[frameNumber].markInvalid(page);
+                
+            }
+            
+            boolean dirty = frames[frameNumber].clearDirty();
+            
+            countEviction(frameNumber, page, dirty);
+            dropPrefetched(frameNumber);
+            
+            if(dirty) {
+                
+                writeBackBatch[numDirty++] = ((long) (frameBases[frameNumber] + page) << 32)
+                        | frameNumber;
+                        
+            }
+            
+            appendFree(frameNumber);
+            freedPages[frameNumber] = page;
+            framesReclaimed++;
+            
+        }
+        
+        Arrays.sort(writeBackBatch, 0, numDirty);
+        reclaimWriteBacks += numDirty;
+        
+        for(int i = 0 ; i < numDirty ; i++) {
+            
+            int frameNumber = (int) writeBackBatch[i];
+            
+            writeBack(frameNumber, freedPages[frameNumber]);
+            
+        }
+        
+    } // end reclaimFrames
+    
+    
+    /**
+     * This method takes a page of the running process back off the free list if it was
+     * freed but its frame hasn't been handed out since. That's a minor fault, the page
+     * just has to be mapped again.
+     * 
+     * @param page - The page that faulted.
+     * 
+     * @return - The frame it's back in, or -1 if it has to be read in after all.
+     */
+    public int rescueFreedPage(int page) {
+        
+        int frameNumber = pageTable.getLastFrameNumber(page);
+        
+        if(frameNumber == -1 || !isFree[frameNumber] || freedPages[frameNumber] != page
+                || frameTables[frameNumber] != pageTable) {
+                
+            return -1;
+            
+        }
+        
+        // Top up first, so the pass can't pick the page we're about to hand back.
+        if(freeCount <= freeLowWater) {
+            
+            reclaimFrames();
+            
+        }
+        
+        removeFree(frameNumber);
+        pageTable.addPageToFrame(page, frameNumber);
+        policy.pageLoaded(pageBase + page, frameNumber);
+        pagesRescued++;
+        
+        return frameNumber;
+        
+    } // end rescueFreedPage
+    
+    
+    /**
+     * This method will take care of swapping out whatever page is in a frame for a new
+     * one, whichever replacement policy picked the frame.
+     * 
+     * @param newPage - The page that needs into memory.
+     * 
+     * @param frameNumber - The frame to load it into, from selectVictimFrame.
+     * 
+     * @return - A boolean true if the old page had to be written back first.
+     */
+    public synchronized boolean swapFrame(int newPage, int frameNumber) {
+        
+        boolean dirty = evictPage(frameNumber);
+        
+        // Now that dirty frame issues have been dealt with move the needed page into place,
+        // this overwrites the victim frame with the one requested.
+        readIn(frameNumber, newPage);
+        
+        // Update the page table that the requested frame is in memory and where.
+        pageTable.addPageToFrame(newPage, frameNumber);
+        frameTables[frameNumber] = pageTable;
+        frameFileSystems[frameNumber] = fileSystem;
+        frameBases[frameNumber] = pageBase;
+        policy.pageLoaded(pageBase + newPage, frameNumber);
+        
+        return dirty;
+        
+    } // end swapFrame
+    
+    
+    /**
+     * This is a private method getting rid of whatever page is in a frame, writing it
+     * back if need be.
+     * 
+     * @param frameNumber - The frame about to be reused.
+     * 
+     * @return - A boolean true if the old page had to be written back.
+     */
+    private boolean evictPage(int frameNumber) {
+        
+        Frame frame = frames[frameNumber];
+        PageTable currentTable = frameTables[frameNumber];
+        int currentPage = getPageInFrame(frameNumber);
+        
+        // All frames are instantiated as clean but if a frame has been written to, it 
+        // should be saved back before swapping out. Clearing the flag also marks it no
+        // longer dirty, since it's about to be written back to the page.
+        boolean dirty = frame.clearDirty();
+        
+        if(dirty) {
+            
+            // Write the frame back to its page, wherever its process keeps it.
+            writeBack(frameNumber, currentPage);
+            
+        }
+        
+        countEviction(frameNumber, currentPage, dirty);
+        
+        // Update the page table that the victim page is no longer in memory, if the frame
+        // was never used there is no victim.
+        if(currentPage != -1) {
+            
+            currentTable.markInvalid(currentPage);
+            
+        }
+        
+        dropPrefetched(frameNumber);
+        
+        return dirty;
+        
+    } // end evictPage
+    
+    
+    /**
+     * This is a private method counting a page given up, if the frame held one at all.
+     * Call it before the frame's prefetched page is dropped.
+     * 
+     * @param frameNumber - The frame being given up.
+     * 
+     * @param page - The mapped page it held, or -1.
+     * 
+     * @param dirty - Whether the page had to be written back.
+     */
+    private void countEviction(int frameNumber, int page, boolean dirty) {
+        
+        if(dirty) {
+            
+            dirtyEvictions++;
+            
+        } else if(page != -1 || prefetchedPages[frameNumber] != -1) {
+            
+            cleanEvictions++;
+            
+        }
+        
+    } // end countEviction
+    
+    
+    /**
+     * This is a private method reading a page of the running process into a frame, timed
+     * if there is a histogram for it and it samples this read.
+     * 
+     * @param frameNumber - The frame to overwrite.
+     * 
+     * @param page - The page to read in.
+     */
+    private void readIn(int frameNumber, int page) {
+        
+        if(pageInLatency == null || !pageInLatency.isSampleDue()) {
+            
+            frames[frameNumber].loadPage(fileSystem, page);
+            return;
+            
+        }
+        
+        long start = System.nanoTime();
+        frames[frameNumber].loadPage(fileSystem, page);
+        pageInLatency.record(System.nanoTime() - start);
+        
+    } // end readIn
+    
+    
+    /**
+     * This is a private method writing a frame back to its page, wherever its process keeps
+     * it, timed if there is a histogram for it and it samples this write.
+     * 
+     * @param frameNumber - The frame to write back.
+     * 
+     * @param page - The page it holds.
+     */
+    private void writeBack(int frameNumber, int page) {
+        
+        if(writeBackLatency == null || !writeBackLatency.isSampleDue()) {
+            
+            frames[frameNumber].storePage(frameFileSystems[frameNumber], page);
+            return;
+            
+        }
+        
+        long start = System.nanoTime();
+        frames[frameNumber].storePage(frameFileSystems[frameNumber], page);
+        writeBackLatency.record(System.nanoTime() - start);
+        
+    } // end writeBack
+    
+    
+    /**
+     * This will have memory time the pages read in and written back from now on, those
+     * the histograms sample.
+     * 
+     * @param pageIn - Where to record read times, null to stop timing them.
+     * 
+     * @param writeBack - Where to record write back times, null to stop timing them.
+     */
+    public synchronized void setLatencyHistograms(LatencyHistogram pageIn,
+            LatencyHistogram writeBack) {
+            
+        pageInLatency = pageIn;
+        writeBackLatency = writeBack;
+        
+    } // end setLatencyHistograms
+    
+    
+    /**
+     * This is a private method forgetting the prefetched page in a frame, if it holds one,
+     * which was never used.
+     * 
+     * @param frameNumber - The frame being given up.
+     */
+    private void dropPrefetched(int frameNumber) {
+        
+        if(prefetchedPages[frameNumber] != -1) {
+            
+            prefetchedPages[frameNumber] = -1;
+            prefetchesWasted++;
+            
+        }
+        
+    } // end dropPrefetched
+    
+    
+    /**
+     * This will tell you whether a page of the running process has been read ahead and is
+     * waiting in a frame for its first access.
+     * 
+     * @param page - The page in question.
+     * 
+     * @return - A boolean true if the page is prefetched but not yet mapped.
+     */
+    public boolean isPagePrefetched(int page) {
+        
+        int frameNumber = pageTable.getLastFrameNumber(page);
+        
+        return frameNumber != -1 && prefetchedPages[frameNumber] == page
+                && frameTables[frameNumber] == pageTable;
+                
+    } // end isPagePrefetched
+    
+    
+    /**
+     * This method reads a page of the running process into memory ahead of it being asked
+     * for, into a free frame or the victim the replacement policy picks. The page is not
+     * mapped, its first access goes through mapPrefetchedPage.
+     * 
+     * @param page - The page to read in.
+     * 
+     * @return - A boolean true if it was read in, false if it's already in memory.
+     */
+    public synchronized boolean prefetchPage(int page) {
+        
+        int lastFrame = pageTable.getLastFrameNumber(page);
+        
+        // Resident, already prefetched or still on the free list, nothing to read.
+        if(pageTable.isValid(page) || isPagePrefetched(page) || (lastFrame != -1
+                && isFree[lastFrame] && freedPages[lastFrame] == page
+                && frameTables[lastFrame] == pageTable)) {
+                
+            return false;
+            
+        }
+        
+        int frameNumber = selectVictimFrame();
+        
+        if(evictPage(frameNumber)) {
+            
+            prefetchWriteBacks++;
+            
+        }
+        
+        readIn(frameNumber, page);
+        
+        pageTable.addPrefetchedPage(page, frameNumber);
+        frameTables[frameNumber] = pageTable;
+        frameFileSystems[frameNumber] = fileSystem;
+        frameBases[frameNumber] = pageBase;
+        prefetchedPages[frameNumber] = page;
+        policy.pageLoaded(pageBase + page, frameNumber);
+        prefetches++;
+        
+        return true;
+        
+    } // end prefetchPage
+    
+    
+    /**
+     * This method maps a prefetched page of the running process on its first access.
+     * 
+     * @param page - The page that faulted.
+     * 
+     * @return - The frame it's in, or -1 if it wasn't prefetched or has been replaced since.
+     */
+    public int mapPrefetchedPage(int page) {
+        
+        if(!isPagePrefetched(page)) {
+            
+            return -1;
+            
+        }
+        
+        int frameNumber = pageTable.getLastFrameNumber(page);
+        
+        prefetchedPages[frameNumber] = -1;
+        pageTable.addPageToFrame(page, frameNumber);
+        prefetchHits++;
+        
+        return frameNumber;
+        
+    } // end mapPrefetchedPage
+    
+    
+    /**
+     * This method writes a dirty frame back to its page ahead of time but leaves the page
+     * in memory, so a later fault choosing the frame can reuse it without waiting on the
+     * write. The flag is cleared before the copy, a write landing meanwhile sets it again.
+     * 
+     * @param frameNumber - The frame to clean.
+     * 
+     * @return - A boolean true if the frame was dirty and written back, false otherwise.
+     */
+    public synchronized boolean cleanFrame(int frameNumber) {
+        
+        int page = getPageInFrame(frameNumber);
+        
+        if(page == -1 || !frames[frameNumber].clearDirty()) {
+            
+            return false;
+            
+        }
+        
+        writeBack(frameNumber, page);
+        
+        return true;
+        
+    } // end cleanFrame
+    
+    
+    /**
+     * This will tell you which page is in a frame, whichever process it belongs to.
+     * 
+     * @param frameNumber - The frame in question.
+     * 
+     * @return - The page number within its process, or -1 if the frame was never used.
+     */
+    public int getPageInFrame(int frameNumber) {
+        
+        PageTable owner = frameTables[frameNumber];
+        
+        return owner == null ? -1 : owner.getPageNumber(frameNumber);
+        
+    } // end getPageInFrame
+    
+    
+    /**
+     * This will tell you if a frame has been written to since its page was loaded.
+     * 
+     * @param frameNumber - The frame in question.
+     * 
+     * @return - A boolean true if the frame must be written back before reuse.
+     */
+    public boolean isFrameDirty(int frameNumber) {
+        
+        return frames[frameNumber].isDirty();
+        
+    } // end isFrameDirty
+    
+    
+    /**
+     * This will tell you when a frame was last read or written, the order LRU would give
+     * frames up in.
+     * 
+     * @param frameNumber - The frame in question.
+     * 
+     * @return - The logical time of its last access, 0 if never accessed.
+     */
+    public long getFrameTimeStamp(int frameNumber) {
+        
+        return frames[frameNumber].getTimeStamp();
+        
+    } // end getFrameTimeStamp
+    
+    
+    /**
+     * @return - The number of frames in memory.
+     */
+    public int getNumberOfFrames() {
+        
+        return frames.length;
+        
+    } // end getNumberOfFrames
+    
+    
+    /**
+     * @return - The number of frames on the free list.
+     */
+    public int getFreeFrameCount() {
+        
+        return freeCount;
+        
+    } // end getFreeFrameCount
+    
+    
+    /**
+     * @return - The number of frames freed by reclaim passes, ahead of the faults using them.
+     */
+    public long getFramesReclaimed() {
+        
+        return framesReclaimed;
+        
+    } // end getFramesReclaimed
+    
+    
+    /**
+     * @return - The number of dirty pages reclaim passes have written back.
+     */
+    public long getReclaimWriteBacks() {
+        
+        return reclaimWriteBacks;
+        
+    } // end getReclaimWriteBacks
+    
+    
+    /**
+     * @return - The number of pages replaced or reclaimed that didn't need a write back.
+     */
+    public long getCleanEvictions() {
+        
+        return cleanEvictions;
+        
+    } // end getCleanEvictions
+    
+    
+    /**
+     * @return - The number of pages replaced or reclaimed that had to be written back.
+     */
+    public long getDirtyEvictions() {
+        
+        return dirtyEvictions;
+        
+    } // end getDirtyEvictions
+    
+    
+    /**
+     * @return - The number of faults that found their page still on the free list.
+     */
+    public long getPagesRescued() {
+        
+        return pagesRescued;
+        
+    } // end getPagesRescued
+    
+    
+    /**
+     * @return - The number of pages read in ahead of being asked for.
+     */
+    public long getPrefetches() {
+        
+        return prefetches;
+        
+    } // end getPrefetches
+    
+    
+    /**
+     * @return - The number of prefetched pages that were used before being replaced.
+     */
+    public long getPrefetchHits() {
+        
+        return prefetchHits;
+        
+    } // end getPrefetchHits
+    
+    
+    /**
+     * @return - The number of prefetched pages replaced without ever being used.
+     */
+    public long getPrefetchesWasted() {
+        
+        return prefetchesWasted;
+        
+    } // end getPrefetchesWasted
+    
+    
+    /**
+     * @return - The number of dirty pages written back to free frames for prefetching.
+     */
+    public long getPrefetchWriteBacks() {
+        
+        return prefetchWriteBacks;
+        
+    } // end getPrefetchWriteBacks
+    
+    
+    /**
+     * This method allows you to write to a particular frame.
+     * 
+     * @param frameNumber - The frame you want to write to.
+     * 
+     * @param offset - The cell in the frame you wish to write to.
+     * 
+     * @param value - The value to write.
+     * 
+     * @return - A boolean true if all went well, false otherwise.
+     */
+    public boolean writeToFrame(int frameNumber, int offset, int value) {
+        
+        if(frameNumber >= 0 && frameNumber < frames.length) {
+            
+            frames[frameNumber].writeToAddress(offset, value);
+            frames[frameNumber].setDirty();
+            
+            // Let the replacement policy know, LRU for one cares about every access.
+            frames[frameNumber].setTimeStamp(++accessClock);
+            policy.frameAccessed(frameNumber);
+            return true;
+            
+        } else {
+            
+            System.out.println("Writing frame number " + frameNumber + " out of range!");
+            return false;
+            
+        }
+        
+    } // end writeToFrame
+    
+    
+    /**
+     * This method allows you to read from a particular frame.
+     * 
+     * @param frameNumber - The frame you wish to read from.
+     * 
+     * @param offset - The particular cell you wish to read.
+     * 
+     * @return - The value found in that frame's cell.
+     */
+    public int readFromFrame(int frameNumber, int offset) {
+        
+        if(frameNumber >= 0 && frameNumber < frames.length) {
+            
+            // Let the replacement policy know, LRU for one cares about every access.
+            frames[frameNumber].setTimeStamp(++accessClock);
+            policy.frameAccessed(frameNumber);
+            
+            return frames[frameNumber].readFromAddress(offset);
+            
+        } else {
+            
+            System.out.println("Reading frame number " + frameNumber + " out of range!");
+            
+            return -9999; // totally invalid value for our testing
+            
+        }
+        
+    } // end readFromFrame
+    
+    
+    @Override
+    public String toString() {
+        
+        String returnString = "This memory unit contains " + frames.length + " Frames,\n\n";
+        
+        for(int i = 0 ; i < frames.length ; i++) {
+            
+            returnString += "Frame " + i + ":\n ";
+            returnString += frames[i];
+            
+        }
+        
+        return returnString;
+        
+    } // end toString
+    
 } // end Memory
\ No newline at end of file
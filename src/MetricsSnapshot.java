@@ -0,0 +1,233 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a copy of an MMU's counters and latency histograms at one
+ * moment, taken by MMUMetrics. It never changes, so it can be handed to another thread
+ * or compared with an earlier snapshot to get rates over the time in between.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class MetricsSnapshot {
+    
+    private final long timeNanos;                   // System.nanoTime when taken.
+    private final long reads;                       // Reads so far.
+    private final long writes;                      // Writes so far.
+    private final long hits;                        // Accesses that didn't fault.
+    private final long pageFaults;                  // Faults that read their page in.
+    private final long minorFaults;                 // Faults that only mapped their page.
+    private final long dirtyEvictions;              // Pages written back when given up.
+    private final long cleanEvictions;              // Pages given up without a write back.
+    private final long simulatedTime;               // Simulated ns of every access so far.
+    private final LatencyHistogram faultService;    // Wall clock ns of sampled faults.
+    private final LatencyHistogram pageIn;          // Wall clock ns of sampled page ins.
+    private final LatencyHistogram writeBack;       // Wall clock ns of sampled write backs.
+    
+    
+    /**
+     * This will construct a snapshot, MMUMetrics.snapshot is the usual way to get one.
+     * 
+     * @param mmu - The MMU to read the counters of.
+     * 
+     * @param faultService - A copy of the fault service histogram.
+     * 
+     * @param pageIn - A copy of the page in histogram.
+     * 
+     * @param writeBack - A copy of the write back histogram.
+     */
+    public MetricsSnapshot(MMUHardware mmu, LatencyHistogram faultService,
+            LatencyHistogram pageIn, LatencyHistogram writeBack) {
+            
+        this.timeNanos = System.nanoTime();
+        this.reads = mmu.getReads();
+        this.writes = mmu.getWrites();
+        this.hits = mmu.getHits();
+        this.pageFaults = mmu.getTotalPageFaults();
+        this.minorFaults = mmu.getMinorFaults();
+        this.dirtyEvictions = mmu.getDirtyEvictions();
+        this.cleanEvictions = mmu.getCleanEvictions();
+        this.simulatedTime = mmu.getSimulatedTime();
+        this.faultService = faultService;
+        this.pageIn = pageIn;
+        this.writeBack = writeBack;
+        
+    } // end MetricsSnapshot constructor
+    
+    
+    /**
+     * @return - The System.nanoTime the snapshot was taken at.
+     */
+    public long getTimeNanos() {
+        
+        return timeNanos;
+        
+    } // end getTimeNanos
+    
+    
+    /**
+     * @return - The number of reads.
+     */
+    public long getReads() {
+        
+        return reads;
+        
+    } // end getReads
+    
+    
+    /**
+     * @return - The number of writes.
+     */
+    public long getWrites() {
+        
+        return writes;
+        
+    } // end getWrites
+    
+    
+    /**
+     * @return - The number of reads and writes.
+     */
+    public long getAccesses() {
+        
+        return reads + writes;
+        
+    } // end getAccesses
+    
+    
+    /**
+     * @return - The number of accesses that didn't fault.
+     */
+    public long getHits() {
+        
+        return hits;
+        
+    } // end getHits
+    
+    
+    /**
+     * @return - The fraction of accesses that didn't fault, 0 before the first access.
+     */
+    public double getHitRatio() {
+        
+        return getAccesses() == 0 ? 0 : (double) hits / getAccesses();
+        
+    } // end getHitRatio
+    
+    
+    /**
+     * @return - The number of faults that read their page in.
+     */
+    public long getPageFaults() {
+        
+        return pageFaults;
+        
+    } // end getPageFaults
+    
+    
+    /**
+     * @return - The number of faults that only had to map their page.
+     */
+    public long getMinorFaults() {
+        
+        return minorFaults;
+        
+    } // end getMinorFaults
+    
+    
+    /**
+     * @return - The number of pages written back when given up.
+     */
+    public long getDirtyEvictions() {
+        
+        return dirtyEvictions;
+        
+    } // end getDirtyEvictions
+    
+    
+    /**
+     * @return - The number of pages given up without a write back.
+     */
+    public long getCleanEvictions() {
+        
+        return cleanEvictions;
+        
+    } // end getCleanEvictions
+    
+    
+    /**
+     * @return - The simulated nanoseconds of every access so far, see CostModel.
+     */
+    public long getSimulatedTime() {
+        
+        return simulatedTime;
+        
+    } // end getSimulatedTime
+    
+    
+    /**
+     * @return - The wall clock time of every fault serviced, empty if none were timed.
+     */
+    public LatencyHistogram getFaultService() {
+        
+        return faultService;
+        
+    } // end getFaultService
+    
+    
+    /**
+     * @return - The wall clock time of every page read in, empty if none were timed.
+     */
+    public LatencyHistogram getPageIn() {
+        
+        return pageIn;
+        
+    } // end getPageIn
+    
+    
+    /**
+     * @return - The wall clock time of every page written back, empty if none were timed.
+     */
+    public LatencyHistogram getWriteBack() {
+        
+        return writeBack;
+        
+    } // end getWriteBack
+    
+    
+    /**
+     * This will return how fast accesses were made between an earlier snapshot and this.
+     * 
+     * @param earlier - A snapshot of the same MMU taken before this one.
+     * 
+     * @return - The accesses per second in between, 0 if no time passed.
+     */
+    public double getAccessesPerSecond(MetricsSnapshot earlier) {
+        
+        long elapsed = timeNanos - earlier.timeNanos;
+        
+        return elapsed <= 0 ? 0 : (getAccesses() - earlier.getAccesses()) * 1e9 / elapsed;
+        
+    } // end getAccessesPerSecond
+    
+    
+    /**
+     * This method returns a String representation of the snapshot on one line.
+     */
+    @Override
+    public String toString() {
+        
+        return getAccesses() + " accesses (" + reads + " reads, " + writes + " writes), "
+                + String.format("%.2f%%", getHitRatio() * 100) + " hits, " + pageFaults
+                + " page faults, " + minorFaults + " minor, " + dirtyEvictions
+                + " dirty and " + cleanEvictions + " clean evictions, fault p50 "
+                + faultService.getValueAtPercentile(50) + " ns, p99 "
+                + faultService.getValueAtPercentile(99) + " ns";
+                
+    } // end toString
+    
+} // end MetricsSnapshot
\ No newline at end of file
@@ -0,0 +1,302 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is Belady's optimal (OPT) replacement policy, it replaces the page
+ * whose next use is furthest in the future. That needs the whole page trace up front so
+ * it can't be built in hardware, but the fault count it gives is the lower bound every
+ * other policy is measured against.
+ * 
+ * The next use of every access is found with a single backward pass over the trace, and
+ * the frames are kept in a max heap keyed on the next use of their page, so a victim is
+ * found in O(log frames). The trace must be exactly the pages the MMU will access, in
+ * order, see MMUHardware.setPageTrace for recording one.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class OptimalPolicy implements ReplacementPolicy {
+    
+    private final static int NEVER = Integer.MAX_VALUE;    // Next use of a page not used again.
+    
+    private int[] nextUse;          // For each access, the index of the next access to its page.
+    private int[] trace;            // The page of every access.
+    private int[] accessesByPage;   // Every access index, grouped by page and in order.
+    private int[] pageStart;        // Where each page's accesses start in accessesByPage.
+    private int accessIndex;        // Which access of the trace comes next.
+    
+    private int[] heap;             // Max heap of resident frames keyed on the next use.
+    private int heapSize;
+    private int[] heapPosition;     // Where each frame is in the heap, -1 if not there.
+    private int[] frameNextUse;     // The key of each frame.
+    
+    
+    /**
+     * This will construct a new OPT policy for the specified trace and number of frames.
+     * 
+     * @param pageTrace - The page of every access that will be made, in order.
+     * 
+     * @param numFrames - The number of frames in memory.
+     */
+    public OptimalPolicy(int[] pageTrace, int numFrames) {
+        
+        nextUse = new int[pageTrace.length];
+        accessIndex = 0;
+        
+        int maxPage = 0;
+        
+        for(int page : pageTrace) {
+            
+            maxPage = Math.max(maxPage, page);
+            
+        }
+        
+        // One backward pass, remembering where each page is seen next.
+        int[] seenNext = new int[maxPage + 1];
+        
+        for(int i = 0 ; i < seenNext.length ; i++) {
+            
+            seenNext[i] = NEVER;
+            
+        }
+        
+        for(int i = pageTrace.length - 1 ; i >= 0 ; i--) {
+            
+            nextUse[i] = seenNext[pageTrace[i]];
+            seenNext[pageTrace[i]] = i;
+            
+        }
+        
+        // Pages read ahead aren't the page of the current access, so their next use comes
+        // from a list of each page's accesses, built with a counting sort.
+        trace = pageTrace;
+        pageStart = new int[maxPage + 2];
+        accessesByPage = new int[pageTrace.length];
+        
+        for(int page : pageTrace) {
+            
+            pageStart[page + 1]++;
+            
+        }
+        
+        for(int page = 0 ; page <= maxPage ; page++) {
+            
+            pageStart[page + 1] += pageStart[page];
+            
+        }
+        
+        int[] filled = pageStart.clone();
+        
+        for(int i = 0 ; i < pageTrace.length ; i++) {
+            
+            accessesByPage[filled[pageTrace[i]]++] = i;
+            
+        }
+        
+        heap = new int[numFrames];
+        heapSize = 0;
+        heapPosition = new int[numFrames];
+        frameNextUse = new int[numFrames];
+        
+        for(int i = 0 ; i < numFrames ; i++) {
+            
+            heapPosition[i] = -1;
+            
+        }
+        
+    } // end OptimalPolicy constructor
+    
+    
+    /**
+     * This is a private method giving the next use of the page at the current access.
+     * 
+     * @return - The index of the next access to that page, or NEVER.
+     */
+    private int currentNextUse() {
+        
+        return accessIndex < nextUse.length ? nextUse[accessIndex] : NEVER;
+        
+    } // end currentNextUse
+    
+    
+    /**
+     * This is a private method giving the next use of any page, from the current access on.
+     * 
+     * @param pageNumber - The page in question.
+     * 
+     * @return - The index of its next access, or NEVER.
+     */
+    private int nextUseOf(int pageNumber) {
+        
+        if(pageNumber + 1 >= pageStart.length) {
+            
+            return NEVER;
+            
+        }
+        
+        // The first of the page's accesses at or after the current one.
+        int low = pageStart[pageNumber];
+        int high = pageStart[pageNumber + 1];
+        
+        while(low < high) {
+            
+            int middle = (low + high) >>> 1;
+            
+            if(accessesByPage[middle] < accessIndex) {
+                
+                low = middle + 1;
+                
+            } else {
+                
+                high = middle;
+                
+            }
+            
+        }
+        
+        return low < pageStart[pageNumber + 1] ? accessesByPage[low] : NEVER;
+        
+    } // end nextUseOf
+    
+    
+    @Override
+    public void pageLoaded(int pageNumber, int frameNumber) {
+        
+        // Usually the page the current access faulted on, unless it was read ahead.
+        if(accessIndex < trace.length && trace[accessIndex] == pageNumber) {
+            
+            frameNextUse[frameNumber] = currentNextUse();
+            
+        } else {
+            
+            frameNextUse[frameNumber] = nextUseOf(pageNumber);
+            
+        }
+        
+        heap[heapSize] = frameNumber;
+        heapPosition[frameNumber] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+        
+    } // end pageLoaded
+    
+    
+    @Override
+    public void frameAccessed(int frameNumber) {
+        
+        // The next use only ever moves further away, so the frame can only rise.
+        frameNextUse[frameNumber] = currentNextUse();
+        accessIndex++;
+        siftUp(heapPosition[frameNumber]);
+        
+    } // end frameAccessed
+    
+    
+    @Override
+    public int selectVictim() {
+        
+        int victim = heap[0];
+        
+        heapSize--;
+        heapPosition[victim] = -1;
+        
+        if(heapSize > 0) {
+            
+            heap[0] = heap[heapSize];
+            heapPosition[heap[0]] = 0;
+            siftDown(0);
+            
+        }
+        
+        return victim;
+        
+    } // end selectVictim
+    
+    
+    /**
+     * This is a private method moving a heap entry up until its parent's key is larger.
+     * 
+     * @param index - The heap index to move.
+     */
+    private void siftUp(int index) {
+        
+        int frame = heap[index];
+        
+        while(index > 0) {
+            
+            int parent = (index - 1) / 2;
+            
+            if(frameNextUse[heap[parent]] >= frameNextUse[frame]) {
+                
+                break;
+                
+            }
+            
+            heap[index] = heap[parent];
+            heapPosition[heap[index]] = index;
+            index = parent;
+            
+        }
+        
+        heap[index] = frame;
+        heapPosition[frame] = index;
+        
+    } // end siftUp
+    
+    
+    /**
+     * This is a private method moving a heap entry down until both children's keys are
+     * smaller.
+     * 
+     * @param index - The heap index to move.
+     */
+    private void siftDown(int index) {
+        
+        int frame = heap[index];
+        
+        while(true) {
+            
+            int child = 2 * index + 1;
+            
+            if(child >= heapSize) {
+                
+                break;
+                
+            }
+            
+            if(child + 1 < heapSize && frameNextUse[heap[child + 1]] > frameNextUse[heap[child]]) {
+                
+                child++;
+                
+            }
+            
+            if(frameNextUse[heap[child]] <= frameNextUse[frame]) {
+                
+                break;
+                
+            }
+            
+            heap[index] = heap[child];
+            heapPosition[heap[index]] = index;
+            index = child;
+            
+        }
+        
+        heap[index] = frame;
+        heapPosition[frame] = index;
+        
+    } // end siftDown
+    
+    
+    @Override
+    public String toString() {
+        
+        return "OPT";
+        
+    } // end toString
+    
+} // end OptimalPolicy
\ No newline at end of file
@@ -0,0 +1,223 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a background page cleaner, like the page daemon of a real
+ * kernel. Without it a fault choosing a dirty victim pays for writing the old page back
+ * and reading the new one in. The cleaner wakes up now and then, or when the MMU hits a
+ * dirty victim, and if fewer than the low water mark of frames are clean it writes dirty
+ * frames back, least recently used first, until the high water mark are clean. The pages
+ * stay in memory, so the next faults mostly find clean victims.
+ * 
+ * Least recently used is read from the logical time Memory stamps on every frame access,
+ * whatever the replacement policy. For LRU those are exactly the next victims, for the
+ * other policies it is an approximation of them, since the policies don't expose their
+ * order of eviction.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+public class PageCleaner implements Runnable {
+    
+    final static long DEFAULT_INTERVAL_NANOS = 1000000; // Wake up every millisecond.
+    
+    private final Memory memory;                    // The frames to keep clean.
+    private final int lowWater;                     // Clean frames that start a pass.
+    private final int highWater;                    // Clean frames that end a pass.
+    private final long intervalNanos;               // Longest sleep between checks.
+    private final long[] candidates;                // Dirty frames' last accesses, reused.
+    private volatile boolean running;               // Cleared by stop.
+    private volatile long framesCleaned;            // Write backs done ahead of a fault.
+    private volatile long passes;                   // Times the low water mark was hit.
+    private Thread thread;                          // The daemon, null until started.
+    
+    
+    /**
+     * This will construct a new cleaner, it does nothing until started.
+     * 
+     * @param memory - The frames to keep clean.
+     * 
+     * @param lowWater - Clean frames below which a pass starts.
+     * 
+     * @param highWater - Clean frames a pass stops at, at least the low water mark.
+     */
+    public PageCleaner(Memory memory, int lowWater, int highWater) {
+        
+        this.memory = memory;
+        this.lowWater = Math.min(lowWater, memory.getNumberOfFrames());
+        this.highWater = Math.min(Math.max(highWater, this.lowWater),
+                memory.getNumberOfFrames());
+        this.intervalNanos = DEFAULT_INTERVAL_NANOS;
+        
+        candidates = new long[memory.getNumberOfFrames()];
+        
+    } // end PageCleaner constructor
+    
+    
+    /**
+     * This starts the cleaner on a daemon thread of its own.
+     */
+    public void start() {
+        
+        running = true;
+        thread = new Thread(this, "PageCleaner");
+        thread.setDaemon(true);
+        thread.start();
+        
+    } // end start
+    
+    
+    /**
+     * This stops the cleaner and waits for its last pass to finish.
+     */
+    public void stop() {
+        
+        if(thread == null) {
+            
+            return;
+            
+        }
+        
+        running = false;
+        LockSupport.unpark(thread);
+        
+        try {
+            
+            thread.join();
+            
+        } catch(InterruptedException e) {
+            
+            Thread.currentThread().interrupt();
+            
+        }
+        
+        thread = null;
+        
+    } // end stop
+    
+    
+    /**
+     * This wakes the cleaner up early, the MMU calls it when a fault had to write back a
+     * dirty victim itself. It's cheap enough to call on every such fault.
+     */
+    public void wakeUp() {
+        
+        Thread cleaner = thread;
+        
+        if(cleaner != null) {
+            
+            LockSupport.unpark(cleaner);
+            
+        }
+        
+    } // end wakeUp
+    
+    
+    /**
+     * The cleaner's loop, a pass and then a nap until woken or the interval is up.
+     */
+    @Override
+    public void run() {
+        
+        while(running) {
+            
+            cleanIfNeeded();
+            LockSupport.parkNanos(this, intervalNanos);
+            
+        }
+        
+    } // end run
+    
+    
+    /**
+     * This method is one pass of the cleaner. Frames never used count as clean, they'll be
+     * handed out before any victim is chosen.
+     * 
+     * @return - The number of frames written back.
+     */
+    public int cleanIfNeeded() {
+        
+        int numFrames = memory.getNumberOfFrames();
+        int numDirty = 0;
+        
+        for(int i = 0 ; i < numFrames ; i++) {
+            
+            if(memory.isFrameDirty(i)) {
+                
+                candidates[numDirty++] = memory.getFrameTimeStamp(i);
+                
+            }
+            
+        }
+        
+        int numClean = numFrames - numDirty;
+        
+        if(numClean >= lowWater) {
+            
+            return 0;
+            
+        }
+        
+        passes++;
+        
+        // Access times are unique, so the oldest to clean are those accessed no later
+        // than the newest of them.
+        int toClean = highWater - numClean;
+        Arrays.sort(candidates, 0, numDirty);
+        long newest = candidates[toClean - 1];
+        int cleaned = 0;
+        
+        for(int i = 0 ; i < numFrames && toClean > 0 ; i++) {
+            
+            // A frame used since the first look is left for the next pass.
+            if(memory.isFrameDirty(i) && memory.getFrameTimeStamp(i) <= newest) {
+                
+                // It may have been replaced or cleaned since, then there's nothing to do.
+                if(memory.cleanFrame(i)) {
+                    
+                    cleaned++;
+                    
+                }
+                
+                toClean--;
+                
+            }
+            
+        }
+        
+        framesCleaned += cleaned;
+        
+        return cleaned;
+        
+    } // end cleanIfNeeded
+    
+    
+    /**
+     * @return - The number of frames written back by the cleaner rather than by a fault.
+     */
+    public long getFramesCleaned() {
+        
+        return framesCleaned;
+        
+    } // end getFramesCleaned
+    
+    
+    /**
+     * This method returns a String representation of the cleaner.
+     */
+    @Override
+    public String toString() {
+        
+        return "Page cleaner, low water " + lowWater + ", high water " + highWater + ", "
+                + passes + " passes, " + framesCleaned + " frames cleaned";
+                
+    } // end toString
+    
+} // end PageCleaner
\ No newline at end of file
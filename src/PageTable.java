@@ -1,158 +1,285 @@
-/**
- * Class: ICS 462 - Operating Systems <br>
- * Instructor: Michael Dorin <br>
- * Description: Program 3, Simulating Memory Management. <br>
- * Due: 04/12/2016 <br><br>
- * 
- * This particular class represents the page table which state which frame a page was
- * last located and if it is still valid.
- * 
- * @author Tom Carney
- * @version 1.0
- * @since 04/01/2016
- */
-
-public class PageTable {
-    
-    // Array row index = physical page number (0 -> numPages.
-    // Column 0 = Frame in which the page resides in physical memory.
-    // Column 1 = valid bit (0 = invalid, 1 = valid).
-    private int[][] table;
-    
-    
-    /**
-     * This constructs a new page table based on the specified number of pages.
-     * 
-     * @param numPages - The specified number of pages.
-     */
-    public PageTable(int numPages) {
-        
-        table = new int[numPages][2];
-        initializeTable();
-        
-    } // end PageTable constructor
-    
-    
-    /**
-     * This is a private method setting up the page table as if new and unused.
-     */
-    private void initializeTable() {
-        
-        for(int i = 0 ; i < table.length ; i++) {
-            
-            table[i][0] = -1;   // Mark all with an invalid frame.
-            table[i][1] = 0;    // Mark all as invalid to start, no page in a frame.
-            
-        }
-        
-    } // end initializeTable
-    
-    
-    /**
-     * This method is used to get the frame number where a page has been copied into.
-     * 
-     * @param pageNumber - The page you want the frame number for.
-     * 
-     * @return - The frame number if the page resides in one, -1 if it does not.
-     */
-    public int getFrameNumber(int pageNumber) {
-        
-        // If the page is valid.
-        if(table[pageNumber][1] == 1) {
-            
-            // Return the frame number.
-            return table[pageNumber][0];
-            
-        }
-        
-        return -1;  // Return negative if page not in memory.
-        
-    } // end getFrameNumber
-    
-    
-    /**
-     * This method will return the page number based on a given frame.
-     * 
-     * @param frameNumber - The frame number that holds a particular page.
-     * 
-     * @return - The page in that frame, or -1 if no page is in that frame.
-     */
-    public int getPageNumber(int frameNumber) {
-        
-        for(int i = 0 ; i < table.length ; i++) {
-            
-            if(table[i][0] == frameNumber && table[i][1] == 1) {
-                
-                // Index i is the page in that frame.
-                return i;
-                
-            }
-            
-        }
-        
-        // Should happen each time a frame is used for the first time.
-        return -1;
-        
-    } // end getPageNumber
-    
-    
-    /**
-     * This will tell you if a particular page number is in a frame.
-     * 
-     * @param pageNumber - The page number in question.
-     * 
-     * @return - A boolean true if the page is in a frame, false otherwise.
-     */
-    public boolean isValid(int pageNumber) {
-        
-        return table[pageNumber][1] == 1;
-        
-    } // end isValid
-    
-    
-    /**
-     * This will mark a page as invalid or no longer residing in a frame.
-     * 
-     * @param pageNumber - The page number that is no longer in a frame.
-     */
-    public void markInvalid(int pageNumber) {
-        
-        table[pageNumber][1] = 0;
-        
-    } // end clearFrame
-    
-    
-    /**
-     * This method marks a page as being loaded into a particular frame.
-     * 
-     * @param pageNumber - The page number that has been loaded.
-     * 
-     * @param frameNumber - The frame in which it resides.
-     */
-    public void addPageToFrame(int pageNumber, int frameNumber) {
-        
-        table[pageNumber][0] = frameNumber;
-        table[pageNumber][1] = 1;
-        
-    } // end updateFrame
-    
-    
-    /**
-     * This will return a String representation of the page table object.
-     */
-    @Override 
-    public String toString() {
-        
-        String returnString = "";
-        
-        for(int i = 0 ; i < table.length ; i++) {
-            
-            returnString += "page " + i + " was in frame " + table[i][0] + " is valid: " + table[i][1];
-            
-        }
-        
-        return returnString;
-        
-    } // end toString
-    
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents the page table which state which frame a page was
+ * last located and if it is still valid.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class PageTable {
+    
+    // Each entry is packed into a single int, much like a real page table entry.
+    // Bit 31 = valid, bits 29-30 = protection, bits 0-28 = frame in which the page
+    // resides in physical memory. Dirty and referenced are kept per frame, by Memory
+    // and the replacement policy, which are what act on them.
+    final static int VALID_BIT = 1 << 31;
+    final static int PROTECTION_SHIFT = 29;
+    final static int PROTECTION_MASK = 3 << PROTECTION_SHIFT;
+    final static int FRAME_MASK = (1 << PROTECTION_SHIFT) - 1;
+    
+    final static int READ = 1;                      // Protection, page may be read.
+    final static int WRITE = 2;                     // Protection, page may be written.
+    final static int READ_WRITE = READ | WRITE;
+    
+    // Array index = virtual page number (0 -> numPages), value = packed entry.
+    private int[] table;
+    
+    // The inverse of the table, index = frame number, value = page in it or -1.
+    private int[] frameToPage;
+    
+    // Cached translations that must be shot down when a page leaves memory, may be null.
+    private TLB tlb;
+    
+    // The address space ID this table's entries are tagged with in the TLB.
+    private int asid;
+    
+    
+    /**
+     * This constructs a new page table based on the specified number of pages and
+     * the number of frames they can be loaded into.
+     * 
+     * @param numPages - The specified number of pages.
+     * 
+     * @param numFrames - The number of frames in physical memory.
+     */
+    public PageTable(int numPages, int numFrames) {
+        
+        table = new int[numPages];
+        frameToPage = new int[numFrames];
+        initializeTable();
+        
+    } // end PageTable constructor
+    
+    
+    /**
+     * This is a private method setting up the page table as if new and unused.
+     */
+    private void initializeTable() {
+        
+        // Mark all with an invalid frame and read/write access, no page in a frame.
+        int emptyEntry = FRAME_MASK | (READ_WRITE << PROTECTION_SHIFT);
+        
+        for(int i = 0 ; i < table.length ; i++) {
+            
+            table[i] = emptyEntry;
+            
+        }
+        
+        for(int i = 0 ; i < frameToPage.length ; i++) {
+            
+            frameToPage[i] = -1; // No frame holds a page yet.
+            
+        }
+        
+    } // end initializeTable
+    
+    
+    /**
+     * This will give the page table a TLB to keep coherent, any cached translation of a
+     * page is removed when that page is marked invalid or its protection changes.
+     * 
+     * @param newTLB - The TLB in front of this page table.
+     * 
+     * @param newASID - The address space ID of the process owning this page table.
+     */
+    public void setTLB(TLB newTLB, int newASID) {
+        
+        tlb = newTLB;
+        asid = newASID;
+        
+    } // end setTLB
+    
+    
+    /**
+     * This method is used to get the frame number where a page has been copied into.
+     * 
+     * @param pageNumber - The page you want the frame number for.
+     * 
+     * @return - The frame number if the page resides in one, -1 if it does not.
+     */
+    public int getFrameNumber(int pageNumber) {
+        
+        int entry = table[pageNumber];
+        
+        // If the page is valid.
+        if((entry & VALID_BIT) != 0) {
+            
+            // Return the frame number.
+            return entry & FRAME_MASK;
+            
+        }
+        
+        return -1;  // Return negative if page not in memory.
+        
+    } // end getFrameNumber
+    
+    
+    /**
+     * This method is used to get the frame a page was last in, valid or not. The frame
+     * may hold another page by now, so the caller has to check.
+     * 
+     * @param pageNumber - The page you want the frame number for.
+     * 
+     * @return - The frame number, or -1 if the page has never been in memory.
+     */
+    public int getLastFrameNumber(int pageNumber) {
+        
+        int frame = table[pageNumber] & FRAME_MASK;
+        
+        return frame == FRAME_MASK ? -1 : frame;
+        
+    } // end getLastFrameNumber
+    
+    
+    /**
+     * This method will return the page number based on a given frame.
+     * 
+     * @param frameNumber - The frame number that holds a particular page.
+     * 
+     * @return - The page in that frame, or -1 if no page is in that frame.
+     */
+    public int getPageNumber(int frameNumber) {
+        
+        // Should be -1 each time a frame is used for the first time.
+        return frameToPage[frameNumber];
+        
+    } // end getPageNumber
+    
+    
+    /**
+     * This will tell you if a particular page number is in a frame.
+     * 
+     * @param pageNumber - The page number in question.
+     * 
+     * @return - A boolean true if the page is in a frame, false otherwise.
+     */
+    public boolean isValid(int pageNumber) {
+        
+        return (table[pageNumber] & VALID_BIT) != 0;
+        
+    } // end isValid
+    
+    
+    /**
+     * This will mark a page as invalid or no longer residing in a frame.
+     * 
+     * @param pageNumber - The page number that is no longer in a frame.
+     */
+    public void markInvalid(int pageNumber) {
+        
+        int entry = table[pageNumber];
+        
+        // Only a valid page is still recorded against its frame.
+        if((entry & VALID_BIT) != 0) {
+            
+            frameToPage[entry & FRAME_MASK] = -1;
+            
+            if(tlb != null) {
+                
+                tlb.invalidate(asid, pageNumber);
+                
+            }
+            
+        }
+        
+        // The frame number is kept so toString can still say where it was.
+        table[pageNumber] = entry & ~VALID_BIT;
+        
+    } // end clearFrame
+    
+    
+    /**
+     * This method marks a page as being loaded into a particular frame.
+     * 
+     * @param pageNumber - The page number that has been loaded.
+     * 
+     * @param frameNumber - The frame in which it resides.
+     */
+    public void addPageToFrame(int pageNumber, int frameNumber) {
+        
+        // A freshly loaded page keeps its protection.
+        table[pageNumber] = VALID_BIT | (table[pageNumber] & PROTECTION_MASK) | frameNumber;
+        frameToPage[frameNumber] = pageNumber;
+        
+    } // end updateFrame
+    
+    
+    /**
+     * This method records the frame a page was read ahead into without making it valid,
+     * so its first access still faults and getLastFrameNumber can find it.
+     * 
+     * @param pageNumber - The page that has been read ahead.
+     * 
+     * @param frameNumber - The frame in which it resides.
+     */
+    public void addPrefetchedPage(int pageNumber, int frameNumber) {
+        
+        table[pageNumber] = (table[pageNumber] & PROTECTION_MASK) | frameNumber;
+        
+    } // end addPrefetchedPage
+    
+    
+    /**
+     * This will return the protection bits of a page.
+     * 
+     * @param pageNumber - The page number in question.
+     * 
+     * @return - Some combination of READ and WRITE.
+     */
+    public int getProtection(int pageNumber) {
+        
+        return (table[pageNumber] & PROTECTION_MASK) >>> PROTECTION_SHIFT;
+        
+    } // end getProtection
+    
+    
+    /**
+     * This will set the protection bits of a page.
+     * 
+     * @param pageNumber - The page number to change.
+     * 
+     * @param protection - Some combination of READ and WRITE.
+     */
+    public void setProtection(int pageNumber, int protection) {
+        
+        table[pageNumber] = (table[pageNumber] & ~PROTECTION_MASK)
+                | ((protection << PROTECTION_SHIFT) & PROTECTION_MASK);
+                
+        // The TLB has the old protection cached with the translation.
+        if(tlb != null && (table[pageNumber] & VALID_BIT) != 0) {
+            
+            tlb.invalidate(asid, pageNumber);
+            
+        }
+        
+    } // end setProtection
+    
+    
+    /**
+     * This will return a String representation of the page table object.
+     */
+    @Override
+    public String toString() {
+        
+        String returnString = "";
+        
+        for(int i = 0 ; i < table.length ; i++) {
+            
+            int frame = table[i] & FRAME_MASK;
+            
+            returnString += "page " + i + " was in frame " + (frame == FRAME_MASK ? -1 : frame)
+                    + " is valid: " + (isValid(i) ? 1 : 0);
+                    
+        }
+        
+        return returnString;
+        
+    } // end toString
+    
 } // end PageTable
\ No newline at end of file
@@ -0,0 +1,102 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class records the page of every memory access in order, in a growable
+ * int array so recording never allocates per access. An array holds at most MAX_SIZE
+ * pages, accesses after that aren't recorded.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class PageTrace {
+    
+    final static int MAX_SIZE = Integer.MAX_VALUE - 8;  // The largest array the VM allows.
+    
+    private int[] pages;            // The recorded pages, only the first size are used.
+    private int size;               // Number of pages recorded.
+    private boolean full;           // Whether accesses have been dropped.
+    
+    
+    /**
+     * This will construct a new, empty page trace.
+     */
+    public PageTrace() {
+        
+        pages = new int[1024];
+        size = 0;
+        
+    } // end PageTrace constructor
+    
+    
+    /**
+     * This method records the page of one access.
+     * 
+     * @param pageNumber - The page that was accessed.
+     */
+    public void add(int pageNumber) {
+        
+        if(size == pages.length) {
+            
+            if(size == MAX_SIZE) {
+                
+                if(!full) {
+                    
+                    System.out.println("The page trace is full after " + MAX_SIZE
+                            + " accesses, later accesses won't be recorded.");
+                    full = true;
+                    
+                }
+                
+                return;
+                
+            }
+            
+            // Doubling would overflow past 2^30 pages, so stop at the largest array instead.
+            pages = Arrays.copyOf(pages, (int) Math.min((long) pages.length * 2, MAX_SIZE));
+            
+        }
+        
+        pages[size++] = pageNumber;
+        
+    } // end add
+    
+    
+    /**
+     * @param index - Which access, starting at 0.
+     * 
+     * @return - The page of that access.
+     */
+    public int get(int index) {
+        
+        return pages[index];
+        
+    } // end get
+    
+    
+    /**
+     * @return - The number of accesses recorded.
+     */
+    public int size() {
+        
+        return size;
+        
+    } // end size
+    
+    
+    /**
+     * @return - A copy of the recorded pages, exactly size long.
+     */
+    public int[] toArray() {
+        
+        return Arrays.copyOf(pages, size);
+        
+    } // end toArray
+    
+} // end PageTrace
\ No newline at end of file
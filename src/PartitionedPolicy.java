@@ -0,0 +1,172 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is local page replacement for several processes. Memory is split
+ * into an equal share of frames per process and each process runs its own copy of the
+ * underlying policy over just its frames. A process under its share takes a frame from
+ * whichever process is furthest over its own, otherwise it replaces one of its own pages,
+ * so one process thrashing can't push the others out of memory.
+ * 
+ * Pages are global page numbers, asid * pages per process + page, as every policy sees.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class PartitionedPolicy implements ReplacementPolicy {
+    
+    private MMUConfig baseConfig;                   // Builds each process's policy.
+    private int numPages;                           // Pages per process.
+    private int numFrames;                          // Frames shared by every process.
+    private ReplacementPolicy[] policies;           // Each process's policy, by ASID.
+    private int[] residentCount;                    // Frames each process holds, by ASID.
+    private int numProcesses;                       // Processes added so far.
+    private int[] frameOwner;                       // ASID holding each frame, -1 if none.
+    private int currentASID;                        // The running process, the one faulting.
+    
+    
+    /**
+     * This will construct a new local replacement policy with no processes yet.
+     * 
+     * @param baseConfig - The geometry and the policy each process runs, which must only
+     * look at the frames it has been given, LRU, FIFO or CLOCK.
+     */
+    public PartitionedPolicy(MMUConfig baseConfig) {
+        
+        this.baseConfig = baseConfig;
+        this.numPages = baseConfig.getNumberOfPages();
+        this.numFrames = baseConfig.getNumberOfFrames();
+        this.policies = new ReplacementPolicy[1];
+        this.residentCount = new int[1];
+        this.frameOwner = new int[numFrames];
+        
+        for(int i = 0 ; i < numFrames ; i++) {
+            
+            frameOwner[i] = -1;
+            
+        }
+        
+    } // end PartitionedPolicy constructor
+    
+    
+    /**
+     * This method gives a new process its own policy, ASIDs are handed out in order from 0.
+     * 
+     * @param asid - The new process.
+     */
+    public void addProcess(int asid) {
+        
+        if(asid >= policies.length) {
+            
+            policies = Arrays.copyOf(policies, Math.max(asid + 1, policies.length * 2));
+            residentCount = Arrays.copyOf(residentCount, policies.length);
+            
+        }
+        
+        while(numProcesses <= asid) {
+            
+            policies[numProcesses++] = baseConfig.createReplacementPolicy();
+            
+        }
+        
+    } // end addProcess
+    
+    
+    /**
+     * This method is told whenever a different process starts running, its faults are
+     * the ones that need frames next.
+     * 
+     * @param asid - The running process.
+     */
+    public void setCurrentProcess(int asid) {
+        
+        currentASID = asid;
+        
+    } // end setCurrentProcess
+    
+    
+    /**
+     * This is a private method giving a process's share of memory, frames left over from
+     * an even split go to the lowest ASIDs.
+     * 
+     * @param asid - The process in question.
+     * 
+     * @return - The number of frames it is entitled to.
+     */
+    private int share(int asid) {
+        
+        return numFrames / numProcesses + (asid < numFrames % numProcesses ? 1 : 0);
+        
+    } // end share
+    
+    
+    @Override
+    public void pageLoaded(int pageNumber, int frameNumber) {
+        
+        int asid = pageNumber / numPages;
+        
+        frameOwner[frameNumber] = asid;
+        residentCount[asid]++;
+        policies[asid].pageLoaded(pageNumber, frameNumber);
+        
+    } // end pageLoaded
+    
+    
+    @Override
+    public void frameAccessed(int frameNumber) {
+        
+        policies[frameOwner[frameNumber]].frameAccessed(frameNumber);
+        
+    } // end frameAccessed
+    
+    
+    @Override
+    public int selectVictim() {
+        
+        int victimASID = currentASID;
+        
+        if(residentCount[currentASID] < share(currentASID)) {
+            
+            // Every frame is in use, so someone else must be over their share.
+            int mostOver = Integer.MIN_VALUE;
+            
+            for(int asid = 0 ; asid < numProcesses ; asid++) {
+                
+                int over = residentCount[asid] - share(asid);
+                
+                if(asid != currentASID && residentCount[asid] > 0 && over > mostOver) {
+                    
+                    mostOver = over;
+                    victimASID = asid;
+                    
+                }
+                
+            }
+            
+        }
+        
+        int victim = policies[victimASID].selectVictim();
+        
+        frameOwner[victim] = -1;
+        residentCount[victimASID]--;
+        
+        return victim;
+        
+    } // end selectVictim
+    
+    
+    @Override
+    public String toString() {
+        
+        return "Local " + (numProcesses > 0 ? policies[0] : "") + " for " + numProcesses
+                + " processes";
+                
+    } // end toString
+    
+} // end PartitionedPolicy
\ No newline at end of file
@@ -0,0 +1,71 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a workload with shifting working sets. Accesses are uniformly
+ * random within a window of the address space, and after every phase the window jumps
+ * somewhere new, which is how programs move between stages of their work.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class PhaseWorkload extends Workload {
+    
+    private int workingSetSize;     // Addresses in the window.
+    private long phaseLength;       // Accesses before the window moves.
+    private int windowStart;        // First address of the current window.
+    private long accessesLeft;      // Accesses left in the current phase.
+    
+    
+    /**
+     * This will construct a new phase shifting workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param workingSetSize - Addresses in each working set.
+     * 
+     * @param phaseLength - Accesses made before the working set moves.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed.
+     */
+    public PhaseWorkload(int numAddresses, int workingSetSize, long phaseLength,
+            int writePercent, long seed) {
+            
+        super(numAddresses, writePercent, seed);
+        this.workingSetSize = Math.max(1, Math.min(workingSetSize, numAddresses));
+        this.phaseLength = Math.max(1, phaseLength);
+        
+    } // end PhaseWorkload constructor
+    
+    
+    @Override
+    protected void resetPosition() {
+        
+        accessesLeft = 0;
+        
+    } // end resetPosition
+    
+    
+    @Override
+    public int nextAddress() {
+        
+        if(accessesLeft == 0) {
+            
+            windowStart = nextInt(numAddresses - workingSetSize + 1);
+            accessesLeft = phaseLength;
+            
+        }
+        
+        accessesLeft--;
+        
+        return windowStart + nextInt(workingSetSize);
+        
+    } // end nextAddress
+    
+} // end PhaseWorkload
\ No newline at end of file
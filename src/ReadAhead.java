@@ -0,0 +1,240 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class decides which pages to read in ahead of a fault. It follows a
+ * few streams of faults at once, and once two faults of a stream are the same number of
+ * pages apart it is treated as sequential, or strided, and the pages expected next are
+ * prefetched. Every time a prefetched page is used the window slides forward, doubling
+ * once a whole window has been used, and a prefetched page replaced before it was used
+ * halves it again.
+ * 
+ * Pages are global page numbers, the way the replacement policy sees them, so streams of
+ * different processes never mix.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class ReadAhead {
+    
+    final static int NUMBER_OF_STREAMS = 4;         // Streams followed at once.
+    final static int MAX_STRIDE = 64;               // Pages apart faults of a stream can be.
+    final static int INITIAL_WINDOW = 2;            // Pages read ahead of a new stream.
+    final static int MAX_WINDOW = 1024;             // Most pages any stream reads ahead.
+    
+    private final int maxWindow;                    // Pages a stream may read ahead.
+    private final int[] lastPage;                   // Each stream's last page used.
+    private final int[] stride;                     // Pages between its faults, 0 if unknown.
+    private final int[] nextPage;                   // The next page it would prefetch.
+    private final int[] window;                     // Pages it keeps read ahead.
+    private final int[] hits;                       // Prefetch hits since the window changed.
+    private final long[] lastUsed;                  // For replacing the least recent stream.
+    private final int[] pages;                      // What to prefetch, reused every fault.
+    private long clock;                             // Logical time, bumped every fault.
+    private long lastWasted;                        // Memory's wasted count last time.
+    
+    
+    /**
+     * This will construct a new read ahead engine following no streams yet.
+     * 
+     * @param maxWindow - The most pages a stream may read ahead, up to MAX_WINDOW.
+     */
+    public ReadAhead(int maxWindow) {
+        
+        this.maxWindow = Math.min(Math.max(maxWindow, 1), MAX_WINDOW);
+        
+        lastPage = new int[NUMBER_OF_STREAMS];
+        stride = new int[NUMBER_OF_STREAMS];
+        nextPage = new int[NUMBER_OF_STREAMS];
+        window = new int[NUMBER_OF_STREAMS];
+        hits = new int[NUMBER_OF_STREAMS];
+        lastUsed = new long[NUMBER_OF_STREAMS];
+        pages = new int[this.maxWindow];
+        
+        for(int s = 0 ; s < NUMBER_OF_STREAMS ; s++) {
+            
+            lastPage[s] = -1;
+            
+        }
+        
+    } // end ReadAhead constructor
+    
+    
+    /**
+     * This is a private method finding the stream a page continues, the page has to be a
+     * whole number of strides ahead of the stream and no further than it reads ahead.
+     * 
+     * @param page - The page that faulted.
+     * 
+     * @return - The stream, or -1 if it continues none.
+     */
+    private int findStream(int page) {
+        
+        for(int s = 0 ; s < NUMBER_OF_STREAMS ; s++) {
+            
+            int step = stride[s];
+            
+            if(step == 0) {
+                
+                continue;
+                
+            }
+            
+            // Both pages are non negative so this can't overflow, and a multiply rules
+            // nearly every fault out so only a few ever need the divide.
+            int distance = page - lastPage[s];
+            int reach = step * (window[s] + 1);
+            
+            if((step > 0 ? distance > 0 && distance <= reach : distance < 0 && distance >= reach)
+                    && distance % step == 0) {
+                    
+                return s;
+                
+            }
+            
+        }
+        
+        return -1;
+        
+    } // end findStream
+    
+    
+    /**
+     * This method is called on every fault, including the first access of a prefetched
+     * page, and works out what to read in ahead of it.
+     * 
+     * @param page - The page that faulted.
+     * 
+     * @param prefetchHit - True if the page had been prefetched, false if it must be read.
+     * 
+     * @param wasted - How many prefetched pages memory has replaced unused so far.
+     * 
+     * @return - How many pages to prefetch, found through getPage.
+     */
+    public int pageFaulted(int page, boolean prefetchHit, long wasted) {
+        
+        clock++;
+        int s = findStream(page);
+        
+        if(s >= 0) {
+            
+            // Waste means reading too far ahead, a full window of hits too little.
+            if(wasted > lastWasted) {
+                
+                window[s] = Math.max(window[s] / 2, 1);
+                hits[s] = 0;
+                
+            } else if(prefetchHit && ++hits[s] >= window[s]) {
+                
+                window[s] = Math.min(window[s] * 2, maxWindow);
+                hits[s] = 0;
+                
+            }
+            
+            lastWasted = wasted;
+            lastPage[s] = page;
+            lastUsed[s] = clock;
+            
+            // Carry on from what's already been read ahead, unless the stream jumped past it.
+            long ahead = ((long) nextPage[s] - page) / stride[s];
+            
+            if(ahead <= 0) {
+                
+                nextPage[s] = page + stride[s];
+                ahead = 1;
+                
+            }
+            
+            int count = 0;
+            
+            while(count < pages.length && ahead <= window[s]) {
+                
+                pages[count++] = nextPage[s];
+                nextPage[s] += stride[s];
+                ahead++;
+                
+            }
+            
+            return count;
+            
+        }
+        
+        lastWasted = wasted;
+        
+        if(prefetchHit) {
+            
+            return 0;
+            
+        }
+        
+        // A fault close to a stream that has only seen one gives it a stride, the next
+        // fault that far on again confirms it.
+        for(s = 0 ; s < NUMBER_OF_STREAMS ; s++) {
+            
+            long distance = (long) page - lastPage[s];
+            
+            if(lastPage[s] != -1 && stride[s] == 0 && distance != 0
+                    && Math.abs(distance) <= MAX_STRIDE) {
+                    
+                stride[s] = (int) distance;
+                lastPage[s] = page;
+                nextPage[s] = page + stride[s];
+                window[s] = Math.min(INITIAL_WINDOW, maxWindow);
+                hits[s] = 0;
+                lastUsed[s] = clock;
+                
+                return 0;
+                
+            }
+            
+        }
+        
+        // Otherwise the least recently used stream starts over from this page.
+        int victim = 0;
+        
+        for(s = 1 ; s < NUMBER_OF_STREAMS ; s++) {
+            
+            if(lastUsed[s] < lastUsed[victim]) {
+                
+                victim = s;
+                
+            }
+            
+        }
+        
+        lastPage[victim] = page;
+        stride[victim] = 0;
+        lastUsed[victim] = clock;
+        
+        return 0;
+        
+    } // end pageFaulted
+    
+    
+    /**
+     * @param index - Which of the pages from the last pageFaulted, starting at 0.
+     * 
+     * @return - The page to prefetch, it may be outside the address space or already in
+     * memory, that's for the caller to check.
+     */
+    public int getPage(int index) {
+        
+        return pages[index];
+        
+    } // end getPage
+    
+    
+    /**
+     * @return - The most pages a stream may read ahead.
+     */
+    public int getMaxWindow() {
+        
+        return maxWindow;
+        
+    } // end getMaxWindow
+    
+} // end ReadAhead
\ No newline at end of file
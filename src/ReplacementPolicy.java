@@ -0,0 +1,56 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This is the interface every page replacement policy implements. Memory calls the
+ * hooks as frames are loaded and accessed and asks the policy for a victim when no
+ * unused frame is left, so a new policy never has to touch the MMU itself.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public interface ReplacementPolicy {
+    
+    /**
+     * Called after a page has been brought into a frame, the frame now holds a page the
+     * policy should consider for replacement.
+     * 
+     * @param pageNumber - The page that was loaded.
+     * 
+     * @param frameNumber - The frame it was loaded into.
+     */
+    void pageLoaded(int pageNumber, int frameNumber);
+    
+    /**
+     * Called on every read or write of a frame, this is the hot path so keep it cheap.
+     * 
+     * @param frameNumber - The frame that was accessed.
+     */
+    void frameAccessed(int frameNumber);
+    
+    /**
+     * Called when a page fault needs a frame and none are unused. The chosen frame is no
+     * longer considered by the policy until it is loaded again.
+     * 
+     * @return - The frame to replace.
+     */
+    int selectVictim();
+    
+    /**
+     * Whether frameAccessed may be called from several threads at once, and while another
+     * thread is in selectVictim, without a lock. Only true for a policy whose frameAccessed
+     * sets nothing but the accessed frame's own state, see ConcurrentMMU.
+     * 
+     * @return - A boolean true if hits can skip the policy's lock, false by default.
+     */
+    default boolean isAccessThreadSafe() {
+        
+        return false;
+        
+    } // end isAccessThreadSafe
+    
+} // end ReplacementPolicy Interface
\ No newline at end of file
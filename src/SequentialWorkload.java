@@ -0,0 +1,54 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a workload sweeping every address in order, wrapping back to
+ * the start at the end of the address space.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class SequentialWorkload extends Workload {
+    
+    private int position;           // The next address.
+    
+    
+    /**
+     * This will construct a new sequential workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed, only used to pick reads and writes.
+     */
+    public SequentialWorkload(int numAddresses, int writePercent, long seed) {
+        
+        super(numAddresses, writePercent, seed);
+        
+    } // end SequentialWorkload constructor
+    
+    
+    @Override
+    protected void resetPosition() {
+        
+        position = 0;
+        
+    } // end resetPosition
+    
+    
+    @Override
+    public int nextAddress() {
+        
+        int address = position;
+        position = (position + 1 == numAddresses) ? 0 : position + 1;
+        
+        return address;
+        
+    } // end nextAddress
+    
+} // end SequentialWorkload
\ No newline at end of file
@@ -0,0 +1,126 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents a simulated process, an address space with its own
+ * page table and its own pages on the file system, told apart from the others by its
+ * address space ID. Every process shares the same physical memory.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class SimProcess {
+    
+    private int asid;               // The address space ID.
+    private PageTable pageTable;    // Which of this process's pages are in which frames.
+    private FileSystem fileSystem;  // This process's virtual pages.
+    private int numPageFaults;      // Faults on this process's pages.
+    private long numAccesses;       // Reads and writes made by this process.
+    
+    
+    /**
+     * This will construct a new process with an empty address space.
+     * 
+     * @param asid - The address space ID.
+     * 
+     * @param numPages - The number of virtual pages.
+     * 
+     * @param numFrames - The number of physical frames shared by every process.
+     * 
+     * @param fileSystem - Where the process's pages are stored.
+     */
+    public SimProcess(int asid, int numPages, int numFrames, FileSystem fileSystem) {
+        
+        this.asid = asid;
+        this.pageTable = new PageTable(numPages, numFrames);
+        this.fileSystem = fileSystem;
+        
+    } // end SimProcess constructor
+    
+    
+    /**
+     * @return - The address space ID.
+     */
+    public int getASID() {
+        
+        return asid;
+        
+    } // end getASID
+    
+    
+    /**
+     * @return - The process's page table.
+     */
+    public PageTable getPageTable() {
+        
+        return pageTable;
+        
+    } // end getPageTable
+    
+    
+    /**
+     * @return - Where the process's pages are stored.
+     */
+    public FileSystem getFileSystem() {
+        
+        return fileSystem;
+        
+    } // end getFileSystem
+    
+    
+    /**
+     * This method counts a read or write made by the process.
+     */
+    public void countAccess() {
+        
+        numAccesses++;
+        
+    } // end countAccess
+    
+    
+    /**
+     * This method counts a page fault on one of the process's pages.
+     */
+    public void countPageFault() {
+        
+        numPageFaults++;
+        
+    } // end countPageFault
+    
+    
+    /**
+     * @return - The number of faults on this process's pages.
+     */
+    public int getPageFaults() {
+        
+        return numPageFaults;
+        
+    } // end getPageFaults
+    
+    
+    /**
+     * @return - The number of reads and writes made by this process.
+     */
+    public long getAccesses() {
+        
+        return numAccesses;
+        
+    } // end getAccesses
+    
+    
+    /**
+     * This method returns a String representation of the process.
+     */
+    @Override
+    public String toString() {
+        
+        return "Process " + asid + ": " + numPageFaults + " page faults in " + numAccesses
+                + " accesses";
+                
+    } // end toString
+    
+} // end SimProcess
\ No newline at end of file
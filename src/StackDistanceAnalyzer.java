@@ -0,0 +1,252 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class finds the LRU page faults for every memory size in one pass over
+ * a page reference trace. LRU is a stack algorithm, memory of m frames always holds the
+ * m most recently used pages, so an access faults exactly when its stack distance (the
+ * number of distinct pages touched since the last access to the same page, counting
+ * itself) is more than m. Counting the distances once gives the whole miss ratio curve.
+ * 
+ * Distances are counted with a Fenwick tree over access positions holding a 1 at the
+ * latest access of each page. When the positions run out the live ones are packed down,
+ * so the tree never grows past twice the number of pages and each access is O(log pages).
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class StackDistanceAnalyzer {
+    
+    private int[] tree;             // Fenwick tree over positions, 1 marks a latest access.
+    private int[] pageAt;           // The page accessed at each position.
+    private int[] lastPosition;     // Position of each page's latest access, 0 if never.
+    private int position;           // The last position handed out.
+    private long[] distanceCounts;  // Accesses seen at each stack distance, 1 up to pages.
+    private long coldMisses;        // First accesses, which fault at every memory size.
+    private long numAccesses;       // Accesses analyzed so far.
+    
+    
+    /**
+     * This will construct a new analyzer.
+     * 
+     * @param numPages - The number of virtual pages, every page number must be below it.
+     */
+    public StackDistanceAnalyzer(int numPages) {
+        
+        int capacity = 2 * numPages + 1;
+        
+        tree = new int[capacity + 1];
+        pageAt = new int[capacity + 1];
+        lastPosition = new int[numPages];
+        distanceCounts = new long[numPages + 1];
+        
+    } // end StackDistanceAnalyzer constructor
+    
+    
+    /**
+     * This method analyzes a whole trace.
+     * 
+     * @param pageTrace - The page of every access, in order.
+     * 
+     * @param numPages - The number of virtual pages.
+     * 
+     * @return - The analyzer holding the results.
+     */
+    public static StackDistanceAnalyzer analyze(int[] pageTrace, int numPages) {
+        
+        StackDistanceAnalyzer analyzer = new StackDistanceAnalyzer(numPages);
+        
+        for(int page : pageTrace) {
+            
+            analyzer.access(page);
+            
+        }
+        
+        return analyzer;
+        
+    } // end analyze
+    
+    
+    /**
+     * This method counts the next access in the trace.
+     * 
+     * @param page - The page accessed.
+     */
+    public void access(int page) {
+        
+        if(position + 1 == tree.length) {
+            
+            compact();
+            
+        }
+        
+        int last = lastPosition[page];
+        numAccesses++;
+        
+        if(last == 0) {
+            
+            coldMisses++;
+            
+        } else {
+            
+            // Latest accesses after this page's, plus the page itself.
+            int distance = sum(position) - sum(last) + 1;
+            distanceCounts[distance]++;
+            add(last, -1);
+            
+        }
+        
+        position++;
+        add(position, 1);
+        pageAt[position] = page;
+        lastPosition[page] = position;
+        
+    } // end access
+    
+    
+    /**
+     * This will return the number of faults LRU makes with the specified memory size.
+     * 
+     * @param numFrames - The number of frames.
+     * 
+     * @return - The page faults, first accesses included.
+     */
+    public long getFaults(int numFrames) {
+        
+        long faults = coldMisses;
+        
+        for(int distance = Math.max(numFrames, 0) + 1 ; distance < distanceCounts.length ;
+                distance++) {
+                
+            faults += distanceCounts[distance];
+            
+        }
+        
+        return faults;
+        
+    } // end getFaults
+    
+    
+    /**
+     * This will return the LRU page faults for every memory size at once.
+     * 
+     * @return - The page faults, indexed by number of frames from 0 up to the number of pages.
+     */
+    public long[] getFaultCurve() {
+        
+        long[] faults = new long[distanceCounts.length];
+        faults[faults.length - 1] = coldMisses;
+        
+        for(int frames = faults.length - 2 ; frames >= 0 ; frames--) {
+            
+            faults[frames] = faults[frames + 1] + distanceCounts[frames + 1];
+            
+        }
+        
+        return faults;
+        
+    } // end getFaultCurve
+    
+    
+    /**
+     * This will return the fraction of accesses that fault with the specified memory size.
+     * 
+     * @param numFrames - The number of frames.
+     * 
+     * @return - The miss ratio, 0 if nothing has been analyzed.
+     */
+    public double getMissRatio(int numFrames) {
+        
+        return numAccesses == 0 ? 0 : (double) getFaults(numFrames) / numAccesses;
+        
+    } // end getMissRatio
+    
+    
+    /**
+     * @return - The number of accesses analyzed.
+     */
+    public long getNumberOfAccesses() {
+        
+        return numAccesses;
+        
+    } // end getNumberOfAccesses
+    
+    
+    /**
+     * This is a private method packing the latest access of each page down to the first
+     * positions, in the same order, and rebuilding the tree to match.
+     */
+    private void compact() {
+        
+        int live = 0;
+        
+        for(int i = 1 ; i <= position ; i++) {
+            
+            int page = pageAt[i];
+            
+            if(lastPosition[page] == i) {
+                
+                live++;
+                pageAt[live] = page;
+                lastPosition[page] = live;
+                
+            }
+            
+        }
+        
+        // Every position up to live is marked, node i covers (i - lowbit(i), i].
+        for(int i = 1 ; i < tree.length ; i++) {
+            
+            tree[i] = Math.max(0, Math.min(i, live) - (i - (i & -i)));
+            
+        }
+        
+        position = live;
+        
+    } // end compact
+    
+    
+    /**
+     * This is a private method adding to the mark at a position.
+     * 
+     * @param index - The position.
+     * 
+     * @param delta - What to add.
+     */
+    private void add(int index, int delta) {
+        
+        for(int i = index ; i < tree.length ; i += i & -i) {
+            
+            tree[i] += delta;
+            
+        }
+        
+    } // end add
+    
+    
+    /**
+     * This is a private method counting the marks up to a position.
+     * 
+     * @param index - The last position counted.
+     * 
+     * @return - The number of marked positions from 1 up to index.
+     */
+    private int sum(int index) {
+        
+        int total = 0;
+        
+        for(int i = index ; i > 0 ; i -= i & -i) {
+            
+            total += tree[i];
+            
+        }
+        
+        return total;
+        
+    } // end sum
+    
+} // end StackDistanceAnalyzer
\ No newline at end of file
@@ -0,0 +1,60 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a workload stepping through the address space a fixed stride
+ * at a time, wrapping around at the end.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class StridedWorkload extends Workload {
+    
+    private int stride;             // Addresses between one access and the next.
+    private int position;           // The next address.
+    
+    
+    /**
+     * This will construct a new strided workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param stride - Addresses between one access and the next.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed, only used to pick reads and writes.
+     */
+    public StridedWorkload(int numAddresses, int stride, int writePercent, long seed) {
+        
+        super(numAddresses, writePercent, seed);
+        this.stride = stride % numAddresses;
+        
+    } // end StridedWorkload constructor
+    
+    
+    @Override
+    protected void resetPosition() {
+        
+        position = 0;
+        
+    } // end resetPosition
+    
+    
+    @Override
+    public int nextAddress() {
+        
+        int address = position;
+        
+        // Done in long so a large stride can't overflow past the wrap.
+        position = (int) (((long) position + stride) % numAddresses);
+        
+        return address;
+        
+    } // end nextAddress
+    
+} // end StridedWorkload
\ No newline at end of file
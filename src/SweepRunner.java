@@ -0,0 +1,512 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class runs the same workload against many frame counts and policies at
+ * once, one independent MMU per combination spread over a thread pool, and reports the
+ * page faults of each as a faults versus frames table and CSV. The MMUs share nothing but
+ * the read only trace, or build their own copy of the synthetic workload.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SweepRunner {
+    
+    private MMUConfig baseConfig;       // Geometry shared by every run, frames aside.
+    private TraceReader trace;          // The trace to replay, or null for the workload.
+    private String workloadName;        // The synthetic workload, used when trace is null.
+    private long numAccesses;           // Accesses the workload makes.
+    private long seed;                  // Seed of the workload.
+    private int writePercent;           // Chance out of 100 a workload access is a write.
+    private int[] pageTrace;            // Pages of every access, recorded once for OPT.
+    
+    
+    /**
+     * This will construct a sweep replaying a trace.
+     * 
+     * @param baseConfig - The geometry, the frames and policy are set per run.
+     * 
+     * @param trace - The trace every run replays.
+     */
+    public SweepRunner(MMUConfig baseConfig, TraceReader trace) {
+        
+        this.baseConfig = new MMUConfig(baseConfig);
+        this.baseConfig.setOutputFile(null);
+        this.trace = trace;
+        
+    } // end SweepRunner constructor
+    
+    
+    /**
+     * This will construct a sweep running a synthetic workload, every run builds its own
+     * copy from the same seed.
+     * 
+     * @param baseConfig - The geometry, the frames and policy are set per run.
+     * 
+     * @param workloadName - The workload, see Workload.create.
+     * 
+     * @param numAccesses - Accesses the workload makes.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed.
+     */
+    public SweepRunner(MMUConfig baseConfig, String workloadName, long numAccesses,
+            int writePercent, long seed) {
+            
+        this.baseConfig = new MMUConfig(baseConfig);
+        this.baseConfig.setOutputFile(null);
+        this.workloadName = workloadName;
+        this.numAccesses = numAccesses;
+        this.writePercent = writePercent;
+        this.seed = seed;
+        
+    } // end SweepRunner constructor
+    
+    
+    /**
+     * This method runs every combination of frame count and policy.
+     * 
+     * @param frameCounts - The frame counts to try.
+     * 
+     * @param policies - The policies to try, names from MMUHardware.
+     * 
+     * @param numThreads - How many runs go at once.
+     * 
+     * @return - The page faults, indexed by policy then frame count.
+     * 
+     * @throws InterruptedException - If interrupted waiting for the runs.
+     * 
+     * @throws ExecutionException - If any run failed.
+     */
+    public long[][] run(int[] frameCounts, String[] policies, int numThreads)
+            throws InterruptedException, ExecutionException {
+            
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        
+        try {
+            
+            // The pages accessed don't depend on the frames, so OPT's trace is shared.
+            for(String policy : policies) {
+                
+                if(policy.equals(MMUHardware.OPT) && pageTrace == null) {
+                    
+                    pageTrace = pool.submit(() -> recordPageTrace()).get();
+                    
+                }
+                
+            }
+            
+            List<List<Future<Integer>>> futures = new ArrayList<>();
+            
+            for(String policy : policies) {
+                
+                List<Future<Integer>> row = new ArrayList<>();
+                
+                for(int frames : frameCounts) {
+                    
+                    row.add(pool.submit(() -> runOne(frames, policy)));
+                    
+                }
+                
+                futures.add(row);
+                
+            }
+            
+            long[][] faults = new long[policies.length][frameCounts.length];
+            
+            for(int p = 0 ; p < policies.length ; p++) {
+                
+                for(int f = 0 ; f < frameCounts.length ; f++) {
+                    
+                    faults[p][f] = futures.get(p).get(f).get();
+                    
+                }
+                
+            }
+            
+            return faults;
+            
+        } finally {
+            
+            pool.shutdownNow();
+            
+        }
+        
+    } // end run
+    
+    
+    /**
+     * This is a private method running one MMU to the end of the workload.
+     * 
+     * @param frames - The number of frames.
+     * 
+     * @param policy - The replacement policy.
+     * 
+     * @return - The number of page faults.
+     */
+    private int runOne(int frames, String policy) {
+        
+        MMUConfig config = new MMUConfig(baseConfig);
+        config.setNumberOfFrames(frames);
+        config.setReplacementMethod(policy);
+        config.setPageTrace(pageTrace);
+        
+        MMUHardware mmu = new MMUHardware(config);
+        drive(mmu);
+        
+        return mmu.getTotalPageFaults();
+        
+    } // end runOne
+    
+    
+    /**
+     * This is a private method recording the page of every access for OPT.
+     * 
+     * @return - The page of every access, in order.
+     */
+    private int[] recordPageTrace() {
+        
+        MMUConfig config = new MMUConfig(baseConfig);
+        config.setReplacementMethod(MMUHardware.FIFO);
+        
+        PageTrace pages = new PageTrace();
+        MMUHardware recorder = new MMUHardware(config);
+        recorder.setPageTrace(pages);
+        drive(recorder);
+        
+        return pages.toArray();
+        
+    } // end recordPageTrace
+    
+    
+    /**
+     * This is a private method putting an MMU through the trace or a fresh copy of the
+     * workload.
+     * 
+     * @param mmu - The MMU to drive.
+     */
+    private void drive(MMUHardware mmu) {
+        
+        if(trace != null) {
+            
+            trace.replay(mmu);
+            
+        } else {
+            
+            Workload.create(workloadName, baseConfig, writePercent, seed).run(mmu, numAccesses);
+            
+        }
+        
+    } // end drive
+    
+    
+    /**
+     * This method prints the faults versus frames table.
+     * 
+     * @param frameCounts - The frame counts tried.
+     * 
+     * @param policies - The policies tried.
+     * 
+     * @param faults - The page faults, indexed by policy then frame count.
+     */
+    public static void printTable(int[] frameCounts, String[] policies, long[][] faults) {
+        
+        String line = String.format("%10s", "frames");
+        
+        for(String policy : policies) {
+            
+            line += String.format(" %12s", policy);
+            
+        }
+        
+        System.out.println(line);
+        
+        for(int f = 0 ; f < frameCounts.length ; f++) {
+            
+            line = String.format("%10d", frameCounts[f]);
+            
+            for(int p = 0 ; p < policies.length ; p++) {
+                
+                line += String.format(" %12d", faults[p][f]);
+                
+            }
+            
+            System.out.println(line);
+            
+        }
+        
+    } // end printTable
+    
+    
+    /**
+     * This method writes the faults versus frames table as CSV, one row per frame count.
+     * 
+     * @param fileName - The file to write.
+     * 
+     * @param frameCounts - The frame counts tried.
+     * 
+     * @param policies - The policies tried.
+     * 
+     * @param faults - The page faults, indexed by policy then frame count.
+     * 
+     * @throws IOException - If the file can't be written.
+     */
+    public static void writeCSV(String fileName, int[] frameCounts, String[] policies,
+            long[][] faults) throws IOException {
+            
+        try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
+            
+            out.print("frames");
+            
+            for(String policy : policies) {
+                
+                out.print("," + policy);
+                
+            }
+            
+            out.println();
+            
+            for(int f = 0 ; f < frameCounts.length ; f++) {
+                
+                out.print(frameCounts[f]);
+                
+                for(int p = 0 ; p < policies.length ; p++) {
+                    
+                    out.print("," + faults[p][f]);
+                    
+                }
+                
+                out.println();
+                
+            }
+            
+        }
+        
+    } // end writeCSV
+    
+    
+    public static void main(String[] args) {
+        
+        MMUConfig config = new MMUConfig();
+        String traceFile = null;
+        String workloadName = Workload.ZIPF;
+        String csvFile = "sweep.csv";
+        String[] policies = MMUHardware.POLICIES;
+        int[] frameCounts = null;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        long numAccesses = 1000000;
+        long seed = 1;
+        int writePercent = 30;
+        
+        try {
+            
+            for(int i = 0 ; i < args.length ; i += 2) {
+                
+                if(i + 1 >= args.length) {
+                    
+                    printUsage();
+                    System.exit(-1); // CRASH!
+                    
+                }
+                
+                String value = args[i + 1];
+                
+                switch (args[i]) {
+                    
+                    case "-trace":      traceFile = value;
+                                        break;
+                                        
+                    case "-workload":   workloadName = value;
+                                        break;
+                                        
+                    case "-accesses":   numAccesses = Long.parseLong(value);
+                                        break;
+                                        
+                    case "-seed":       seed = Long.parseLong(value);
+                                        break;
+                                        
+                    case "-writes":     writePercent = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-pages":      config.setNumberOfPages(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-pagesize":   config.setPageSize(Integer.parseInt(value));
+                                        break;
+                                        
+                    case "-frames":     frameCounts = parseFrameCounts(value);
+                                        break;
+                                        
+                    case "-policies":   policies = value.toUpperCase().split(",");
+                                        break;
+                                        
+                    case "-threads":    numThreads = Integer.parseInt(value);
+                                        break;
+                                        
+                    case "-csv":        csvFile = value;
+                                        break;
+                                        
+                    default:            printUsage();
+                                        System.exit(-1); // CRASH!
+                                        
+                } // end switch
+                
+            }
+            
+        } catch(NumberFormatException e) {
+            
+            System.out.println("Expected a number: " + e.getMessage());
+            System.exit(-1); // CRASH!
+            
+        }
+        
+        // By default every power of two up to the number of pages.
+        if(frameCounts == null) {
+            
+            frameCounts = new int[32 - Integer.numberOfLeadingZeros(config.getNumberOfPages())];
+            
+            for(int i = 0 ; i < frameCounts.length ; i++) {
+                
+                frameCounts[i] = 1 << i;
+                
+            }
+            
+        }
+        
+        for(String policy : policies) {
+            
+            MMUConfig checkConfig = new MMUConfig(config);
+            checkConfig.setReplacementMethod(policy.equals(MMUHardware.OPT)
+                    ? MMUHardware.FIFO : policy);
+                    
+            if(!checkConfig.isValid() || frameCounts.length == 0 || numThreads <= 0
+                    || Workload.create(workloadName, config, writePercent, seed) == null) {
+                    
+                System.out.println("Invalid sweep: " + config + ", " + policy + ", "
+                        + workloadName);
+                System.exit(-1); // CRASH!
+                
+            }
+            
+        }
+        
+        try {
+            
+            SweepRunner sweep;
+            
+            if(traceFile != null) {
+                
+                sweep = new SweepRunner(config, new TraceReader(traceFile));
+                
+            } else {
+                
+                sweep = new SweepRunner(config, workloadName, numAccesses, writePercent, seed);
+                
+            }
+            
+            long start = System.nanoTime();
+            long[][] faults = sweep.run(frameCounts, policies, numThreads);
+            long elapsed = System.nanoTime() - start;
+            
+            printTable(frameCounts, policies, faults);
+            writeCSV(csvFile, frameCounts, policies, faults);
+            
+            System.out.println("\n" + (frameCounts.length * policies.length) + " runs on "
+                    + numThreads + " threads in " + (elapsed / 1000000) + " ms, written to "
+                    + csvFile);
+                    
+        } catch(IOException | InterruptedException | ExecutionException e) {
+            
+            System.out.println("Sweep failed: " + e.getMessage());
+            System.exit(-1); // CRASH!
+            
+        }
+        
+    } // end main
+    
+    
+    /**
+     * This is a private method reading a frame count list, either "4,8,16" or a range
+     * "min:max:step".
+     * 
+     * @param value - The list.
+     * 
+     * @return - The frame counts.
+     */
+    private static int[] parseFrameCounts(String value) {
+        
+        if(value.contains(":")) {
+            
+            String[] parts = value.split(":");
+            int min = Integer.parseInt(parts[0]);
+            int max = Integer.parseInt(parts[1]);
+            int step = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+            
+            if(min <= 0 || max < min || step <= 0) {
+                
+                return new int[0];
+                
+            }
+            
+            int[] frameCounts = new int[(max - min) / step + 1];
+            
+            for(int i = 0 ; i < frameCounts.length ; i++) {
+                
+                frameCounts[i] = min + i * step;
+                
+            }
+            
+            return frameCounts;
+            
+        }
+        
+        String[] parts = value.split(",");
+        int[] frameCounts = new int[parts.length];
+        
+        for(int i = 0 ; i < parts.length ; i++) {
+            
+            frameCounts[i] = Integer.parseInt(parts[i]);
+            
+        }
+        
+        return frameCounts;
+        
+    } // end parseFrameCounts
+    
+    
+    /**
+     * This method prints the command line options.
+     */
+    private static void printUsage() {
+        
+        System.out.println("Usage: java SweepRunner [options]");
+        System.out.println("  -trace FILE         Replay a binary trace.");
+        System.out.println("  -workload NAME      Or run a synthetic workload (default ZIPF).");
+        System.out.println("  -accesses N         Accesses the workload makes (default 1000000).");
+        System.out.println("  -seed N             Workload random seed (default 1).");
+        System.out.println("  -writes N           Percent of workload accesses that write (default 30).");
+        System.out.println("  -pages N            Number of virtual pages (default 16).");
+        System.out.println("  -pagesize N         Addresses per page (default 1024).");
+        System.out.println("  -frames LIST        Frame counts, 4,8,16 or min:max:step (default powers of 2).");
+        System.out.println("  -policies LIST      Policies to compare (default all).");
+        System.out.println("  -threads N          Runs at once (default one per core).");
+        System.out.println("  -csv FILE           Where the CSV goes (default sweep.csv).");
+        
+    } // end printUsage
+    
+} // end SweepRunner
\ No newline at end of file
@@ -0,0 +1,443 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class represents a translation lookaside buffer, a small set
+ * associative cache of page to frame translations that sits in front of the page table.
+ * Every entry is tagged with the address space ID of its process, so translations of
+ * different processes live side by side and a context switch needs no flush. Like the
+ * page table entry it caches, an entry holds the page's protection bits next to its
+ * frame, so a write that hits needs nothing from the page table to be checked.
+ * 
+ * Entries are found through an open addressed hash table keyed by address space and
+ * page rather than by searching their set, so a lookup costs the same however many ways
+ * there are, fully associative included. Each set keeps its ways on a recency list, the
+ * one to replace at the head, so a fill never searches the set either.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class TLB {
+    
+    final static int LRU = 0;                       // Replace the least recently used way.
+    final static int FIFO = 1;                      // Replace the oldest filled way.
+    
+    private int[] pages;            // The page cached in each entry, -1 if empty.
+    private int[] asids;            // The address space each entry's page belongs to.
+    private int[] frames;           // Its frame, protection packed above as in PageTable.
+    private int[] index;            // Hash table of entries by asid and page, -1 if free.
+    private int indexMask;          // index.length - 1, its length is a power of 2.
+    private int[] olderEntry;       // The entry before each on its set's list, -1 at head.
+    private int[] newerEntry;       // The entry after each on its set's list, -1 at tail.
+    private int[] oldestEntry;      // Head of each set's list, empty ways and then victims.
+    private int[] newestEntry;      // Tail of each set's list, the latest filled or used.
+    private int numSets;            // Number of sets, entries are grouped set by set.
+    private int setMask;            // numSets - 1 when numSets is a power of 2, else -1.
+    private int ways;               // Entries per set.
+    private int replacementMethod;  // Either LRU or FIFO.
+    private long hits;              // Translations found in the TLB.
+    private long misses;            // Translations that had to go to the page table.
+    
+    
+    /**
+     * This will construct a new, empty TLB.
+     * 
+     * @param size - The total number of entries.
+     * 
+     * @param associativity - Entries per set, 0 or size for fully associative.
+     * 
+     * @param method - The replacement used within a set, LRU or FIFO.
+     */
+    public TLB(int size, int associativity, int method) {
+        
+        ways = (associativity <= 0 || associativity > size) ? size : associativity;
+        numSets = size / ways;
+        setMask = (numSets & (numSets - 1)) == 0 ? numSets - 1 : -1;
+        replacementMethod = method;
+        
+        pages = new int[numSets * ways];
+        asids = new int[numSets * ways];
+        frames = new int[numSets * ways];
+        olderEntry = new int[numSets * ways];
+        newerEntry = new int[numSets * ways];
+        oldestEntry = new int[numSets];
+        newestEntry = new int[numSets];
+        
+        // At most half full, so probe sequences stay short.
+        index = new int[Integer.highestOneBit(Math.max(pages.length, 1)) * 4];
+        indexMask = index.length - 1;
+        
+        flush();
+        
+    } // end TLB constructor
+    
+    
+    /**
+     * This is a private method returning the set a page maps to.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param pageNumber - The page in question.
+     * 
+     * @return - The set number.
+     */
+    private int setOf(int asid, int pageNumber) {
+        
+        // Spread the same page of different processes over different sets.
+        int key = pageNumber ^ (asid * 0x9E3779B1);
+        
+        return setMask >= 0 ? key & setMask : Math.floorMod(key, numSets);
+        
+    } // end setOf
+    
+    
+    /**
+     * This is a private method returning where a page's probe sequence starts in the
+     * index.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param pageNumber - The page in question.
+     * 
+     * @return - Its home slot in the index.
+     */
+    private int homeSlot(int asid, int pageNumber) {
+        
+        int hash = pageNumber * 0x9E3779B1 ^ asid * 0x85EBCA6B;
+        
+        return (hash ^ (hash >>> 16)) & indexMask;
+        
+    } // end homeSlot
+    
+    
+    /**
+     * This is a private method finding the entry caching a page.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param pageNumber - The page in question.
+     * 
+     * @return - The entry, or -1 if the page isn't cached.
+     */
+    private int find(int asid, int pageNumber) {
+        
+        for(int slot = homeSlot(asid, pageNumber) ; ; slot = (slot + 1) & indexMask) {
+            
+            int entry = index[slot];
+            
+            if(entry == -1 || (pages[entry] == pageNumber && asids[entry] == asid)) {
+                
+                return entry;
+                
+            }
+            
+        }
+        
+    } // end find
+    
+    
+    /**
+     * This is a private method taking an entry out of the index, shifting back any entry
+     * after it that could no longer be found past the hole.
+     * 
+     * @param entry - A filled entry, still holding its page.
+     */
+    private void removeFromIndex(int entry) {
+        
+        int hole = homeSlot(asids[entry], pages[entry]);
+        
+        while(index[hole] != entry) {
+            
+            hole = (hole + 1) & indexMask;
+            
+        }
+        
+        for(int slot = (hole + 1) & indexMask ; index[slot] != -1 ;
+                slot = (slot + 1) & indexMask) {
+                
+            int other = index[slot];
+            int home = homeSlot(asids[other], pages[other]);
+            
+            // Move it back unless its home lies between the hole and where it is.
+            if(((slot - home) & indexMask) >= ((slot - hole) & indexMask)) {
+                
+                index[hole] = other;
+                hole = slot;
+                
+            }
+            
+        }
+        
+        index[hole] = -1;
+        
+    } // end removeFromIndex
+    
+    
+    /**
+     * This is a private method taking an entry off its set's recency list.
+     * 
+     * @param set - The entry's set.
+     * 
+     * @param entry - The entry to unlink.
+     */
+    private void unlink(int set, int entry) {
+        
+        int older = olderEntry[entry];
+        int newer = newerEntry[entry];
+        
+        if(older == -1) {
+            
+            oldestEntry[set] = newer;
+            
+        } else {
+            
+            newerEntry[older] = newer;
+            
+        }
+        
+        if(newer == -1) {
+            
+            newestEntry[set] = older;
+            
+        } else {
+            
+            olderEntry[newer] = older;
+            
+        }
+        
+    } // end unlink
+    
+    
+    /**
+     * This is a private method putting an entry at the newest end of its set's list.
+     * 
+     * @param set - The entry's set.
+     * 
+     * @param entry - The entry, not on the list.
+     */
+    private void linkNewest(int set, int entry) {
+        
+        olderEntry[entry] = newestEntry[set];
+        newerEntry[entry] = -1;
+        
+        if(newestEntry[set] == -1) {
+            
+            oldestEntry[set] = entry;
+            
+        } else {
+            
+            newerEntry[newestEntry[set]] = entry;
+            
+        }
+        
+        newestEntry[set] = entry;
+        
+    } // end linkNewest
+    
+    
+    /**
+     * This is a private method putting an entry at the oldest end of its set's list, where
+     * an emptied way waits to be filled first.
+     * 
+     * @param set - The entry's set.
+     * 
+     * @param entry - The entry, not on the list.
+     */
+    private void linkOldest(int set, int entry) {
+        
+        newerEntry[entry] = oldestEntry[set];
+        olderEntry[entry] = -1;
+        
+        if(oldestEntry[set] == -1) {
+            
+            newestEntry[set] = entry;
+            
+        } else {
+            
+            olderEntry[oldestEntry[set]] = entry;
+            
+        }
+        
+        oldestEntry[set] = entry;
+        
+    } // end linkOldest
+    
+    
+    /**
+     * This method looks up the frame a page translates to, and what the page allows.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param pageNumber - The page in question.
+     * 
+     * @return - On a hit the frame number, with the protection bits above it at
+     * PageTable.PROTECTION_SHIFT, -1 on a miss.
+     */
+    public int lookup(int asid, int pageNumber) {
+        
+        int entry = find(asid, pageNumber);
+        
+        if(entry == -1) {
+            
+            misses++;
+            return -1;
+            
+        }
+        
+        hits++;
+        
+        // FIFO keeps the order entries were filled in, hits don't change it.
+        if(replacementMethod == LRU && newerEntry[entry] != -1) {
+            
+            int set = entry / ways;
+            
+            unlink(set, entry);
+            linkNewest(set, entry);
+            
+        }
+        
+        return frames[entry];
+        
+    } // end lookup
+    
+    
+    /**
+     * This method caches a translation, replacing an entry in the page's set if it is full.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param pageNumber - The page being translated.
+     * 
+     * @param frameNumber - The frame it now resides in.
+     * 
+     * @param protection - Some combination of PageTable.READ and PageTable.WRITE.
+     */
+    public void insert(int asid, int pageNumber, int frameNumber, int protection) {
+        
+        int set = setOf(asid, pageNumber);
+        int victim = find(asid, pageNumber);
+        
+        if(victim == -1) {
+            
+            // Empty ways sit at the head, so this is one of them if there are any.
+            victim = oldestEntry[set];
+            
+            if(pages[victim] != -1) {
+                
+                removeFromIndex(victim);
+                
+            }
+            
+            pages[victim] = pageNumber;
+            asids[victim] = asid;
+            
+            int slot = homeSlot(asid, pageNumber);
+            
+            while(index[slot] != -1) {
+                
+                slot = (slot + 1) & indexMask;
+                
+            }
+            
+            index[slot] = victim;
+            
+        }
+        
+        frames[victim] = frameNumber | (protection << PageTable.PROTECTION_SHIFT);
+        unlink(set, victim);
+        linkNewest(set, victim);
+        
+    } // end insert
+    
+    
+    /**
+     * This method shoots down the translation for a page, used when the page leaves memory
+     * or its protection changes.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param pageNumber - The page that is no longer in its frame.
+     */
+    public void invalidate(int asid, int pageNumber) {
+        
+        int entry = find(asid, pageNumber);
+        
+        if(entry != -1) {
+            
+            int set = entry / ways;
+            
+            removeFromIndex(entry);
+            pages[entry] = -1;
+            unlink(set, entry);
+            linkOldest(set, entry);
+            
+        }
+        
+    } // end invalidate
+    
+    
+    /**
+     * This method empties the whole TLB.
+     */
+    public void flush() {
+        
+        for(int i = 0 ; i < index.length ; i++) {
+            
+            index[i] = -1;
+            
+        }
+        
+        // Every way of a set goes back on its list in order, lowest filled first.
+        for(int set = 0 ; set < numSets ; set++) {
+            
+            oldestEntry[set] = -1;
+            newestEntry[set] = -1;
+            
+            for(int entry = set * ways ; entry < (set + 1) * ways ; entry++) {
+                
+                pages[entry] = -1;
+                linkNewest(set, entry);
+                
+            }
+            
+        }
+        
+    } // end flush
+    
+    
+    /**
+     * @return - The number of translations found in the TLB.
+     */
+    public long getHits() {
+        
+        return hits;
+        
+    } // end getHits
+    
+    
+    /**
+     * @return - The number of translations that missed the TLB.
+     */
+    public long getMisses() {
+        
+        return misses;
+        
+    } // end getMisses
+    
+    
+    /**
+     * This method returns a String representation of the TLB.
+     */
+    @Override
+    public String toString() {
+        
+        return "TLB with " + pages.length + " entries, " + ways + " way, " + hits + " hits, "
+                + misses + " misses";
+                
+    } // end toString
+    
+} // end TLB
\ No newline at end of file
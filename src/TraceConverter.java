@@ -0,0 +1,117 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class converts a text address trace into the binary format replayed by
+ * TraceReader. The text format is one access per line, either "R address" or
+ * "W address value", addresses and values in decimal or 0x hex. Blank lines and lines
+ * starting with # are skipped.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+
+public class TraceConverter {
+    
+    /**
+     * This method converts a text trace into a binary one.
+     * 
+     * @param textFile - The text trace to read.
+     * 
+     * @param binaryFile - The binary trace to write, replaced if it exists.
+     * 
+     * @return - The number of records written.
+     * 
+     * @throws IOException - If either file can't be used or a line can't be understood.
+     */
+    public static long convert(String textFile, String binaryFile) throws IOException {
+        
+        long numRecords = 0;
+        int lineNumber = 0;
+        
+        try(BufferedReader reader = new BufferedReader(new FileReader(textFile));
+                DataOutputStream writer = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(binaryFile)))) {
+                        
+            String line;
+            
+            while((line = reader.readLine()) != null) {
+                
+                lineNumber++;
+                line = line.trim();
+                
+                if(line.isEmpty() || line.startsWith("#")) {
+                    
+                    continue;
+                    
+                }
+                
+                String[] fields = line.split("\\s+");
+                
+                try {
+                    
+                    if(fields[0].equalsIgnoreCase("R") && fields.length == 2) {
+                        
+                        writer.writeByte(TraceReader.READ);
+                        writer.writeInt(parseNumber(fields[1]));
+                        writer.writeInt(0);
+                        
+                    } else if(fields[0].equalsIgnoreCase("W") && fields.length == 3) {
+                        
+                        writer.writeByte(TraceReader.WRITE);
+                        writer.writeInt(parseNumber(fields[1]));
+                        writer.writeInt(parseNumber(fields[2]));
+                        
+                    } else {
+                        
+                        throw new NumberFormatException(line);
+                        
+                    }
+                    
+                } catch(NumberFormatException e) {
+                    
+                    throw new IOException("Bad trace line " + lineNumber + ": " + line);
+                    
+                }
+                
+                numRecords++;
+                
+            }
+            
+        }
+        
+        return numRecords;
+        
+    } // end convert
+    
+    
+    /**
+     * This is a private method reading a decimal or 0x hex int.
+     * 
+     * @param text - The number as text.
+     * 
+     * @return - The number.
+     */
+    private static int parseNumber(String text) {
+        
+        if(text.startsWith("0x") || text.startsWith("0X")) {
+            
+            return (int) Long.parseLong(text.substring(2), 16);
+            
+        }
+        
+        return Integer.parseInt(text);
+        
+    } // end parseNumber
+    
+} // end TraceConverter
\ No newline at end of file
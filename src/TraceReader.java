@@ -0,0 +1,122 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class replays an address trace from a binary file into an MMU. The
+ * file is memory mapped rather than read, so even traces with hundreds of millions of
+ * records are replayed without copying them onto the heap or allocating per record.
+ * 
+ * Each record is RECORD_SIZE bytes, big endian: one op byte (READ or WRITE), the int
+ * address and the int value to write, which is ignored for reads. See TraceConverter
+ * for making one from a text trace.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class TraceReader {
+    
+    final static byte READ = 0;                     // Op byte of a read record.
+    final static byte WRITE = 1;                    // Op byte of a write record.
+    final static int RECORD_SIZE = 9;               // Bytes per record.
+    
+    // A single mapping can't pass 2GB, so big traces are mapped in whole-record regions.
+    private final static int REGION_SIZE = (Integer.MAX_VALUE / RECORD_SIZE) * RECORD_SIZE;
+    
+    private MappedByteBuffer[] regions;             // The mapped trace, read only.
+    private long numRecords;                        // Records in the whole trace.
+    
+    
+    /**
+     * This will map the specified trace file into memory.
+     * 
+     * @param fileName - The binary trace to replay.
+     * 
+     * @throws IOException - If the file can't be opened or isn't whole records.
+     */
+    public TraceReader(String fileName) throws IOException {
+        
+        try(RandomAccessFile file = new RandomAccessFile(fileName, "r");
+                FileChannel channel = file.getChannel()) {
+                
+            long length = channel.size();
+            
+            if(length % RECORD_SIZE != 0) {
+                
+                throw new IOException(fileName + " is not a whole number of trace records.");
+                
+            }
+            
+            numRecords = length / RECORD_SIZE;
+            regions = new MappedByteBuffer[(int) ((length + REGION_SIZE - 1) / REGION_SIZE)];
+            
+            // The mappings stay valid after the channel is closed.
+            for(int i = 0 ; i < regions.length ; i++) {
+                
+                long start = (long) i * REGION_SIZE;
+                long size = Math.min(REGION_SIZE, length - start);
+                
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+                
+            }
+            
+        }
+        
+    } // end TraceReader constructor
+    
+    
+    /**
+     * @return - The number of records in the trace.
+     */
+    public long getNumberOfRecords() {
+        
+        return numRecords;
+        
+    } // end getNumberOfRecords
+    
+    
+    /**
+     * This method feeds every record of the trace to the MMU, in order. Only absolute reads
+     * are made on the mapping so several MMUs can replay the same reader at once.
+     * 
+     * @param mmu - The MMU to drive.
+     * 
+     * @return - The number of accesses made.
+     */
+    public long replay(MMU mmu) {
+        
+        for(MappedByteBuffer region : regions) {
+            
+            int limit = region.limit();
+            
+            for(int position = 0 ; position < limit ; position += RECORD_SIZE) {
+                
+                int address = region.getInt(position + 1);
+                
+                if(region.get(position) == WRITE) {
+                    
+                    mmu.writeMemory(address, region.getInt(position + 5));
+                    
+                } else {
+                    
+                    mmu.readMemory(address);
+                    
+                }
+                
+            }
+            
+        }
+        
+        return numRecords;
+        
+    } // end replay
+    
+} // end TraceReader
\ No newline at end of file
@@ -0,0 +1,40 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a workload picking every address uniformly at random, no
+ * locality at all, so every policy faults about as often as any other.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public class UniformWorkload extends Workload {
+    
+    /**
+     * This will construct a new uniform random workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed.
+     */
+    public UniformWorkload(int numAddresses, int writePercent, long seed) {
+        
+        super(numAddresses, writePercent, seed);
+        
+    } // end UniformWorkload constructor
+    
+    
+    @Override
+    public int nextAddress() {
+        
+        return nextInt(numAddresses);
+        
+    } // end nextAddress
+    
+} // end UniformWorkload
\ No newline at end of file
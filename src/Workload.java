@@ -0,0 +1,321 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is the base of every synthetic workload. A workload is a seeded,
+ * deterministic stream of addresses that drives an MMU through its interface, running
+ * the same workload twice makes exactly the same accesses. Random numbers come from a
+ * small xorshift generator kept in a long, so nothing is allocated per access.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+public abstract class Workload {
+    
+    final static String SEQUENTIAL = "SEQUENTIAL";  // Every address in order.
+    final static String STRIDED = "STRIDED";        // Fixed stride through the addresses.
+    final static String UNIFORM = "UNIFORM";        // Uniformly random addresses.
+    final static String ZIPF = "ZIPF";              // Zipfian hot set of pages.
+    final static String LOOP = "LOOP";              // A loop over more pages than frames.
+    final static String PHASE = "PHASE";            // Working sets that shift over time.
+    
+    protected final int numAddresses;               // Size of the virtual address space.
+    private final int writePercent;                 // Chance out of 100 an access is a write.
+    private final long seed;                        // Where the random stream starts.
+    private long state;                             // The random generator state.
+    
+    
+    /**
+     * This will construct a new workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed, the same seed always gives the same accesses.
+     */
+    public Workload(int numAddresses, int writePercent, long seed) {
+        
+        this.numAddresses = numAddresses;
+        this.writePercent = writePercent;
+        this.seed = seed;
+        this.state = 1;
+        
+    } // end Workload constructor
+    
+    
+    /**
+     * This method builds one of the standard workloads, sized from a configuration.
+     * 
+     * @param name - SEQUENTIAL, STRIDED, UNIFORM, ZIPF, LOOP or PHASE.
+     * 
+     * @param config - The geometry the workload runs against.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed.
+     * 
+     * @return - The workload, or null if the name isn't one we know.
+     */
+    public static Workload create(String name, MMUConfig config, int writePercent, long seed) {
+        
+        int numPages = config.getNumberOfPages();
+        int numFrames = config.getNumberOfFrames();
+        int pageSize = config.getPageSize();
+        int numAddresses = numPages * pageSize;
+        
+        switch (name.toUpperCase()) {
+            
+            case SEQUENTIAL:    return new SequentialWorkload(numAddresses, writePercent, seed);
+            
+            // One page and a bit each step, so every access lands on a new page.
+            case STRIDED:       return new StridedWorkload(numAddresses, pageSize + 1,
+                                        writePercent, seed);
+                                        
+            case UNIFORM:       return new UniformWorkload(numAddresses, writePercent, seed);
+            
+            case ZIPF:          return new ZipfWorkload(numAddresses, pageSize, 1.0,
+                                        writePercent, seed);
+                                        
+            // A quarter more pages than fit, the classic case where LRU always misses.
+            case LOOP:          return new LoopWorkload(numAddresses, pageSize,
+                                        Math.min(numPages, numFrames + numFrames / 4 + 1),
+                                        writePercent, seed);
+                                        
+            // Half of memory is in use at a time, moving every 50000 accesses.
+            case PHASE:         return new PhaseWorkload(numAddresses,
+                                        Math.min(numAddresses, Math.max(1, numFrames / 2) * pageSize),
+                                        50000, writePercent, seed);
+                                        
+            default:            return null;
+            
+        } // end switch
+        
+    } // end create
+    
+    
+    /**
+     * This method makes the specified number of accesses against an MMU, starting from the
+     * beginning of the workload every time. Writes store the access number.
+     * 
+     * @param mmu - The MMU to drive.
+     * 
+     * @param numAccesses - How many reads and writes to make.
+     * 
+     * @return - The number of accesses made.
+     */
+    public long run(MMU mmu, long numAccesses) {
+        
+        reset();
+        
+        return step(mmu, numAccesses);
+        
+    } // end run
+    
+    
+    /**
+     * This method makes the specified number of accesses against an MMU, carrying on from
+     * wherever the workload left off. Writes store the access number within this step.
+     * 
+     * @param mmu - The MMU to drive.
+     * 
+     * @param numAccesses - How many reads and writes to make.
+     * 
+     * @return - The number of accesses made.
+     */
+    public long step(MMU mmu, long numAccesses) {
+        
+        for(long i = 0 ; i < numAccesses ; i++) {
+            
+            int address = nextAddress();
+            
+            if(nextInt(100) < writePercent) {
+                
+                mmu.writeMemory(address, (int) i);
+                
+            } else {
+                
+                mmu.readMemory(address);
+                
+            }
+            
+        }
+        
+        return numAccesses;
+        
+    } // end step
+    
+    
+    /**
+     * This method runs one workload per process, round robin, switching process every
+     * quantum accesses until each has made its accesses. Processes the MMU doesn't have
+     * yet are created, workload i runs as ASID i and every workload starts from its seed.
+     * 
+     * @param mmu - The MMU to drive.
+     * 
+     * @param workloads - One workload per process.
+     * 
+     * @param accessesEach - How many reads and writes each process makes.
+     * 
+     * @param quantum - Accesses a process makes before the next one runs.
+     * 
+     * @return - The number of accesses made by all processes together.
+     */
+    public static long runRoundRobin(MMUHardware mmu, Workload[] workloads, long accessesEach,
+            long quantum) {
+            
+        while(mmu.getNumberOfProcesses() < workloads.length) {
+            
+            if(mmu.createProcess() < 0) {
+                
+                return 0;
+                
+            }
+            
+        }
+        
+        for(Workload workload : workloads) {
+            
+            workload.reset();
+            
+        }
+        
+        for(long done = 0 ; done < accessesEach ; done += quantum) {
+            
+            long slice = Math.min(quantum, accessesEach - done);
+            
+            for(int asid = 0 ; asid < workloads.length ; asid++) {
+                
+                mmu.contextSwitch(asid);
+                workloads[asid].step(mmu, slice);
+                
+            }
+            
+        }
+        
+        return accessesEach * workloads.length;
+        
+    } // end runRoundRobin
+    
+    
+    
+    /**
+     * This method runs every workload on its own thread against the same MMU, which has to
+     * be safe for that, such as ConcurrentMMU. Every workload starts from its seed.
+     * 
+     * @param mmu - The MMU to drive.
+     * 
+     * @param workloads - One workload per thread.
+     * 
+     * @param accessesEach - How many reads and writes each thread makes.
+     * 
+     * @return - The number of accesses made by all threads together.
+     */
+    public static long runThreads(final MMU mmu, Workload[] workloads, final long accessesEach) {
+        
+        Thread[] threads = new Thread[workloads.length];
+        
+        for(int t = 0 ; t < workloads.length ; t++) {
+            
+            final Workload workload = workloads[t];
+            
+            threads[t] = new Thread(() -> workload.run(mmu, accessesEach));
+            threads[t].start();
+            
+        }
+        
+        for(Thread thread : threads) {
+            
+            try {
+                
+                thread.join();
+                
+            } catch(InterruptedException e) {
+                
+                Thread.currentThread().interrupt();
+                
+            }
+            
+        }
+        
+        return accessesEach * workloads.length;
+        
+    } // end runThreads
+    
+    
+    /**
+     * This method puts the workload back at its first access.
+     */
+    public void reset() {
+        
+        // Spread the seed out so nearby seeds give unrelated streams, never all zero.
+        long mixed = (seed + 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        state = (mixed ^ (mixed >>> 31)) | 1;
+        resetPosition();
+        
+    } // end reset
+    
+    
+    /**
+     * This method is where subclasses go back to their first access, if they keep a
+     * position of their own.
+     */
+    protected void resetPosition() {
+    
+    } // end resetPosition
+    
+    
+    /**
+     * This method returns the next address to access.
+     * 
+     * @return - An address from 0 up to numAddresses.
+     */
+    public abstract int nextAddress();
+    
+    
+    /**
+     * This method returns the next raw random number, xorshift64*.
+     * 
+     * @return - 64 random bits.
+     */
+    protected final long nextLong() {
+        
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        
+        return state * 0x2545F4914F6CDD1DL;
+        
+    } // end nextLong
+    
+    
+    /**
+     * This method returns a random int below a bound.
+     * 
+     * @param bound - One more than the largest value wanted, must be positive.
+     * 
+     * @return - A random int from 0 up to bound.
+     */
+    protected final int nextInt(int bound) {
+        
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+        
+    } // end nextInt
+    
+    
+    /**
+     * This method returns a random double.
+     * 
+     * @return - A random double from 0 up to 1.
+     */
+    protected final double nextDouble() {
+        
+        return (nextLong() >>> 11) * 0x1.0p-53;
+        
+    } // end nextDouble
+    
+} // end Workload
\ No newline at end of file
@@ -0,0 +1,101 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class is a workload with a Zipfian hot set, the page of popularity rank
+ * k is picked with probability proportional to 1 / k^skew and the offset within it is
+ * uniform. Ranks are scattered over the pages by a seeded shuffle so the hot pages
+ * aren't simply the first ones.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import java.util.Arrays;
+
+public class ZipfWorkload extends Workload {
+    
+    private int pageSize;           // Addresses per page.
+    private double[] cumulative;    // Probability of picking rank 0 through each rank.
+    private int[] rankToPage;       // Which page has each popularity rank.
+    
+    
+    /**
+     * This will construct a new Zipfian workload.
+     * 
+     * @param numAddresses - The size of the virtual address space.
+     * 
+     * @param pageSize - Addresses per page, popularity is per page.
+     * 
+     * @param skew - The Zipf exponent, 0 is uniform and larger is more skewed.
+     * 
+     * @param writePercent - The chance out of 100 that an access is a write.
+     * 
+     * @param seed - The random seed.
+     */
+    public ZipfWorkload(int numAddresses, int pageSize, double skew, int writePercent,
+            long seed) {
+            
+        super(numAddresses, writePercent, seed);
+        this.pageSize = pageSize;
+        
+        int numPages = numAddresses / pageSize;
+        
+        cumulative = new double[numPages];
+        double total = 0;
+        
+        for(int rank = 0 ; rank < numPages ; rank++) {
+            
+            total += 1.0 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+            
+        }
+        
+        for(int rank = 0 ; rank < numPages ; rank++) {
+            
+            cumulative[rank] /= total;
+            
+        }
+        
+        // Scatter the ranks with the workload's own generator so the seed decides it.
+        reset();
+        rankToPage = new int[numPages];
+        
+        for(int i = 0 ; i < numPages ; i++) {
+            
+            rankToPage[i] = i;
+            
+        }
+        
+        for(int i = numPages - 1 ; i > 0 ; i--) {
+            
+            int j = nextInt(i + 1);
+            int swap = rankToPage[i];
+            rankToPage[i] = rankToPage[j];
+            rankToPage[j] = swap;
+            
+        }
+        
+    } // end ZipfWorkload constructor
+    
+    
+    @Override
+    public int nextAddress() {
+        
+        int rank = Arrays.binarySearch(cumulative, nextDouble());
+        
+        // binarySearch gives -(insertion point) - 1 when not an exact match.
+        if(rank < 0) {
+            
+            rank = Math.min(-rank - 1, cumulative.length - 1);
+            
+        }
+        
+        return rankToPage[rank] * pageSize + nextInt(pageSize);
+        
+    } // end nextAddress
+    
+} // end ZipfWorkload
\ No newline at end of file
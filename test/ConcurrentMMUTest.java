@@ -0,0 +1,314 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class tests ConcurrentMMU from several threads at once. Memory is far
+ * smaller than the pages in use, so pages are evicted and written back all the time while
+ * other threads read and write them. Every address is only ever written by one thread,
+ * with values that tell which address and which round they were written for, so a write
+ * that got lost or a read of a page half loaded or already replaced shows up as a value
+ * from an older round or from some other address.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ConcurrentMMUTest {
+    
+    private final static int NUM_PAGES = 64;
+    private final static int NUM_FRAMES = 8;
+    private final static int PAGE_SIZE = 64;
+    private final static int NUM_ADDRESSES = NUM_PAGES * PAGE_SIZE;
+    private final static int NUM_THREADS = 8;
+    private final static int ROUNDS = 40;
+    
+    
+    /**
+     * Each round every thread writes all of its addresses, reads them straight back and
+     * then reads everyone else's. Its own have to hold exactly what it wrote, the others
+     * have to belong to their address and never go back to an older round. Once every
+     * thread is done, every address has to hold its last round.
+     * 
+     * @param method - The replacement method.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {MMUHardware.CLOCK, MMUHardware.FIFO, MMUHardware.LRU,
+            MMUHardware.CLOCK_PRO})
+    public void losesNoWritesAndTearsNoReads(String method) {
+        
+        ConcurrentMMU mmu = createMMU(method, MMUConfig.HEAP);
+        
+        assertEquals(0, hammer(mmu));
+        assertTrue(mmu.getWriteBacks() > 0);
+        
+    } // end losesNoWritesAndTearsNoReads
+    
+    
+    /**
+     * The same as above with the pages in a swap file, whose buffers are shared by every
+     * page in them.
+     */
+    @Test
+    public void losesNoWritesToTheSwapFile() {
+        
+        ConcurrentMMU mmu = createMMU(MMUHardware.CLOCK, MMUConfig.MAPPED);
+        
+        assertEquals(0, hammer(mmu));
+        assertTrue(mmu.getWriteBacks() > 0);
+        
+    } // end losesNoWritesToTheSwapFile
+    
+    
+    /**
+     * Every thread faults on the same page at the same moment, only one of them may load
+     * it and the rest have to wait for that load and then write to it as well.
+     */
+    @Test
+    public void loadsAPageOnlyOnceForEveryThreadFaultingOnIt() {
+        
+        ConcurrentMMU mmu = createMMU(MMUHardware.CLOCK, MMUConfig.HEAP);
+        AtomicInteger wrongValues = new AtomicInteger();
+        
+        runThreads(thread -> mmu.writeMemory(PAGE_SIZE + thread, thread + 1), wrongValues);
+        
+        for(int thread = 0 ; thread < NUM_THREADS ; thread++) {
+            
+            if(mmu.readMemory(PAGE_SIZE + thread) != thread + 1) {
+                
+                wrongValues.incrementAndGet();
+                
+            }
+            
+        }
+        
+        assertEquals(0, wrongValues.get());
+        assertEquals(1, mmu.getTotalPageFaults());
+        
+    } // end loadsAPageOnlyOnceForEveryThreadFaultingOnIt
+    
+    
+    /**
+     * A write to a read only page is refused without bringing it in, and allowed again
+     * once the page is writable.
+     */
+    @Test
+    public void refusesWritesToReadOnlyPages() {
+        
+        ConcurrentMMU mmu = createMMU(MMUHardware.CLOCK, MMUConfig.HEAP);
+        
+        assertTrue(mmu.setProtection(1, PageTable.READ));
+        assertFalse(mmu.writeMemory(PAGE_SIZE, 1));
+        assertEquals(0, mmu.getTotalPageFaults());
+        assertEquals(0, mmu.readMemory(PAGE_SIZE));
+        
+        assertTrue(mmu.setProtection(1, PageTable.READ_WRITE));
+        assertTrue(mmu.writeMemory(PAGE_SIZE, 2));
+        assertEquals(2, mmu.readMemory(PAGE_SIZE));
+        assertEquals(1, mmu.getProtectionFaults());
+        
+    } // end refusesWritesToReadOnlyPages
+    
+    
+    /**
+     * This is a private method running the rounds described above.
+     * 
+     * @param mmu - The MMU.
+     * 
+     * @return - How many reads saw the wrong value.
+     */
+    private static int hammer(ConcurrentMMU mmu) {
+        
+        AtomicInteger wrongValues = new AtomicInteger();
+        
+        runThreads(thread -> {
+            
+            // The latest round this thread has seen at every address.
+            int[] seen = new int[NUM_ADDRESSES];
+            Arrays.fill(seen, -1);
+            
+            for(int round = 0 ; round < ROUNDS ; round++) {
+                
+                // Interleaved, so every page is written by every thread.
+                for(int address = thread ; address < NUM_ADDRESSES ; address += NUM_THREADS) {
+                    
+                    mmu.writeMemory(address, valueOf(address, round));
+                    
+                }
+                
+                for(int address = thread ; address < NUM_ADDRESSES ; address += NUM_THREADS) {
+                    
+                    if(mmu.readMemory(address) != valueOf(address, round)) {
+                        
+                        wrongValues.incrementAndGet();
+                        
+                    }
+                    
+                }
+                
+                // Everyone starts reading from a different place.
+                for(int i = 0 ; i < NUM_ADDRESSES ; i++) {
+                    
+                    int address = (i + thread * PAGE_SIZE) % NUM_ADDRESSES;
+                    int written = roundOf(address, mmu.readMemory(address));
+                    
+                    if(written < seen[address]) {
+                        
+                        wrongValues.incrementAndGet();
+                        
+                    } else {
+                        
+                        seen[address] = written;
+                        
+                    }
+                    
+                }
+                
+            }
+            
+        }, wrongValues);
+        
+        for(int address = 0 ; address < NUM_ADDRESSES ; address++) {
+            
+            if(mmu.readMemory(address) != valueOf(address, ROUNDS - 1)) {
+                
+                wrongValues.incrementAndGet();
+                
+            }
+            
+        }
+        
+        return wrongValues.get();
+        
+    } // end hammer
+    
+    
+    /**
+     * This is a private method giving the value written to an address in a round, never 0
+     * so it can't be mistaken for an address that was never written.
+     * 
+     * @param address - The address.
+     * 
+     * @param round - The round, from 0.
+     * 
+     * @return - The value.
+     */
+    private static int valueOf(int address, int round) {
+        
+        return (round + 1) * NUM_ADDRESSES + address;
+        
+    } // end valueOf
+    
+    
+    /**
+     * This is a private method telling which round a value read from an address was
+     * written in.
+     * 
+     * @param address - The address read.
+     * 
+     * @param value - What it held.
+     * 
+     * @return - The round, -1 if never written and -2 if the value belongs elsewhere.
+     */
+    private static int roundOf(int address, int value) {
+        
+        if(value == 0) {
+            
+            return -1;
+            
+        }
+        
+        return value % NUM_ADDRESSES == address ? value / NUM_ADDRESSES - 1 : -2;
+        
+    } // end roundOf
+    
+    
+    /**
+     * This is a private method running the same work on every thread at once and waiting
+     * for all of them. A thread that throws counts as a wrong value.
+     * 
+     * @param work - Given the thread's number.
+     * 
+     * @param wrongValues - Counts the threads that failed.
+     */
+    private static void runThreads(IntConsumer work, AtomicInteger wrongValues) {
+        
+        CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS);
+        Thread[] threads = new Thread[NUM_THREADS];
+        
+        for(int t = 0 ; t < NUM_THREADS ; t++) {
+            
+            final int thread = t;
+            
+            threads[t] = new Thread(() -> {
+                
+                try {
+                    
+                    barrier.await();
+                    work.accept(thread);
+                    
+                } catch(Throwable e) {
+                    
+                    wrongValues.incrementAndGet();
+                    
+                }
+                
+            });
+            
+            threads[t].start();
+            
+        }
+        
+        for(Thread thread : threads) {
+            
+            try {
+                
+                thread.join();
+                
+            } catch(InterruptedException e) {
+                
+                Thread.currentThread().interrupt();
+                
+            }
+            
+        }
+        
+    } // end runThreads
+    
+    
+    /**
+     * This is a private method building a concurrent MMU much smaller than its pages,
+     * with no output file.
+     * 
+     * @param method - The replacement method.
+     * 
+     * @param store - The backing store.
+     * 
+     * @return - The MMU.
+     */
+    private static ConcurrentMMU createMMU(String method, String store) {
+        
+        MMUConfig config = new MMUConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE, method);
+        config.setOutputFile(null);
+        config.setBackingStore(store);
+        
+        return new ConcurrentMMU(config, NUM_THREADS);
+        
+    } // end createMMU
+    
+} // end ConcurrentMMUTest
\ No newline at end of file
@@ -0,0 +1,155 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class tests that LRU replaces the page used least recently even when
+ * every access happens within the same millisecond. Frames used to be stamped with
+ * System.currentTimeMillis, so accesses that close together tied and the frame with the
+ * lowest number was replaced instead, which these tests catch.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LRUPolicyTest {
+    
+    private final static int PAGE_SIZE = 16;
+    
+    
+    /**
+     * Page 0 is loaded first, into frame 0, but used again before the fault, so page 1
+     * has to be the one replaced.
+     */
+    @Test
+    public void replacesLeastRecentlyUsedPageNotLowestFrame() {
+        
+        MMUHardware mmu = createMMU(8, 4);
+        
+        for(int page = 0 ; page < 4 ; page++) {
+            
+            touch(mmu, page);
+            
+        }
+        
+        touch(mmu, 0);
+        touch(mmu, 4);
+        assertEquals(5, mmu.getTotalPageFaults());
+        
+        // Page 0 must still be resident, page 1 must not.
+        touch(mmu, 0);
+        assertEquals(5, mmu.getTotalPageFaults());
+        
+        touch(mmu, 1);
+        assertEquals(6, mmu.getTotalPageFaults());
+        
+    } // end replacesLeastRecentlyUsedPageNotLowestFrame
+    
+    
+    /**
+     * Every page is used a second time in reverse order, so the last page loaded is the
+     * least recently used and the first page loaded the most.
+     */
+    @Test
+    public void ordersAccessesMadeInTheSameMillisecond() {
+        
+        int frames = 64;
+        MMUHardware mmu = createMMU(frames * 2, frames);
+        
+        for(int page = 0 ; page < frames ; page++) {
+            
+            touch(mmu, page);
+            
+        }
+        
+        for(int page = frames - 1 ; page >= 0 ; page--) {
+            
+            touch(mmu, page);
+            
+        }
+        
+        touch(mmu, frames);
+        assertEquals(frames + 1, mmu.getTotalPageFaults());
+        
+        for(int page = 0 ; page < frames - 1 ; page++) {
+            
+            touch(mmu, page);
+            
+        }
+        
+        assertEquals(frames + 1, mmu.getTotalPageFaults());
+        
+        touch(mmu, frames - 1);
+        assertEquals(frames + 2, mmu.getTotalPageFaults());
+        
+    } // end ordersAccessesMadeInTheSameMillisecond
+    
+    
+    /**
+     * Each access has to get a later stamp than the one before, however close together.
+     */
+    @Test
+    public void stampsEveryFrameAccessLaterThanTheLast() {
+        
+        Memory memory = new Memory(4, PAGE_SIZE);
+        memory.setReplacementPolicy(new LRUPolicy(4));
+        
+        for(int frame = 0 ; frame < 4 ; frame++) {
+            
+            memory.readFromFrame(frame, 0);
+            
+        }
+        
+        memory.writeToFrame(0, 0, 1);
+        
+        for(int frame = 2 ; frame < 4 ; frame++) {
+            
+            assertTrue(memory.getFrameTimeStamp(frame) > memory.getFrameTimeStamp(frame - 1));
+            
+        }
+        
+        assertTrue(memory.getFrameTimeStamp(0) > memory.getFrameTimeStamp(3));
+        
+    } // end stampsEveryFrameAccessLaterThanTheLast
+    
+    
+    /**
+     * This is a private method building an LRU MMU with small pages and no output file.
+     * 
+     * @param numPages - Virtual pages.
+     * 
+     * @param numFrames - Physical frames.
+     * 
+     * @return - The MMU.
+     */
+    private static MMUHardware createMMU(int numPages, int numFrames) {
+        
+        MMUConfig config = new MMUConfig(numPages, numFrames, PAGE_SIZE, MMUHardware.LRU);
+        config.setOutputFile(null);
+        
+        return new MMUHardware(config);
+        
+    } // end createMMU
+    
+    
+    /**
+     * This is a private method reading the first address of a page.
+     * 
+     * @param mmu - The MMU.
+     * 
+     * @param page - The page to use.
+     */
+    private static void touch(MMUHardware mmu, int page) {
+        
+        mmu.readMemory(page * PAGE_SIZE);
+        
+    } // end touch
+    
+} // end LRUPolicyTest
\ No newline at end of file
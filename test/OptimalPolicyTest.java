@@ -0,0 +1,152 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class tests Belady's optimal policy, first against the fault counts
+ * worked out by hand for the textbook reference string and then as the lower bound it is,
+ * never more faults than any other policy on the same trace at any memory size.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class OptimalPolicyTest {
+    
+    private final static int NUM_PAGES = 32;
+    private final static int PAGE_SIZE = 16;
+    private final static int TRACE_LENGTH = 5000;
+    
+    
+    /**
+     * The reference string from Silberschatz with 3 frames, where OPT faults 9 times,
+     * LRU 12 and FIFO 15.
+     */
+    @Test
+    public void faultsAsFewTimesAsTheTextbookSays() {
+        
+        int[] trace = {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 2, 1, 2, 0, 1, 7, 0, 1};
+        
+        assertEquals(9, run(trace, 8, 3, MMUHardware.OPT));
+        assertEquals(12, run(trace, 8, 3, MMUHardware.LRU));
+        assertEquals(15, run(trace, 8, 3, MMUHardware.FIFO));
+        
+    } // end faultsAsFewTimesAsTheTextbookSays
+    
+    
+    /**
+     * A trace with some locality and some scans, run at several memory sizes under every
+     * other policy. OPT must never fault more than any of them.
+     */
+    @Test
+    public void isNeverWorseThanAnyOtherPolicy() {
+        
+        int[] trace = createTrace();
+        
+        for(int frames : new int[] {1, 2, 5, 8, 13, 21, 31}) {
+            
+            int optimal = run(trace, NUM_PAGES, frames, MMUHardware.OPT);
+            
+            for(String method : new String[] {MMUHardware.LRU, MMUHardware.FIFO,
+                    MMUHardware.CLOCK, MMUHardware.CLOCK_PRO}) {
+                    
+                int faults = run(trace, NUM_PAGES, frames, method);
+                
+                assertTrue(optimal <= faults, method + " faulted " + faults + " times, OPT "
+                        + optimal + " times, with " + frames + " frames");
+                        
+            }
+            
+        }
+        
+    } // end isNeverWorseThanAnyOtherPolicy
+    
+    
+    /**
+     * This is a private method reading every page of a trace in order.
+     * 
+     * @param trace - The page of every access.
+     * 
+     * @param pages - Pages in the address space.
+     * 
+     * @param frames - Frames in memory.
+     * 
+     * @param method - The replacement method.
+     * 
+     * @return - The page faults.
+     */
+    private static int run(int[] trace, int pages, int frames, String method) {
+        
+        MMUConfig config = new MMUConfig(pages, frames, PAGE_SIZE, method);
+        config.setOutputFile(null);
+        config.setPageTrace(trace);
+        MMUHardware mmu = new MMUHardware(config);
+        
+        for(int page : trace) {
+            
+            mmu.readMemory(page * PAGE_SIZE);
+            
+        }
+        
+        return mmu.getTotalPageFaults();
+        
+    } // end run
+    
+    
+    /**
+     * This is a private method building a trace that is mostly a small hot set that
+     * drifts, with uniform accesses and the odd loop over every page.
+     * 
+     * @return - The page of every access.
+     */
+    private static int[] createTrace() {
+        
+        Random random = new Random(462);
+        int[] trace = new int[TRACE_LENGTH];
+        int hotBase = 0;
+        int i = 0;
+        
+        while(i < TRACE_LENGTH) {
+            
+            int kind = random.nextInt(100);
+            
+            if(kind < 3) {
+                
+                for(int page = 0 ; page < NUM_PAGES && i < TRACE_LENGTH ; page++) {
+                    
+                    trace[i++] = page;
+                    
+                }
+                
+            } else if(kind < 25) {
+                
+                trace[i++] = random.nextInt(NUM_PAGES);
+                
+            } else {
+                
+                if(random.nextInt(40) == 0) {
+                    
+                    hotBase = random.nextInt(NUM_PAGES);
+                    
+                }
+                
+                trace[i++] = (hotBase + random.nextInt(6)) % NUM_PAGES;
+                
+            }
+            
+        }
+        
+        return trace;
+        
+    } // end createTrace
+    
+} // end OptimalPolicyTest
\ No newline at end of file
@@ -0,0 +1,207 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class tests local replacement, where every process gets an even share
+ * of memory and a process at its share only ever replaces its own pages. A process can
+ * hold more than its share only while memory has frames nobody else has claimed, and the
+ * next process to fault under its share takes them back.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PartitionedPolicyTest {
+    
+    private final static int NUM_PAGES = 16;
+    private final static int NUM_FRAMES = 8;
+    private final static int PAGE_SIZE = 16;
+    private final static int NUM_PROCESSES = 4;
+    private final static int SHARE = NUM_FRAMES / NUM_PROCESSES;
+    
+    
+    /**
+     * Process 0 runs alone first and fills all of memory. Every other process then faults
+     * its way up to its share, taken from process 0, after which random accesses from
+     * every process leave each holding exactly its share.
+     */
+    @Test
+    public void keepsEveryProcessToItsShare() {
+        
+        MMUHardware mmu = createMMU();
+        
+        touchAllPages(mmu, 0);
+        assertEquals(NUM_FRAMES, residentPages(mmu, 0));
+        
+        for(int asid = 1 ; asid < NUM_PROCESSES ; asid++) {
+            
+            touchAllPages(mmu, asid);
+            
+        }
+        
+        Random random = new Random(462);
+        
+        for(int i = 0 ; i < 2000 ; i++) {
+            
+            int asid = random.nextInt(NUM_PROCESSES);
+            
+            mmu.contextSwitch(asid);
+            mmu.readMemory(random.nextInt(NUM_PAGES) * PAGE_SIZE);
+            
+            for(int other = 0 ; other < NUM_PROCESSES ; other++) {
+                
+                assertEquals(SHARE, residentPages(mmu, other), "process " + other);
+                
+            }
+            
+        }
+        
+    } // end keepsEveryProcessToItsShare
+    
+    
+    /**
+     * Process 1 brings in as many pages as its share, then process 0 cycles through more
+     * pages than all of memory. Every one of process 1's pages is still there afterwards.
+     */
+    @Test
+    public void aThrashingProcessCannotPushOthersOut() {
+        
+        MMUHardware mmu = createMMU();
+        
+        mmu.contextSwitch(1);
+        
+        for(int page = 0 ; page < SHARE ; page++) {
+            
+            mmu.readMemory(page * PAGE_SIZE);
+            
+        }
+        
+        for(int round = 0 ; round < 10 ; round++) {
+            
+            touchAllPages(mmu, 0);
+            
+        }
+        
+        int faults = mmu.getTotalPageFaults();
+        
+        mmu.contextSwitch(1);
+        
+        for(int page = 0 ; page < SHARE ; page++) {
+            
+            mmu.readMemory(page * PAGE_SIZE);
+            
+        }
+        
+        assertEquals(faults, mmu.getTotalPageFaults());
+        
+    } // end aThrashingProcessCannotPushOthersOut
+    
+    
+    /**
+     * Every process needs at least one frame, so there can be no more processes than
+     * frames under local replacement. Global replacement has no such limit.
+     */
+    @Test
+    public void refusesAProcessLeftWithoutAFrame() {
+        
+        MMUConfig config = new MMUConfig(NUM_PAGES, 2, PAGE_SIZE, MMUHardware.LRU);
+        config.setOutputFile(null);
+        config.setLocalReplacement(true);
+        MMUHardware mmu = new MMUHardware(config);
+        
+        assertEquals(1, mmu.createProcess());
+        assertEquals(-1, mmu.createProcess());
+        assertEquals(2, mmu.getNumberOfProcesses());
+        
+        config.setLocalReplacement(false);
+        mmu = new MMUHardware(config);
+        
+        assertEquals(1, mmu.createProcess());
+        assertEquals(2, mmu.createProcess());
+        assertEquals(3, mmu.getNumberOfProcesses());
+        
+    } // end refusesAProcessLeftWithoutAFrame
+    
+    
+    /**
+     * This is a private method reading every page of a process once, in order.
+     * 
+     * @param mmu - The MMU.
+     * 
+     * @param asid - The process to run.
+     */
+    private static void touchAllPages(MMUHardware mmu, int asid) {
+        
+        mmu.contextSwitch(asid);
+        
+        for(int page = 0 ; page < NUM_PAGES ; page++) {
+            
+            mmu.readMemory(page * PAGE_SIZE);
+            
+        }
+        
+    } // end touchAllPages
+    
+    
+    /**
+     * This is a private method counting the pages of a process that are in memory.
+     * 
+     * @param mmu - The MMU.
+     * 
+     * @param asid - The process.
+     * 
+     * @return - How many frames it holds.
+     */
+    private static int residentPages(MMUHardware mmu, int asid) {
+        
+        PageTable pageTable = mmu.getProcess(asid).getPageTable();
+        int resident = 0;
+        
+        for(int page = 0 ; page < NUM_PAGES ; page++) {
+            
+            if(pageTable.getFrameNumber(page) != -1) {
+                
+                resident++;
+                
+            }
+            
+        }
+        
+        return resident;
+        
+    } // end residentPages
+    
+    
+    /**
+     * This is a private method building an LRU MMU with local replacement, no output file
+     * and all its processes created.
+     * 
+     * @return - The MMU, running process 0.
+     */
+    private static MMUHardware createMMU() {
+        
+        MMUConfig config = new MMUConfig(NUM_PAGES, NUM_FRAMES, PAGE_SIZE, MMUHardware.LRU);
+        config.setOutputFile(null);
+        config.setLocalReplacement(true);
+        MMUHardware mmu = new MMUHardware(config);
+        
+        for(int asid = 1 ; asid < NUM_PROCESSES ; asid++) {
+            
+            assertEquals(asid, mmu.createProcess());
+            
+        }
+        
+        return mmu;
+        
+    } // end createMMU
+    
+} // end PartitionedPolicyTest
\ No newline at end of file
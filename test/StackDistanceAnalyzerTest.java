@@ -0,0 +1,128 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class tests that the miss ratio curve from StackDistanceAnalyzer is
+ * exactly what MMUHardware's LRU does, at every memory size checked. The trace is many
+ * times longer than the analyzer's 2 * pages + 1 positions, so it has to compact its
+ * tree over and over along the way.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class StackDistanceAnalyzerTest {
+    
+    private final static int NUM_PAGES = 64;
+    private final static int PAGE_SIZE = 16;
+    private final static int TRACE_LENGTH = 20000;
+    
+    
+    /**
+     * A trace short enough to work out by hand. The second access to 0 and to 1 each have
+     * 3 distinct pages since their last, so does the last access to 0, and the first
+     * access to each of the 4 pages faults at every size.
+     */
+    @Test
+    public void countsStackDistancesOfAShortTrace() {
+        
+        int[] trace = {0, 1, 2, 0, 1, 3, 0};
+        StackDistanceAnalyzer analyzer = StackDistanceAnalyzer.analyze(trace, 4);
+        
+        assertArrayEquals(new long[] {7, 7, 7, 4, 4}, analyzer.getFaultCurve());
+        assertEquals(7, analyzer.getNumberOfAccesses());
+        
+    } // end countsStackDistancesOfAShortTrace
+    
+    
+    /**
+     * The curve, taken after the whole trace, against an LRU run of the same trace at
+     * several memory sizes from a single frame to every page.
+     */
+    @Test
+    public void matchesLRUFaultsAtEveryFrameCount() {
+        
+        int[] trace = createTrace();
+        StackDistanceAnalyzer analyzer = StackDistanceAnalyzer.analyze(trace, NUM_PAGES);
+        long[] curve = analyzer.getFaultCurve();
+        
+        assertEquals(NUM_PAGES + 1, curve.length);
+        
+        for(int frames : new int[] {1, 2, 7, 16, 31, 48, 63, NUM_PAGES}) {
+            
+            MMUConfig config = new MMUConfig(NUM_PAGES, frames, PAGE_SIZE, MMUHardware.LRU);
+            config.setOutputFile(null);
+            MMUHardware mmu = new MMUHardware(config);
+            
+            for(int page : trace) {
+                
+                mmu.readMemory(page * PAGE_SIZE);
+                
+            }
+            
+            assertEquals(mmu.getTotalPageFaults(), curve[frames], frames + " frames");
+            assertEquals(curve[frames], analyzer.getFaults(frames), frames + " frames");
+            
+        }
+        
+    } // end matchesLRUFaultsAtEveryFrameCount
+    
+    
+    /**
+     * This is a private method building a trace with some locality, mostly a small hot
+     * set that drifts, some uniform accesses and the odd scan of every page.
+     * 
+     * @return - The page of every access.
+     */
+    private static int[] createTrace() {
+        
+        Random random = new Random(462);
+        int[] trace = new int[TRACE_LENGTH];
+        int hotBase = 0;
+        int i = 0;
+        
+        while(i < TRACE_LENGTH) {
+            
+            int kind = random.nextInt(100);
+            
+            if(kind < 2) {
+                
+                for(int page = 0 ; page < NUM_PAGES && i < TRACE_LENGTH ; page++) {
+                    
+                    trace[i++] = page;
+                    
+                }
+                
+            } else if(kind < 22) {
+                
+                trace[i++] = random.nextInt(NUM_PAGES);
+                
+            } else {
+                
+                if(random.nextInt(50) == 0) {
+                    
+                    hotBase = random.nextInt(NUM_PAGES);
+                    
+                }
+                
+                trace[i++] = (hotBase + random.nextInt(12)) % NUM_PAGES;
+                
+            }
+            
+        }
+        
+        return trace;
+        
+    } // end createTrace
+    
+} // end StackDistanceAnalyzerTest
\ No newline at end of file
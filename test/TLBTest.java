@@ -0,0 +1,242 @@
+/**
+ * Class: ICS 462 - Operating Systems <br>
+ * Instructor: Michael Dorin <br>
+ * Description: Program 3, Simulating Memory Management. <br>
+ * Due: 04/12/2016 <br><br>
+ * 
+ * This particular class tests the TLB, on its own and in front of MMUHardware's page
+ * tables. A full set replaces one of its own ways and nothing in any other set, and
+ * entries are tagged with their process so the same page of two processes are two
+ * entries. Its entries carry the page's protection with the frame, so a write that hits
+ * is checked without the page table, which only works as long as changing a page's
+ * protection shoots its cached translation down.
+ * 
+ * @author Tom Carney
+ * @version 1.0
+ * @since 04/01/2016
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TLBTest {
+    
+    private final static int PAGE_SIZE = 16;
+    
+    
+    /**
+     * A hit hands back the protection the translation was cached with, above its frame.
+     */
+    @Test
+    public void cachesProtectionWithTheFrame() {
+        
+        TLB tlb = new TLB(8, 0, TLB.LRU);
+        
+        tlb.insert(0, 5, 3, PageTable.READ);
+        tlb.insert(0, 6, 4, PageTable.READ_WRITE);
+        
+        assertEquals(3 | (PageTable.READ << PageTable.PROTECTION_SHIFT), tlb.lookup(0, 5));
+        assertEquals(4 | (PageTable.READ_WRITE << PageTable.PROTECTION_SHIFT),
+                tlb.lookup(0, 6));
+        assertEquals(-1, tlb.lookup(1, 5));
+        
+    } // end cachesProtectionWithTheFrame
+    
+    
+    /**
+     * A fully associative TLB of 2 entries is full after 2 pages. Under LRU the page not
+     * looked up since is the one replaced, under FIFO the one filled first.
+     */
+    @Test
+    public void replacesTheLeastRecentlyUsedOrOldestWay() {
+        
+        TLB lru = new TLB(2, 0, TLB.LRU);
+        TLB fifo = new TLB(2, 0, TLB.FIFO);
+        
+        for(TLB tlb : new TLB[] {lru, fifo}) {
+            
+            tlb.insert(0, 1, 1, PageTable.READ_WRITE);
+            tlb.insert(0, 2, 2, PageTable.READ_WRITE);
+            assertEquals(1, frameOf(tlb, 0, 1));
+            tlb.insert(0, 3, 3, PageTable.READ_WRITE);
+            
+        }
+        
+        assertEquals(1, frameOf(lru, 0, 1));
+        assertEquals(-1, frameOf(lru, 0, 2));
+        assertEquals(3, frameOf(lru, 0, 3));
+        
+        assertEquals(-1, frameOf(fifo, 0, 1));
+        assertEquals(2, frameOf(fifo, 0, 2));
+        assertEquals(3, frameOf(fifo, 0, 3));
+        
+    } // end replacesTheLeastRecentlyUsedOrOldestWay
+    
+    
+    /**
+     * Direct mapped with 4 sets, so for process 0 pages 0 to 3 each have a set of their
+     * own and page 4 shares page 0's. Filling page 4 replaces page 0 and nothing else.
+     */
+    @Test
+    public void replacesOnlyWithinThePagesSet() {
+        
+        TLB tlb = new TLB(4, 1, TLB.LRU);
+        
+        for(int page = 0 ; page < 4 ; page++) {
+            
+            tlb.insert(0, page, page, PageTable.READ_WRITE);
+            
+        }
+        
+        tlb.insert(0, 4, 4, PageTable.READ_WRITE);
+        
+        assertEquals(-1, frameOf(tlb, 0, 0));
+        
+        for(int page = 1 ; page <= 4 ; page++) {
+            
+            assertEquals(page, frameOf(tlb, 0, page));
+            
+        }
+        
+    } // end replacesOnlyWithinThePagesSet
+    
+    
+    /**
+     * The same page of three processes in a TLB of 2 entries. Each process has an entry
+     * of its own, shooting one down leaves the other, and a full TLB replaces the least
+     * recently used entry whichever process it belongs to.
+     */
+    @Test
+    public void keepsEveryProcesssTranslationsApart() {
+        
+        TLB tlb = new TLB(2, 0, TLB.LRU);
+        
+        tlb.insert(0, 5, 1, PageTable.READ_WRITE);
+        tlb.insert(1, 5, 2, PageTable.READ_WRITE);
+        assertEquals(1, frameOf(tlb, 0, 5));
+        assertEquals(2, frameOf(tlb, 1, 5));
+        
+        tlb.invalidate(1, 5);
+        assertEquals(1, frameOf(tlb, 0, 5));
+        assertEquals(-1, frameOf(tlb, 1, 5));
+        
+        tlb.insert(1, 5, 2, PageTable.READ_WRITE);
+        assertEquals(1, frameOf(tlb, 0, 5));
+        tlb.insert(2, 5, 3, PageTable.READ_WRITE);
+        
+        assertEquals(1, frameOf(tlb, 0, 5));
+        assertEquals(-1, frameOf(tlb, 1, 5));
+        assertEquals(3, frameOf(tlb, 2, 5));
+        
+    } // end keepsEveryProcesssTranslationsApart
+    
+    
+    /**
+     * Two processes each read the same page, so switching back to the first hits on the
+     * translation it cached before the switch.
+     */
+    @Test
+    public void keepsTranslationsAcrossAContextSwitch() {
+        
+        MMUHardware mmu = createMMU();
+        
+        assertEquals(1, mmu.createProcess());
+        
+        mmu.readMemory(PAGE_SIZE);
+        mmu.contextSwitch(1);
+        mmu.readMemory(PAGE_SIZE);
+        
+        long hits = mmu.getTLBHits();
+        
+        mmu.contextSwitch(0);
+        mmu.readMemory(PAGE_SIZE);
+        
+        assertEquals(hits + 1, mmu.getTLBHits());
+        assertEquals(2, mmu.getTotalPageFaults());
+        
+    } // end keepsTranslationsAcrossAContextSwitch
+    
+    
+    /**
+     * The page is written once so its translation is cached as writable, then made read
+     * only. The next write must be refused even though it would hit in the TLB, and
+     * allowed again once the page is writable.
+     */
+    @Test
+    public void refusesWritesToAPageMadeReadOnlyWhileCached() {
+        
+        MMUHardware mmu = createMMU();
+        
+        assertTrue(mmu.writeMemory(PAGE_SIZE, 1));
+        assertTrue(mmu.setProtection(1, PageTable.READ));
+        
+        assertFalse(mmu.writeMemory(PAGE_SIZE, 2));
+        assertEquals(1, mmu.getProtectionFaults());
+        assertEquals(1, mmu.readMemory(PAGE_SIZE));
+        
+        assertTrue(mmu.setProtection(1, PageTable.READ_WRITE));
+        assertTrue(mmu.writeMemory(PAGE_SIZE, 3));
+        assertEquals(3, mmu.readMemory(PAGE_SIZE));
+        assertEquals(1, mmu.getProtectionFaults());
+        
+    } // end refusesWritesToAPageMadeReadOnlyWhileCached
+    
+    
+    /**
+     * A read only page that was never touched is not brought in by a refused write.
+     */
+    @Test
+    public void refusedWriteDoesNotFault() {
+        
+        MMUHardware mmu = createMMU();
+        
+        assertTrue(mmu.setProtection(2, PageTable.READ));
+        assertFalse(mmu.writeMemory(2 * PAGE_SIZE, 1));
+        
+        assertEquals(0, mmu.getTotalPageFaults());
+        assertEquals(0, mmu.readMemory(2 * PAGE_SIZE));
+        assertEquals(1, mmu.getTotalPageFaults());
+        
+    } // end refusedWriteDoesNotFault
+    
+    
+    /**
+     * This is a private method looking a page up without its protection.
+     * 
+     * @param tlb - The TLB.
+     * 
+     * @param asid - The address space of the page.
+     * 
+     * @param page - The page.
+     * 
+     * @return - Its frame, or -1 on a miss.
+     */
+    private static int frameOf(TLB tlb, int asid, int page) {
+        
+        int entry = tlb.lookup(asid, page);
+        
+        return entry == -1 ? -1 : entry & ((1 << PageTable.PROTECTION_SHIFT) - 1);
+        
+    } // end frameOf
+    
+    
+    /**
+     * This is a private method building an MMU with a small fully associative TLB and no
+     * output file.
+     * 
+     * @return - The MMU.
+     */
+    private static MMUHardware createMMU() {
+        
+        MMUConfig config = new MMUConfig(8, 4, PAGE_SIZE, MMUHardware.LRU);
+        config.setOutputFile(null);
+        config.setTLBSize(4);
+        
+        return new MMUHardware(config);
+        
+    } // end createMMU
+    
+} // end TLBTest
\ No newline at end of file